@@ -0,0 +1,29 @@
+package main;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The BenchmarkRunner class is the entry point of the benchmarks jar.
+ * It accepts the usual JMH command line options and always enables the GC profiler,
+ * so every run reports the allocation rate next to the throughput.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Runs the benchmarks selected by the command line arguments.
+     *
+     * @param args JMH command line options, such as a benchmark name pattern or {@code -p drivers=100}
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
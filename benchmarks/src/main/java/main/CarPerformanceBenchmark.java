@@ -0,0 +1,70 @@
+package main;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The CarPerformanceBenchmark class measures the performance rating of a grid of cars.
+ * Throughput is reported per rated car.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(CarPerformanceBenchmark.GRID_SIZE)
+public class CarPerformanceBenchmark {
+    static final int GRID_SIZE = 1000; // the number of cars rated per invocation
+
+    @Param({"asphalt", "gravel", "mixed"})
+    private String surface; // the kind of cars in the grid
+
+    private RallyCar[] grid; // the cars to rate
+    private double[] ratings; // the ratings of the batch benchmark
+
+    /**
+     * Generates the grid of cars.
+     */
+    @Setup
+    public void setUp() {
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        grid = new RallyCar[GRID_SIZE];
+        for (int i = 0; i < grid.length; i++) {
+            RallyCar car = championship.createCar();
+            if (surface.equals("asphalt")) {
+                car = new AsphaltCar(car.getMake(), car.getModel(), car.getHorsepower(), 150);
+            } else if (surface.equals("gravel")) {
+                car = new GravelCar(car.getMake(), car.getModel(), car.getHorsepower(), 200);
+            }
+            grid[i] = car;
+        }
+        ratings = new double[GRID_SIZE];
+    }
+
+    @Benchmark
+    public void calculatePerformance(Blackhole blackhole) {
+        for (RallyCar car : grid) {
+            blackhole.consume(car.calculatePerformance());
+        }
+    }
+
+    @Benchmark
+    public double[] calculatePerformanceBatch() {
+        RallyCar.calculatePerformance(grid, ratings);
+        return ratings;
+    }
+}
@@ -0,0 +1,148 @@
+package main;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * The DriverStoreFootprintTest class compares the memory footprint and garbage collection pauses
+ * of a championship held on the heap, as Driver objects in a {@link ChampionshipManager}, with
+ * the same championship held off the heap in an {@link OffHeapChampionship}.
+ * <p>
+ * It registers the drivers, reports the heap and direct memory they occupy after a full
+ * collection and how long that collection took, then adds points to random drivers while
+ * allocating short-lived garbage, as a server handling results does, and reports the number,
+ * total and longest of the collection pauses.
+ * <p>
+ * Run one store per JVM from the benchmarks jar:
+ * {@code java -Xmx4g -cp benchmarks/target/benchmarks.jar main.DriverStoreFootprintTest [heap|offheap] [drivers] [updates]}
+ * <br>The defaults are the heap store, 10 million drivers and 50 million point updates.
+ */
+public class DriverStoreFootprintTest {
+    private static final List<Long> pauses = new ArrayList<>(); // the collection pauses in milliseconds, guarded by itself
+
+    /**
+     * Runs the comparison for one store.
+     *
+     * @param args the store, the number of drivers and the number of point updates, all optional
+     */
+    public static void main(String[] args) throws Exception {
+        boolean offHeap = args.length > 0 && args[0].equals("offheap");
+        int driverCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+        int updates = args.length > 2 ? Integer.parseInt(args[2]) : 50_000_000;
+        listenToCollections();
+
+        ChampionshipManager manager = null;
+        OffHeapChampionship store = null;
+        SyntheticChampionship cars = new SyntheticChampionship(42);
+        long begin = System.nanoTime();
+        if (offHeap) {
+            store = new OffHeapChampionship();
+            for (int i = 0; i < driverCount; i++) {
+                store.registerDriver("Driver " + i, SyntheticChampionship.COUNTRIES[i % SyntheticChampionship.COUNTRIES.length],
+                        cars.createCar());
+            }
+        } else {
+            manager = new ChampionshipRegistry().create("footprint");
+            for (int i = 0; i < driverCount; i++) {
+                manager.registerDriver(new Driver("Driver " + i,
+                        SyntheticChampionship.COUNTRIES[i % SyntheticChampionship.COUNTRIES.length], cars.createCar()));
+            }
+        }
+        long registration = System.nanoTime() - begin;
+
+        long fullCollection = System.nanoTime();
+        System.gc();
+        fullCollection = System.nanoTime() - fullCollection;
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long directUsed = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                directUsed = pool.getMemoryUsed();
+            }
+        }
+        synchronized (pauses) {
+            pauses.clear();
+        }
+        long collectionsBefore = collectionCount();
+
+        // add points while allocating garbage, as handling requests does
+        SplittableRandom random = new SplittableRandom(7);
+        Object[] recent = new Object[1024]; // keeps the garbage from being optimized away
+        long checksum = 0;
+        begin = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            int id = random.nextInt(driverCount);
+            int points = random.nextInt(26);
+            if (offHeap) {
+                store.addPoints(id, points);
+            } else {
+                manager.getDriver(id).addPoints(points);
+            }
+            byte[] garbage = new byte[64 + (i & 63)];
+            recent[i & (recent.length - 1)] = garbage;
+            checksum += garbage.length;
+        }
+        long updating = System.nanoTime() - begin;
+        int leader = offHeap ? store.getLeader() : manager.getLeader().getId();
+
+        long collections = collectionCount() - collectionsBefore;
+        long total = 0;
+        long longest = 0;
+        synchronized (pauses) {
+            for (long pause : pauses) {
+                total += pause;
+                longest = Math.max(longest, pause);
+            }
+        }
+
+        System.out.printf("store: %s, drivers: %,d, updates: %,d%n", offHeap ? "off-heap" : "heap", driverCount, updates);
+        System.out.printf("registration: %,d ms%n", registration / 1_000_000);
+        System.out.printf("heap used after full GC: %,d MB, direct memory: %,d MB, bytes per driver: %.1f%n",
+                heapUsed >> 20, directUsed >> 20, (double) (heapUsed + directUsed) / driverCount);
+        System.out.printf("full GC with the drivers live: %,d ms%n", fullCollection / 1_000_000);
+        System.out.printf("updates: %,d ms, collections: %d, total pause: %,d ms, longest pause: %,d ms%n",
+                updating / 1_000_000, collections, total, longest);
+        System.out.println("leader: " + leader + " (" + checksum + ")");
+    }
+
+    /**
+     * Records the duration of every garbage collection from now on.
+     */
+    private static void listenToCollections() {
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                            (CompositeData) notification.getUserData());
+                    if (!info.getGcAction().contains("cycles")) { // concurrent cycles are not pauses
+                        synchronized (pauses) {
+                            pauses.add(info.getGcInfo().getDuration());
+                        }
+                    }
+                }
+            }, null, null);
+        }
+    }
+
+    /**
+     * Returns the number of collections so far, by every collector.
+     *
+     * @return the collection count
+     */
+    private static long collectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+}
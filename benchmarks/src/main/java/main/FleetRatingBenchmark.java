@@ -0,0 +1,68 @@
+package main;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The FleetRatingBenchmark class compares rating a mixed fleet of asphalt and gravel cars as
+ * objects, one virtual call per car, with rating the same fleet stored as a {@link CarFleet},
+ * with a scalar loop and with the vector API. The forked JVM adds the vector module.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class FleetRatingBenchmark {
+    @Param({"1000", "100000"})
+    private int cars; // the number of cars in the fleet
+
+    private RallyCar[] grid; // the fleet as objects
+    private CarFleet fleet; // the same fleet as columns
+    private double[] ratings; // the ratings of the fleet
+
+    /**
+     * Generates the fleet.
+     */
+    @Setup
+    public void setUp() {
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        grid = new RallyCar[cars];
+        fleet = new CarFleet(cars);
+        for (int i = 0; i < cars; i++) {
+            grid[i] = championship.createCar();
+            fleet.add(grid[i]);
+        }
+        ratings = new double[cars];
+    }
+
+    @Benchmark
+    public double[] objects() {
+        RallyCar.calculatePerformance(grid, ratings);
+        return ratings;
+    }
+
+    @Benchmark
+    public double[] fleetScalar() {
+        fleet.calculatePerformanceScalar(ratings);
+        return ratings;
+    }
+
+    @Benchmark
+    public double[] fleetVectorized() {
+        fleet.calculatePerformanceVectorized(ratings);
+        return ratings;
+    }
+}
@@ -0,0 +1,84 @@
+package main;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The HeadToHeadBenchmark class measures counting the head-to-head records of every pair of
+ * drivers over a season of 20 races, each with half of the drivers starting. The baseline counts
+ * them into a square matrix from {@link RallyRaceResult#getResults()}, as a caller without a
+ * {@link HeadToHead} would; the others build the packed triangle tile by tile, and add one more
+ * race to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class HeadToHeadBenchmark {
+    private static final int RACES = 20; // the number of races of the season
+
+    @Param({"2000", "10000"})
+    private int drivers; // the number of drivers in the championship
+
+    private ChampionshipManager manager; // the championship
+    private int[][] wins; // the square matrix of the baseline: wins[driver][rival]
+    private HeadToHead headToHead; // the triangle the extra race is added to
+    private RallyRaceResult extraRace; // a race outside the season
+
+    /**
+     * Holds the season.
+     */
+    @Setup
+    public void setUp() {
+        manager = new ChampionshipRegistry().create("h2h");
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, drivers);
+        championship.holdRaces(manager, RACES, drivers / 2);
+        wins = new int[drivers][drivers];
+        headToHead = new HeadToHead(manager);
+        extraRace = championship.createRace(drivers / 2);
+    }
+
+    @Benchmark
+    public int[][] countFromResults() {
+        for (int[] row : wins) {
+            Arrays.fill(row, 0);
+        }
+        for (RallyRaceResult race : manager.getRaces()) {
+            List<Driver> results = race.getResults();
+            for (int i = 0; i < results.size(); i++) {
+                int[] row = wins[results.get(i).getId()];
+                for (int j = i + 1; j < results.size(); j++) {
+                    row[results.get(j).getId()]++;
+                }
+            }
+        }
+        return wins;
+    }
+
+    @Benchmark
+    public HeadToHead buildTriangle() {
+        return new HeadToHead(manager);
+    }
+
+    @Benchmark
+    public HeadToHead addRace() {
+        headToHead.addRace(extraRace);
+        return headToHead;
+    }
+}
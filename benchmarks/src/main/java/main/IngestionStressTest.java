@@ -0,0 +1,192 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The IngestionStressTest class checks that no points are lost when many threads record results
+ * and add points at once. Writer threads record results in shared races and add points to
+ * drivers directly, each keeping its own count of what it added, while reader threads query the
+ * standings, which applies the queued standings changes concurrently with the writers.
+ * <p>
+ * Once the writers have finished, every driver's total, every race result, the country totals
+ * and the standings are compared with the sums of the writers' counts, and the test exits with
+ * status 1 if any differs.
+ * <p>
+ * Run it from the benchmarks jar:
+ * {@code java -cp benchmarks/target/benchmarks.jar main.IngestionStressTest [writers] [updates] [drivers] [races]}
+ * <br>The defaults are 64 writer threads, 100,000 updates per writer, 1000 drivers and 8 races.
+ */
+public class IngestionStressTest {
+    private static final int READERS = 2; // the number of threads querying the standings
+
+    /**
+     * Runs the stress test.
+     *
+     * @param args the number of writers, the updates per writer, the number of drivers and the
+     *             number of races, all optional
+     */
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int updates = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int driverCount = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int raceCount = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+
+        ChampionshipManager manager = new ChampionshipRegistry().create("stress");
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, driverCount);
+        Driver[] drivers = championship.getDrivers().toArray(new Driver[0]);
+        RallyRaceResult[] races = new RallyRaceResult[raceCount];
+        for (int race = 0; race < raceCount; race++) {
+            races[race] = new RallyRaceResult("Rally " + race, "Stress");
+            manager.addRaceResult(races[race]);
+        }
+
+        // each writer counts the points it adds, by driver and by race and driver
+        long[][] driverPoints = new long[writers][driverCount];
+        int[][][] racePoints = new int[writers][raceCount][driverCount];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writerThreads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            long[] added = driverPoints[w];
+            int[][] recorded = racePoints[w];
+            SplittableRandom random = new SplittableRandom(w);
+            writerThreads.add(Thread.ofPlatform().start(() -> {
+                await(start);
+                for (int i = 0; i < updates; i++) {
+                    int id = random.nextInt(driverCount);
+                    int points = random.nextInt(26);
+                    if (random.nextBoolean()) {
+                        int race = random.nextInt(raceCount);
+                        races[race].recordResult(drivers[id], 1 + random.nextInt(driverCount), points);
+                        recorded[race][id] += points;
+                    } else {
+                        drivers[id].addPoints(points);
+                    }
+                    added[id] += points;
+                }
+            }));
+        }
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Thread> readerThreads = new ArrayList<>();
+        long[] queries = new long[READERS];
+        for (int r = 0; r < READERS; r++) {
+            int reader = r;
+            SplittableRandom random = new SplittableRandom(-1 - r);
+            readerThreads.add(Thread.ofPlatform().start(() -> {
+                await(start);
+                while (writing.get()) {
+                    manager.getTopDrivers(10);
+                    manager.getDriverPosition(drivers[random.nextInt(driverCount)]);
+                    queries[reader]++;
+                }
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread thread : writerThreads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        writing.set(false);
+        for (Thread thread : readerThreads) {
+            thread.join();
+        }
+
+        int failures = 0;
+        long expectedTotal = 0;
+        for (int id = 0; id < driverCount; id++) {
+            long expected = 0;
+            for (int w = 0; w < writers; w++) {
+                expected += driverPoints[w][id];
+            }
+            expectedTotal += expected;
+            if (drivers[id].getPoints() != expected) {
+                failures++;
+                System.out.println("lost update: " + drivers[id].getName() + " has " + drivers[id].getPoints()
+                        + " points, expected " + expected);
+            }
+            for (int race = 0; race < raceCount; race++) {
+                int recorded = 0;
+                boolean entered = false;
+                for (int w = 0; w < writers; w++) {
+                    recorded += racePoints[w][race][id];
+                    entered |= racePoints[w][race][id] > 0;
+                }
+                if (entered && races[race].getDriverPoints(drivers[id]) != recorded) {
+                    failures++;
+                    System.out.println("lost result: " + drivers[id].getName() + " has "
+                            + races[race].getDriverPoints(drivers[id]) + " points in " + races[race].getRaceName()
+                            + ", expected " + recorded);
+                }
+            }
+        }
+        if (manager.getTotalPoints() != expectedTotal) {
+            failures++;
+            System.out.println("total points: " + manager.getTotalPoints() + ", expected " + expectedTotal);
+        }
+
+        long countryTotal = 0;
+        for (String country : SyntheticChampionship.COUNTRIES) {
+            long expected = 0;
+            for (Driver driver : manager.getDriversByCountry(country)) {
+                expected += driver.getPoints();
+            }
+            countryTotal += expected;
+            if (manager.getCountryPoints(country) != expected) {
+                failures++;
+                System.out.println("country points of " + country + ": " + manager.getCountryPoints(country)
+                        + ", expected " + expected);
+            }
+        }
+
+        // the standings must be a full sort by points, with ties in registration order
+        List<Driver> sorted = new ArrayList<>(List.of(drivers));
+        sorted.sort(Comparator.comparingInt(Driver::getPoints).reversed().thenComparingInt(Driver::getId));
+        List<Driver> standings = manager.getDriverStandings();
+        if (!standings.equals(sorted)) {
+            failures++;
+            System.out.println("standings differ from a full sort of the drivers by points");
+        }
+        for (int position = 1; position <= sorted.size(); position++) {
+            if (manager.getDriverPosition(sorted.get(position - 1)) != position) {
+                failures++;
+                System.out.println("position of " + sorted.get(position - 1).getName() + ": "
+                        + manager.getDriverPosition(sorted.get(position - 1)) + ", expected " + position);
+                break;
+            }
+        }
+
+        long totalQueries = 0;
+        for (long count : queries) {
+            totalQueries += count;
+        }
+        System.out.printf("writers: %d, updates: %,d, drivers: %d, races: %d%n", writers, (long) writers * updates,
+                driverCount, raceCount);
+        System.out.printf("writing: %,d ms, standings queries meanwhile: %,d, points: %,d (%,d by country)%n",
+                elapsed / 1_000_000, totalQueries, expectedTotal, countryTotal);
+        System.out.println(failures == 0 ? "no lost updates" : failures + " failures");
+        if (failures != 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Waits for the start signal.
+     *
+     * @param start the latch released when every thread should start
+     */
+    private static void await(CountDownLatch start) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
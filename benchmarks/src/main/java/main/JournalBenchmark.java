@@ -0,0 +1,92 @@
+package main;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The JournalBenchmark class measures how many results per second the ResultJournal accepts
+ * from concurrent writers under different group-commit windows.
+ * With {@code waitForSync} enabled, every result is on disk when recordResult returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Threads(16)
+@Fork(1)
+public class JournalBenchmark {
+    static final int RESULTS_PER_RACE = 1000; // the number of results recorded before a thread starts a new race
+
+    @Param({"0", "100", "1000", "5000"})
+    private long commitWindowMicros; // how long a sync waits to group more records
+
+    @Param({"true", "false"})
+    private boolean waitForSync; // whether writers wait until their records are on disk
+
+    private Path directory; // the directory holding the journal file
+    private ResultJournal journal; // the journal under test
+    private SyntheticChampionship championship; // the generator of the drivers
+
+    /**
+     * Opens a journal and registers drivers through it.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        ChampionshipManager manager = ChampionshipManager.getInstance();
+        journal = ResultJournal.open(directory.resolve("results.journal"), manager, commitWindowMicros, waitForSync);
+        championship = new SyntheticChampionship(42);
+        for (int i = 0; i < 1000; i++) {
+            journal.registerDriver(new Driver("Driver " + i, SyntheticChampionship.COUNTRIES[i % 16], championship.createCar()));
+        }
+    }
+
+    /**
+     * Closes the journal and deletes its file.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.deleteIfExists(directory.resolve("results.journal"));
+        Files.deleteIfExists(directory);
+    }
+
+    /**
+     * The race a writer thread is currently recording results into.
+     */
+    @State(Scope.Thread)
+    public static class Writer {
+        private RallyRaceResult race; // the current race of the thread
+        private int recorded; // the number of results recorded in the current race
+    }
+
+    @Benchmark
+    public void recordResult(Writer writer) throws IOException {
+        if (writer.race == null || writer.recorded == RESULTS_PER_RACE) {
+            writer.race = new RallyRaceResult("Journal Rally", "Benchmark");
+            journal.addRaceResult(writer.race);
+            writer.recorded = 0;
+        }
+        int position = ++writer.recorded;
+        Driver driver = ChampionshipManager.getInstance().getDrivers().get(position - 1);
+        journal.recordResult(writer.race, driver, position, SyntheticChampionship.pointsFor(position));
+    }
+}
@@ -0,0 +1,99 @@
+package main;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jdk.jfr.Recording;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The MetricsOverheadBenchmark class measures the cost of the built-in instrumentation on the
+ * instrumented hot paths. {@code none} runs with metrics disabled, {@code metrics} records the
+ * latency histograms and counters, and {@code jfr} also runs a flight recording with the
+ * championship events at their default thresholds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+    @Param({"none", "metrics", "jfr"})
+    private String instrumentation; // the instrumentation enabled while measuring
+
+    @Param({"100"})
+    private int fieldSize; // the number of drivers starting the race
+
+    private ChampionshipManager manager; // the championship under test
+    private RallyRaceResult race; // a race with a full field of results
+    private Driver[] field; // the drivers of the race, in finishing order
+    private Recording recording; // the flight recording, when JFR is enabled
+
+    /**
+     * Generates the championship and enables the instrumentation.
+     */
+    @Setup
+    public void setUp() {
+        manager = ChampionshipManager.getInstance();
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, fieldSize * 10);
+        championship.holdRaces(manager, 10, fieldSize);
+        race = championship.createRace(fieldSize);
+        field = championship.drawField(fieldSize);
+
+        ChampionshipMetrics.getInstance().setEnabled(!instrumentation.equals("none"));
+        if (instrumentation.equals("jfr")) {
+            recording = new Recording();
+            recording.enable("main.ResultIngestion");
+            recording.enable("main.StandingsQuery");
+            recording.start();
+        }
+    }
+
+    /**
+     * Stops the flight recording and prints the recorded metrics.
+     */
+    @TearDown
+    public void tearDown() {
+        if (recording != null) {
+            recording.close();
+        }
+        System.out.print(ChampionshipMetrics.getInstance().dump());
+    }
+
+    @Benchmark
+    public RallyRaceResult recordFullField() {
+        RallyRaceResult fresh = new RallyRaceResult("Benchmark Rally", "Benchmark");
+        for (int i = 0; i < field.length; i++) {
+            fresh.recordResult(field[i], i + 1, SyntheticChampionship.pointsFor(i + 1));
+        }
+        return fresh;
+    }
+
+    @Benchmark
+    public List<Driver> getTopTenResults() {
+        return race.getTopResults(10);
+    }
+
+    @Benchmark
+    public List<Driver> driverStandings() {
+        return manager.getDriverStandings();
+    }
+
+    @Benchmark
+    public String mostSuccessfulCountry() {
+        return ChampionshipStatistics.findMostSuccessfulCountry(manager.getDrivers());
+    }
+}
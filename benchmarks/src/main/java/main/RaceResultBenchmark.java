@@ -0,0 +1,77 @@
+package main;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The RaceResultBenchmark class measures reading and recording the results of a single race.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RaceResultBenchmark {
+    @Param({"10", "100", "5000"})
+    private int fieldSize; // the number of drivers starting the race
+
+    private SyntheticChampionship championship; // the generator of the championship
+    private RallyRaceResult race; // a race with a full field of results
+    private Driver[] field; // the drivers of the race, in finishing order
+
+    /**
+     * Generates the drivers and a race with a full field.
+     */
+    @Setup
+    public void setUp() {
+        ChampionshipManager manager = ChampionshipManager.getInstance();
+        championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, fieldSize);
+        race = championship.createRace(fieldSize);
+        field = championship.drawField(fieldSize);
+    }
+
+    @Benchmark
+    public List<Driver> getResults() {
+        return race.getResults();
+    }
+
+    @Benchmark
+    public List<Driver> getTopTenResults() {
+        return race.getTopResults(10);
+    }
+
+    @Benchmark
+    public ResultPage getMiddlePage() {
+        return race.getPage(fieldSize / 2, 10);
+    }
+
+    @Benchmark
+    public int forEachTopTenResult() {
+        int[] sum = new int[1];
+        race.forEachResult(0, 10, (driver, position, points) -> sum[0] += points);
+        return sum[0];
+    }
+
+    @Benchmark
+    public RallyRaceResult recordFullField() {
+        RallyRaceResult fresh = new RallyRaceResult("Benchmark Rally", "Benchmark");
+        for (int i = 0; i < field.length; i++) {
+            fresh.recordResult(field[i], i + 1, SyntheticChampionship.pointsFor(i + 1));
+        }
+        return fresh;
+    }
+}
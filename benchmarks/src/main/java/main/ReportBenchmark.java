@@ -0,0 +1,111 @@
+package main;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The ReportBenchmark class measures writing the results of a season with one million result
+ * rows, 100 races with 10,000 drivers each, to /dev/null. The baseline prints them line by line
+ * through an autoflushing PrintStream, as Main did before it used a {@link ReportRenderer}; the
+ * other benchmarks render them as text, CSV and JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReportBenchmark {
+    private static final int RACES = 100; // the number of races of the season
+    private static final int FIELD_SIZE = 10_000; // the number of drivers in every race
+
+    private List<RallyRaceResult> races; // the races of the season
+    private PrintStream printStream; // prints lines to /dev/null like System.out
+    private FileChannel channel; // writes to /dev/null
+    private ReportRenderer text; // renders text to the channel
+    private ReportRenderer csv; // renders CSV to the channel
+    private ReportRenderer json; // renders JSON to the channel
+
+    /**
+     * Holds the season and opens /dev/null.
+     *
+     * @throws IOException if /dev/null cannot be opened
+     */
+    @Setup
+    public void setUp() throws IOException {
+        ChampionshipManager manager = new ChampionshipRegistry().create("report");
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, FIELD_SIZE);
+        championship.holdRaces(manager, RACES, FIELD_SIZE);
+        races = manager.getRaces();
+
+        printStream = new PrintStream(new BufferedOutputStream(new FileOutputStream("/dev/null"), 8192), true,
+                StandardCharsets.UTF_8);
+        channel = FileChannel.open(Path.of("/dev/null"), StandardOpenOption.WRITE);
+        text = new ReportRenderer(ReportFormat.TEXT, channel);
+        csv = new ReportRenderer(ReportFormat.CSV, channel);
+        json = new ReportRenderer(ReportFormat.JSON, channel);
+    }
+
+    /**
+     * Closes /dev/null.
+     *
+     * @throws IOException if /dev/null cannot be closed
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        printStream.close();
+        channel.close();
+    }
+
+    @Benchmark
+    public void printLines() {
+        printStream.println("===== RACE RESULTS ====");
+        for (RallyRaceResult race : races) {
+            printStream.println("Race: " + race.getRaceName() + " (" + race.getLocation() + ")");
+            List<Driver> sortedDrivers = race.getResults();
+            for (int i = 0; i < sortedDrivers.size(); i++) {
+                Driver driver = sortedDrivers.get(i);
+                int position = i + 1;
+                int racePoints = race.getDriverPoints(driver);
+                printStream.println("\tPosition " + position + ": " + driver.getName() + " - " + racePoints + " points");
+            }
+            printStream.println();
+        }
+    }
+
+    @Benchmark
+    public void renderText() throws IOException {
+        text.renderRaceResults(races);
+    }
+
+    @Benchmark
+    public void renderCsv() throws IOException {
+        csv.renderRaceResults(races);
+    }
+
+    @Benchmark
+    public void renderJson() throws IOException {
+        json.renderRaceResults(races);
+    }
+}
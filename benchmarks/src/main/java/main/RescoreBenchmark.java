@@ -0,0 +1,65 @@
+package main;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The RescoreBenchmark class measures re-scoring a whole season under a different scoring system.
+ * Each invocation switches between the WRC system and one with power stage bonuses and dropped
+ * results, so every invocation changes the points of every driver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class RescoreBenchmark {
+    @Param({"100000"})
+    private int drivers; // the number of registered drivers
+
+    @Param({"100", "1000"})
+    private int races; // the number of races in the season
+
+    @Param({"10000"})
+    private int fieldSize; // the number of drivers starting each race
+
+    private ChampionshipManager manager; // the championship being re-scored
+    private ScoringSystem[] systems; // the scoring systems applied in turn
+    private int next; // the index of the next scoring system
+
+    /**
+     * Generates the season.
+     */
+    @Setup
+    public void setUp() {
+        manager = ChampionshipManager.getInstance();
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, drivers);
+        championship.holdRaces(manager, races, fieldSize);
+        systems = new ScoringSystem[] {
+                new TableScoringSystem(new int[] {30, 24, 21, 19, 17, 15, 13, 11, 9, 7, 5, 3, 1})
+                        .withPowerStagePoints(5, 4, 3, 2, 1)
+                        .withCountedResults(races * 2 / 3),
+                TableScoringSystem.WRC
+        };
+    }
+
+    @Benchmark
+    public StandingsSnapshot rescoreSeason() {
+        ScoringSystem system = systems[next];
+        next = (next + 1) % systems.length;
+        return manager.rescore(system);
+    }
+}
@@ -0,0 +1,215 @@
+package main;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ServerLoadTest class measures the latency of the ChampionshipServer under many concurrent
+ * connections. It starts a server over a synthetic championship on localhost, opens the requested
+ * number of keep-alive connections, each driven by its own virtual thread, and reports the
+ * throughput and the p50, p99 and maximum latency of all requests.
+ * <p>
+ * Run it from the benchmarks jar:
+ * {@code java -cp benchmarks/target/benchmarks.jar main.ServerLoadTest [connections] [requests] [path] [drivers] [conditional]}
+ * <br>The defaults are 10000 connections, 20 requests per connection, {@code /standings?limit=10}
+ * and 10000 drivers. When {@code conditional} is true, requests revalidate with the ETag of the
+ * first response, so the server answers 304 Not Modified. The client and the server run in one
+ * process, which needs two file descriptors per connection ({@code ulimit -n}).
+ */
+public class ServerLoadTest {
+
+    /**
+     * Runs the load test.
+     *
+     * @param args the number of connections, the requests per connection, the path, the number of
+     *             drivers and whether requests are conditional, all optional
+     */
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        String path = args.length > 2 ? args[2] : "/standings?limit=10";
+        int driverCount = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+        boolean conditional = args.length > 4 && Boolean.parseBoolean(args[4]);
+
+        // the JDK server closes idle keep-alive connections beyond this limit, which defaults to 200
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(connections));
+        }
+
+        ChampionshipManager manager = ChampionshipManager.getInstance();
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, driverCount);
+        championship.holdRaces(manager, 12, Math.min(driverCount, 100));
+        manager.publishSnapshot();
+
+        try (ChampionshipServer server = new ChampionshipServer(manager, new InetSocketAddress("localhost", 0))) {
+            server.start();
+            // the first request also warms up the server before the file descriptors are taken
+            String firstEtag = fetchEtag(server.getPort(), path);
+            String etag = conditional ? firstEtag : null;
+
+            long[][] latencies = new long[connections][];
+            AtomicInteger failures = new AtomicInteger();
+            CountDownLatch connected = new CountDownLatch(connections);
+            CountDownLatch start = new CountDownLatch(1);
+            long elapsed;
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int c = 0; c < connections; c++) {
+                    int client = c;
+                    clients.submit(() -> {
+                        latencies[client] = runClient(server.getPort(), path, etag, requests, connected, start, failures);
+                    });
+                }
+                connected.await();
+                long begin = System.nanoTime();
+                start.countDown();
+                clients.shutdown();
+                clients.awaitTermination(1, TimeUnit.HOURS);
+                elapsed = System.nanoTime() - begin;
+            }
+
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("%d connections x %d requests of %s%s%n", connections, requests, path,
+                    conditional ? " (conditional)" : "");
+            System.out.printf("%d requests in %.2f s (%.0f requests/sec), %d failed connections%n",
+                    all.length, elapsed / 1e9, all.length * 1e9 / elapsed, failures.get());
+            if (all.length > 0) {
+                System.out.printf("latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                        percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[all.length - 1] / 1e6);
+            }
+        }
+    }
+
+    /**
+     * Opens a connection, waits for every other client to connect, then sends requests one after
+     * another on it and records the latency of each.
+     *
+     * @param port      the port of the server
+     * @param path      the path to request
+     * @param etag      the ETag to revalidate with, or null for unconditional requests
+     * @param requests  the number of requests to send
+     * @param connected counted down once the connection is open
+     * @param start     released when every client is connected
+     * @param failures  incremented if the connection fails
+     * @return the latencies of the completed requests, in nanoseconds
+     */
+    private static long[] runClient(int port, String path, String etag, int requests,
+                                    CountDownLatch connected, CountDownLatch start, AtomicInteger failures) {
+        long[] latencies = new long[requests];
+        int completed = 0;
+        boolean counted = false;
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setTcpNoDelay(true);
+            connected.countDown();
+            counted = true;
+            start.await();
+
+            byte[] request = ("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n"
+                    + (etag == null ? "" : "If-None-Match: " + etag + "\r\n") + "\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            OutputStream out = socket.getOutputStream();
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            for (; completed < requests; completed++) {
+                long begin = System.nanoTime();
+                out.write(request);
+                out.flush();
+                readResponse(in);
+                latencies[completed] = System.nanoTime() - begin;
+            }
+        } catch (IOException | InterruptedException e) {
+            failures.incrementAndGet();
+            if (!counted) {
+                connected.countDown();
+            }
+        }
+        return Arrays.copyOf(latencies, completed);
+    }
+
+    /**
+     * Sends one request and returns the ETag of the response.
+     *
+     * @param port the port of the server
+     * @param path the path to request
+     * @return the ETag
+     * @throws IOException if the request fails
+     */
+    private static String fetchEtag(int port, String path) throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.getOutputStream().write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII));
+            return readResponse(new BufferedInputStream(socket.getInputStream()));
+        }
+    }
+
+    /**
+     * Reads one HTTP response, skipping its body.
+     *
+     * @param in the stream of the connection
+     * @return the ETag of the response, or null if it has none
+     * @throws IOException if the connection fails or closes before the response ends
+     */
+    private static String readResponse(InputStream in) throws IOException {
+        long contentLength = 0;
+        String etag = null;
+        StringBuilder line = new StringBuilder(64);
+        while (true) {
+            line.setLength(0);
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c < 0) {
+                    throw new IOException("Connection closed during response");
+                }
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            if (line.isEmpty()) {
+                break; // the blank line ends the headers
+            }
+            String header = line.toString();
+            int colon = header.indexOf(':');
+            if (colon > 0) {
+                String name = header.substring(0, colon).trim();
+                if (name.equalsIgnoreCase("Content-Length")) {
+                    contentLength = Long.parseLong(header.substring(colon + 1).trim());
+                } else if (name.equalsIgnoreCase("ETag")) {
+                    etag = header.substring(colon + 1).trim();
+                }
+            }
+        }
+        while (contentLength > 0) {
+            long skipped = in.skip(contentLength);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new IOException("Connection closed during response body");
+                }
+                skipped = 1;
+            }
+            contentLength -= skipped;
+        }
+        return etag;
+    }
+
+    /**
+     * Returns a percentile of sorted values.
+     *
+     * @param sorted   the values, in ascending order
+     * @param fraction the percentile, between 0 and 1
+     * @return the value at the percentile
+     */
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,77 @@
+package main;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The StageTimesBenchmark class measures updating the classification of a rally with 20 stages
+ * after one stage time is corrected, either by moving the corrected entry or by ranking the
+ * whole field again, which is what recording the time in bulk does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class StageTimesBenchmark {
+    private static final int STAGES = 20; // the number of stages of the rally
+
+    @Param({"10000", "100000"})
+    private int entries; // the number of drivers entered in the rally
+
+    private StageTimes stageTimes; // the stage times of the rally
+    private Driver[] field; // the entered drivers
+    private SplittableRandom random; // the source of corrections
+    private final Driver[] corrected = new Driver[1]; // the driver of a bulk correction
+    private final long[] correction = new long[1]; // the time of a bulk correction
+
+    /**
+     * Enters the field and records a time for every driver in every stage.
+     */
+    @Setup
+    public void setUp() {
+        ChampionshipManager manager = new ChampionshipRegistry().create("stages");
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, entries);
+        field = championship.getDrivers().toArray(new Driver[0]);
+        random = new SplittableRandom(7);
+
+        stageTimes = new StageTimes("Rally Finland", STAGES);
+        long[] times = new long[entries];
+        for (int stage = 0; stage < STAGES; stage++) {
+            for (int i = 0; i < entries; i++) {
+                times[i] = 300_000 + random.nextInt(60_000);
+            }
+            stageTimes.recordStageTimes(stage, field, times, entries);
+        }
+        stageTimes.getLeader();
+    }
+
+    @Benchmark
+    public int correctIncrementally() {
+        Driver driver = field[random.nextInt(entries)];
+        stageTimes.recordStageTime(driver, random.nextInt(STAGES), 300_000 + random.nextInt(60_000));
+        return stageTimes.getPosition(driver);
+    }
+
+    @Benchmark
+    public int correctAndReclassify() {
+        corrected[0] = field[random.nextInt(entries)];
+        correction[0] = 300_000 + random.nextInt(60_000);
+        stageTimes.recordStageTimes(random.nextInt(STAGES), corrected, correction, 1);
+        return stageTimes.getPosition(corrected[0]);
+    }
+}
@@ -0,0 +1,62 @@
+package main;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The StandingsBenchmark class measures the standings queries of ChampionshipManager.
+ * Every parameter combination runs in its own fork, so each trial starts from a fresh singleton.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StandingsBenchmark {
+    @Param({"100", "10000", "1000000"})
+    private int drivers; // the number of registered drivers
+
+    @Param({"10", "100"})
+    private int races; // the number of races held before measuring
+
+    private ChampionshipManager manager; // the championship under test
+
+    /**
+     * Generates the championship.
+     */
+    @Setup
+    public void setUp() {
+        manager = ChampionshipManager.getInstance();
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, drivers);
+        championship.holdRaces(manager, races, 100);
+    }
+
+    @Benchmark
+    public List<Driver> driverStandings() {
+        return manager.getDriverStandings();
+    }
+
+    @Benchmark
+    public Driver leadingDriver() {
+        return ChampionshipManager.getLeadingDriver();
+    }
+
+    @Benchmark
+    public int totalChampionshipPoints() {
+        return ChampionshipManager.getTotalChampionshipPoints();
+    }
+}
@@ -0,0 +1,64 @@
+package main;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The StatisticsBenchmark class measures the aggregate queries of ChampionshipStatistics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StatisticsBenchmark {
+    @Param({"100", "10000", "1000000"})
+    private int drivers; // the number of registered drivers
+
+    @Param({"10", "100"})
+    private int races; // the number of races held before measuring
+
+    private List<Driver> driverList; // the registered drivers
+    private ChampionshipStatisticsEngine engine; // the single-pass statistics engine
+
+    /**
+     * Generates the championship.
+     */
+    @Setup
+    public void setUp() {
+        ChampionshipManager manager = ChampionshipManager.getInstance();
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, drivers);
+        championship.holdRaces(manager, races, 100);
+        driverList = manager.getDrivers();
+        engine = new ChampionshipStatisticsEngine();
+    }
+
+    @Benchmark
+    public String mostSuccessfulCountry() {
+        return ChampionshipStatistics.findMostSuccessfulCountry(driverList);
+    }
+
+    @Benchmark
+    public double averagePointsPerDriver() {
+        return ChampionshipStatistics.calculateAveragePointsPerDriver(driverList);
+    }
+
+    @Benchmark
+    public ChampionshipSummary statisticsEngine() {
+        return engine.compute(driverList);
+    }
+}
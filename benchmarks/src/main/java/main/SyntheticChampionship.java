@@ -0,0 +1,143 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The SyntheticChampionship class generates reproducible championships for the benchmarks.
+ * It registers drivers with a mix of asphalt and gravel cars, and records races where a
+ * random field of drivers finishes in random order and scores points by the WRC system.
+ */
+public class SyntheticChampionship {
+    static final String[] COUNTRIES = {
+            "Finland", "France", "Estonia", "Belgium", "Spain", "Sweden", "Norway", "Japan",
+            "United Kingdom", "Ireland", "Germany", "Italy", "Poland", "Czechia", "Chile", "Kenya"
+    }; // countries assigned to drivers in turn
+    static final int[] WRC_POINTS = {25, 18, 15, 12, 10, 8, 6, 4, 2, 1}; // points for the top ten positions
+
+    private final SplittableRandom random; // the source of randomness, seeded for reproducibility
+    private final List<Driver> drivers; // the generated drivers, in registration order
+    private final List<RallyRaceResult> races; // the generated races, in the order they were held
+
+    /**
+     * Constructs a SyntheticChampionship whose contents are determined by the seed.
+     *
+     * @param seed the seed of the generator
+     */
+    public SyntheticChampionship(long seed) {
+        this.random = new SplittableRandom(seed);
+        this.drivers = new ArrayList<>();
+        this.races = new ArrayList<>();
+    }
+
+    /**
+     * Creates drivers with generated names, countries and cars, and registers them with the manager.
+     *
+     * @param manager the championship to register the drivers with
+     * @param count   the number of drivers to create
+     */
+    public void registerDrivers(ChampionshipManager manager, int count) {
+        for (int i = 0; i < count; i++) {
+            Driver driver = new Driver("Driver " + drivers.size(), COUNTRIES[drivers.size() % COUNTRIES.length], createCar());
+            manager.registerDriver(driver);
+            drivers.add(driver);
+        }
+    }
+
+    /**
+     * Creates races with random fields, records their results and adds them to the manager.
+     *
+     * @param manager   the championship to add the races to
+     * @param count     the number of races to hold
+     * @param fieldSize the number of drivers starting each race, capped at the number of drivers
+     */
+    public void holdRaces(ChampionshipManager manager, int count, int fieldSize) {
+        for (int i = 0; i < count; i++) {
+            RallyRaceResult race = createRace(fieldSize);
+            manager.addRaceResult(race);
+        }
+    }
+
+    /**
+     * Creates a race with a random field and records its results, without adding it to a championship.
+     *
+     * @param fieldSize the number of drivers starting the race, capped at the number of drivers
+     * @return the race with its results recorded
+     */
+    public RallyRaceResult createRace(int fieldSize) {
+        RallyRaceResult race = new RallyRaceResult("Rally " + races.size(), COUNTRIES[races.size() % COUNTRIES.length]);
+        Driver[] field = drawField(fieldSize);
+        for (int i = 0; i < field.length; i++) {
+            race.recordResult(field[i], i + 1, pointsFor(i + 1));
+        }
+        races.add(race);
+        return race;
+    }
+
+    /**
+     * Draws distinct drivers in random finishing order.
+     *
+     * @param fieldSize the number of drivers to draw, capped at the number of drivers
+     * @return the drawn drivers, in finishing order
+     */
+    public Driver[] drawField(int fieldSize) {
+        int size = Math.min(fieldSize, drivers.size());
+        Driver[] field = new Driver[size];
+
+        // partial Fisher-Yates shuffle over driver indices, drawing without replacement
+        int[] indices = new int[drivers.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        for (int i = 0; i < size; i++) {
+            int j = i + random.nextInt(indices.length - i);
+            int swap = indices[i];
+            indices[i] = indices[j];
+            indices[j] = swap;
+            field[i] = drivers.get(indices[i]);
+        }
+        return field;
+    }
+
+    /**
+     * Creates a car with random characteristics, alternating between asphalt and gravel cars.
+     *
+     * @return the created car
+     */
+    public RallyCar createCar() {
+        int horsepower = 250 + random.nextInt(350);
+        if (random.nextBoolean()) {
+            return new AsphaltCar("Toyota", "GR Yaris", horsepower, 100 + random.nextInt(100));
+        }
+        return new GravelCar("Hyundai", "i20 N", horsepower, 150 + random.nextInt(100));
+    }
+
+    /**
+     * Returns the WRC points awarded for a finishing position.
+     *
+     * @param position the finishing position, starting from 1
+     * @return the points awarded for the position
+     */
+    public static int pointsFor(int position) {
+        return position <= WRC_POINTS.length ? WRC_POINTS[position - 1] : 0;
+    }
+
+    /**
+     * Returns the generated drivers in registration order.
+     *
+     * @return the generated drivers
+     */
+    public List<Driver> getDrivers() {
+        return drivers;
+    }
+
+    /**
+     * Returns the generated races in the order they were held.
+     *
+     * @return the generated races
+     */
+    public List<RallyRaceResult> getRaces() {
+        return races;
+    }
+}
@@ -0,0 +1,51 @@
+package main;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The TitleSimulatorBenchmark class measures simulating the rest of a season, with 7 races left,
+ * from the standings of a 100-driver championship after 6 races.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TitleSimulatorBenchmark {
+    @Param({"100000", "1000000"})
+    private long seasons; // the number of seasons simulated per invocation
+
+    private ChampionshipManager manager; // the championship being simulated
+    private TitleSimulator simulator; // the simulator
+    private long seed; // the seed of the next invocation
+
+    /**
+     * Generates the championship.
+     */
+    @Setup
+    public void setUp() {
+        manager = new ChampionshipRegistry().create("wrc");
+        SyntheticChampionship championship = new SyntheticChampionship(42);
+        championship.registerDrivers(manager, 100);
+        championship.holdRaces(manager, 6, 100);
+        simulator = new TitleSimulator();
+    }
+
+    @Benchmark
+    public TitleOdds simulateSeason() {
+        return simulator.simulate(manager, 7, seasons, seed++);
+    }
+}
@@ -0,0 +1,70 @@
+package main;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The AppendOnlyList class is a list that supports concurrent appends and lock-free reads.
+ * Elements can only be added, never replaced or removed, so readers can safely index and
+ * iterate the list while other threads append to it. Iteration sees every element that was
+ * added before the iteration reached the end of the list.
+ *
+ * @param <E> the type of elements in the list
+ */
+class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess {
+    private volatile Object[] elements; // the backing array, replaced by a larger copy when full
+    private volatile int size; // the number of published elements
+
+    /**
+     * Constructs an empty AppendOnlyList.
+     */
+    AppendOnlyList() {
+        this.elements = new Object[16];
+    }
+
+    /**
+     * Appends an element to the end of the list.
+     *
+     * @param element the element to append
+     * @return always true
+     */
+    @Override
+    public synchronized boolean add(E element) {
+        Object[] array = elements;
+        int count = size;
+        if (count == array.length) {
+            array = Arrays.copyOf(array, count * 2);
+            elements = array;
+        }
+        array[count] = element;
+        size = count + 1; // publishes the element to readers
+        return true;
+    }
+
+    /**
+     * Returns the element at the given index.
+     *
+     * @param index the index of the element
+     * @return the element at the index
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        int count = size; // read the size first, so the array read next holds every counted element
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+        return (E) elements[index];
+    }
+
+    /**
+     * Returns the number of elements in the list.
+     *
+     * @return the number of elements
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -6,6 +6,7 @@ package main;
  * It also provides a specific implementation for calculating performance on asphalt.
  */
 public class AsphaltCar extends RallyCar {
+    static final double PERFORMANCE_FACTOR = 1.05; // the factor applied to the horsepower on asphalt
     private double downforce; // the downforce of the car, which affects its performance on asphalt
 
     /**
@@ -33,16 +34,16 @@ public class AsphaltCar extends RallyCar {
     /**
      * Calculates the performance of the car on asphalt surfaces.
      * Asphalt cars have a 10% performance boost based on their horsepower.
-     * The result is formatted to 1 decimal place.
+     * The result is rounded to 1 decimal place.
      *
-     * @return the performance rating of the car as a double, formatted to 1 decimal place
+     * @return the performance rating of the car as a double, rounded to 1 decimal place
      */
     @Override
     public double calculatePerformance() {
         // asphalt cars have a 5% performance boost
-        double performance = getHorsepower() * 1.05;
+        double performance = getHorsepower() * PERFORMANCE_FACTOR;
 
-        // format the performance to 1 decimal place
-        return Double.parseDouble(String.format("%.1f", performance));
+        // round the performance to 1 decimal place
+        return roundToOneDecimal(performance);
     }
 }
\ No newline at end of file
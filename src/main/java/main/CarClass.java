@@ -0,0 +1,31 @@
+package main;
+
+/**
+ * The CarClass enum classifies rally cars by the surface they are built for.
+ * It is used to break down championship statistics by the kind of car driven.
+ */
+public enum CarClass {
+    ASPHALT, // cars built for asphalt surfaces
+    GRAVEL, // cars built for gravel surfaces
+    OTHER, // cars of any other kind
+    NONE; // drivers without a car
+
+    /**
+     * Returns the class of a car.
+     *
+     * @param car the car to classify, or null
+     * @return the class of the car
+     */
+    public static CarClass of(RallyCar car) {
+        if (car == null) {
+            return NONE;
+        }
+        if (car instanceof AsphaltCar) {
+            return ASPHALT;
+        }
+        if (car instanceof GravelCar) {
+            return GRAVEL;
+        }
+        return OTHER;
+    }
+}
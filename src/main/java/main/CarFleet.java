@@ -0,0 +1,288 @@
+package main;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The CarFleet class holds a large fleet of car setups in a struct-of-arrays layout: one
+ * primitive column each for the horsepower, downforce, suspension travel and class of the cars,
+ * so the whole fleet is rated in one pass over contiguous arrays instead of one virtual call
+ * per car.
+ * <p>
+ * Rating uses the {@code jdk.incubator.vector} API when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}, and a scalar loop otherwise. Both give exactly
+ * the same ratings as {@link RallyCar#calculatePerformance()} on the equivalent
+ * {@link AsphaltCar} and {@link GravelCar}. Cars of other classes are kept as objects and
+ * rated with their own method.
+ * <p>
+ * The make and model of the cars are not stored. A CarFleet is not thread-safe.
+ */
+public class CarFleet {
+    private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+            && !"false".equals(System.getProperty("championship.vector")); // whether the vector API is used
+
+    private int[] horsepower; // the horsepower of each car
+    private double[] downforce; // the downforce of each asphalt car, or 0
+    private double[] suspensionTravel; // the suspension travel of each gravel car, or 0
+    private int[] carClasses; // the ordinal of the CarClass of each car
+    private final Map<Integer, RallyCar> otherCars; // the cars of other classes, by index
+    private int size; // the number of cars in the fleet
+
+    /**
+     * Constructs an empty CarFleet.
+     *
+     * @param expectedSize the number of cars the fleet should hold without growing
+     */
+    public CarFleet(int expectedSize) {
+        int capacity = Math.max(8, expectedSize);
+        this.horsepower = new int[capacity];
+        this.downforce = new double[capacity];
+        this.suspensionTravel = new double[capacity];
+        this.carClasses = new int[capacity];
+        this.otherCars = new HashMap<>();
+    }
+
+    /**
+     * Returns whether fleets are rated with the vector API in this JVM.
+     *
+     * @return true if the {@code jdk.incubator.vector} module is available and not disabled
+     *         by the system property {@code championship.vector=false}
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Adds a car to the fleet.
+     *
+     * @param car the car to add
+     * @return the index of the car in the fleet
+     */
+    public int add(RallyCar car) {
+        if (car instanceof AsphaltCar asphalt) {
+            return addAsphaltCar(asphalt.getHorsepower(), asphalt.getDownforce());
+        }
+        if (car instanceof GravelCar gravel) {
+            return addGravelCar(gravel.getHorsepower(), gravel.getSuspensionTravel());
+        }
+        int index = append(car.getHorsepower(), CarClass.OTHER);
+        otherCars.put(index, car);
+        return index;
+    }
+
+    /**
+     * Adds an asphalt car setup to the fleet.
+     *
+     * @param horsepower the horsepower of the car
+     * @param downforce  the downforce of the car
+     * @return the index of the car in the fleet
+     */
+    public int addAsphaltCar(int horsepower, double downforce) {
+        int index = append(horsepower, CarClass.ASPHALT);
+        this.downforce[index] = downforce;
+        return index;
+    }
+
+    /**
+     * Adds a gravel car setup to the fleet.
+     *
+     * @param horsepower       the horsepower of the car
+     * @param suspensionTravel the suspension travel of the car
+     * @return the index of the car in the fleet
+     */
+    public int addGravelCar(int horsepower, double suspensionTravel) {
+        int index = append(horsepower, CarClass.GRAVEL);
+        this.suspensionTravel[index] = suspensionTravel;
+        return index;
+    }
+
+    /**
+     * Returns the number of cars in the fleet.
+     *
+     * @return the number of cars
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the horsepower of a car.
+     *
+     * @param index the index of the car
+     * @return the car's horsepower
+     * @throws IndexOutOfBoundsException if no car has the index
+     */
+    public int getHorsepower(int index) {
+        return horsepower[checkIndex(index)];
+    }
+
+    /**
+     * Returns the downforce of a car.
+     *
+     * @param index the index of the car
+     * @return the car's downforce, or 0 if it is not an asphalt car
+     * @throws IndexOutOfBoundsException if no car has the index
+     */
+    public double getDownforce(int index) {
+        return downforce[checkIndex(index)];
+    }
+
+    /**
+     * Returns the suspension travel of a car.
+     *
+     * @param index the index of the car
+     * @return the car's suspension travel, or 0 if it is not a gravel car
+     * @throws IndexOutOfBoundsException if no car has the index
+     */
+    public double getSuspensionTravel(int index) {
+        return suspensionTravel[checkIndex(index)];
+    }
+
+    /**
+     * Returns the class of a car.
+     *
+     * @param index the index of the car
+     * @return the car's class
+     * @throws IndexOutOfBoundsException if no car has the index
+     */
+    public CarClass getCarClass(int index) {
+        return CarClass.values()[carClasses[checkIndex(index)]];
+    }
+
+    /**
+     * Rates one car of the fleet.
+     *
+     * @param index the index of the car
+     * @return the car's rating, as {@link RallyCar#calculatePerformance()} gives it
+     * @throws IndexOutOfBoundsException if no car has the index
+     */
+    public double calculatePerformance(int index) {
+        RallyCar other = otherCars.get(checkIndex(index));
+        if (other != null) {
+            return other.calculatePerformance();
+        }
+        double factor = carClasses[index] == CarClass.ASPHALT.ordinal() ? AsphaltCar.PERFORMANCE_FACTOR : GravelCar.PERFORMANCE_FACTOR;
+        return RallyCar.roundToOneDecimal(horsepower[index] * factor);
+    }
+
+    /**
+     * Rates every car of the fleet, with the vector API if it is available.
+     *
+     * @param ratings the array receiving the rating of each car, at the same index as the car
+     * @throws IllegalArgumentException if the ratings array is shorter than the fleet
+     */
+    public void calculatePerformance(double[] ratings) {
+        if (VECTORIZED) {
+            calculatePerformanceVectorized(ratings);
+        } else {
+            calculatePerformanceScalar(ratings);
+        }
+    }
+
+    /**
+     * Rates every car of the fleet.
+     *
+     * @return the rating of each car, at the same index as the car
+     */
+    public double[] calculatePerformance() {
+        double[] ratings = new double[size];
+        calculatePerformance(ratings);
+        return ratings;
+    }
+
+    /**
+     * Rates every car of the fleet with a scalar loop.
+     *
+     * @param ratings the array receiving the rating of each car, at the same index as the car
+     * @throws IllegalArgumentException if the ratings array is shorter than the fleet
+     */
+    public void calculatePerformanceScalar(double[] ratings) {
+        checkRatings(ratings);
+        int asphalt = CarClass.ASPHALT.ordinal();
+        for (int i = 0; i < size; i++) {
+            double factor = carClasses[i] == asphalt ? AsphaltCar.PERFORMANCE_FACTOR : GravelCar.PERFORMANCE_FACTOR;
+            ratings[i] = RallyCar.roundToOneDecimal(horsepower[i] * factor);
+        }
+        rateOtherCars(ratings);
+    }
+
+    /**
+     * Rates every car of the fleet with the vector API.
+     *
+     * @param ratings the array receiving the rating of each car, at the same index as the car
+     * @throws IllegalArgumentException if the ratings array is shorter than the fleet
+     * @throws IllegalStateException    if the vector API is not available
+     */
+    public void calculatePerformanceVectorized(double[] ratings) {
+        checkRatings(ratings);
+        if (!VECTORIZED) {
+            throw new IllegalStateException("The vector API requires --add-modules jdk.incubator.vector");
+        }
+        int rated = FleetVectorRater.rate(horsepower, carClasses, size, ratings);
+        int asphalt = CarClass.ASPHALT.ordinal();
+        for (int i = rated; i < size; i++) {
+            double factor = carClasses[i] == asphalt ? AsphaltCar.PERFORMANCE_FACTOR : GravelCar.PERFORMANCE_FACTOR;
+            ratings[i] = RallyCar.roundToOneDecimal(horsepower[i] * factor);
+        }
+        rateOtherCars(ratings);
+    }
+
+    /**
+     * Replaces the ratings of the cars of other classes by their own ratings.
+     *
+     * @param ratings the ratings of the fleet
+     */
+    private void rateOtherCars(double[] ratings) {
+        if (otherCars.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Integer, RallyCar> entry : otherCars.entrySet()) {
+            ratings[entry.getKey()] = entry.getValue().calculatePerformance();
+        }
+    }
+
+    /**
+     * Appends a car to the columns, growing them if they are full.
+     *
+     * @param horsepower the horsepower of the car
+     * @param carClass   the class of the car
+     * @return the index of the car
+     */
+    private int append(int horsepower, CarClass carClass) {
+        if (size == this.horsepower.length) {
+            int capacity = size * 2;
+            this.horsepower = Arrays.copyOf(this.horsepower, capacity);
+            this.downforce = Arrays.copyOf(this.downforce, capacity);
+            this.suspensionTravel = Arrays.copyOf(this.suspensionTravel, capacity);
+            this.carClasses = Arrays.copyOf(this.carClasses, capacity);
+        }
+        this.horsepower[size] = horsepower;
+        this.carClasses[size] = carClass.ordinal();
+        return size++;
+    }
+
+    /**
+     * Checks that a ratings array can hold the rating of every car.
+     *
+     * @param ratings the ratings array
+     * @throws IllegalArgumentException if the array is shorter than the fleet
+     */
+    private void checkRatings(double[] ratings) {
+        if (ratings.length < size) {
+            throw new IllegalArgumentException("Ratings array is shorter than the fleet");
+        }
+    }
+
+    /**
+     * Checks that a car has an index.
+     *
+     * @param index the index
+     * @return the index
+     * @throws IndexOutOfBoundsException if no car has the index
+     */
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+}
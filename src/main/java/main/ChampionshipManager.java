@@ -1,85 +1,424 @@
 package main;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * The ChampionshipManager class is a singleton that manages the rally championship.
+ * The ChampionshipManager class manages a rally championship.
  * It keeps track of drivers, races, and championship standings.
+ * All of its operations are thread-safe, so results can be recorded from several threads at once.
+ * <p>
+ * The default championship is a singleton returned by {@link #getInstance()}, and the static
+ * methods of this class refer to it. Further, independent championships are created by name
+ * in a {@link ChampionshipRegistry}; each has its own drivers, races and locks.
+ * <p>
+ * Readers that need many consistent queries at a high rate can use {@link #getSnapshot()}, which
+ * returns the latest published {@link StandingsSnapshot} without locking. Writers publish a new
+ * snapshot with {@link #publishSnapshot()} when a batch of results has been recorded.
+ * <p>
+ * Instead of polling, readers can {@link #subscribe(StandingsListener)} to batches of leader,
+ * position and points changes, which are published once per time window or race.
  */
 public class ChampionshipManager {
-    private static ChampionshipManager instance; // singleton instance
+    private final String name; // the name of the championship
     private List<Driver> drivers; // list of registered drivers
     private List<RallyRaceResult> races; // list of race results
-    private static int totalDrivers; // total number of registered drivers
-    private static int totalRaces; // total number of recorded races
+    private DriverIndex index; // drivers by name and country, and by country
+    private StandingsIndex standings; // drivers ordered by points, kept up to date as points change
+    private CountryStandings countries; // country totals, kept up to date as points change
+    private volatile SeasonPointsMatrix seasonPoints; // the points of every driver in every race, or null until first queried
+    private volatile boolean seasonPointsBuilt; // whether the season points include every race added so far
+    private volatile ScoringSystem scoringSystem; // the scoring system deriving points from positions
+    private volatile StandingsSnapshot snapshot; // the latest published standings snapshot
+    private volatile StandingsFeed feed; // the feed of standings changes, created on the first subscription
+    private final AtomicReferenceArray<StandingsSnapshot> history; // recently published snapshots, by version
+    private final LongAdder changes; // the number of changes to race results and cars, which snapshots do not hold
+    private static final int RETAINED_SNAPSHOTS = 8; // the number of recent snapshots kept for diffs
 
     /**
-     * Private constructor to enforce singleton pattern.
+     * Constructs an empty championship. Championships other than the default one are
+     * created through a {@link ChampionshipRegistry}.
      * Initializes the lists for drivers and races.
+     *
+     * @param name the name of the championship
+     */
+    ChampionshipManager(String name) {
+        this.name = name;
+        drivers = new AppendOnlyList<Driver>();
+        races = new AppendOnlyList<RallyRaceResult>();
+        index = new DriverIndex();
+        standings = new StandingsIndex();
+        countries = new CountryStandings();
+        scoringSystem = TableScoringSystem.WRC;
+        snapshot = new StandingsSnapshot(0, new Driver[0], new int[0], "", 0);
+        history = new AtomicReferenceArray<>(RETAINED_SNAPSHOTS);
+        history.set(0, snapshot);
+        changes = new LongAdder();
+    }
+
+    /**
+     * Holds the singleton instance, which the JVM creates safely on first access.
      */
-    private ChampionshipManager() {
-        drivers = new ArrayList<Driver>();
-        races = new ArrayList<RallyRaceResult>();
+    private static class InstanceHolder {
+        private static final ChampionshipManager INSTANCE = new ChampionshipManager(ChampionshipRegistry.DEFAULT_NAME); // singleton instance
     }
 
     /**
-     * Returns the singleton instance of ChampionshipManager.
+     * Returns the singleton instance of ChampionshipManager, the default championship.
      * If the instance does not exist, it creates one.
      *
      * @return the singleton instance of ChampionshipManager
      */
     public static ChampionshipManager getInstance() {
-        if (instance == null) {
-            instance = new ChampionshipManager();
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
 
     /**
-     * Returns the list of registered drivers.
+     * Returns the name of the championship.
+     *
+     * @return the championship name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns a read-only view of the registered drivers. The view can be read while
+     * other threads register drivers, and reflects drivers registered after it was obtained.
      *
      * @return the list of drivers
      */
     public List<Driver> getDrivers() {
-        return drivers;
+        return Collections.unmodifiableList(drivers);
     }
 
     /**
-     * Returns the list of race results.
+     * Returns a read-only view of the race results. The view can be read while
+     * other threads add races, and reflects races added after it was obtained.
      *
      * @return the list of race results
      */
     public List<RallyRaceResult> getRaces() {
-        return races;
+        return Collections.unmodifiableList(races);
     }
 
     /**
-     * Returns the total number of registered drivers.
+     * Returns the total number of drivers registered in the default championship.
      *
      * @return the total number of drivers
      */
     public static int getTotalDrivers() {
-        return totalDrivers;
+        return getInstance().getDriverCount();
+    }
+
+    /**
+     * Returns the number of drivers registered in this championship.
+     *
+     * @return the number of drivers
+     */
+    public int getDriverCount() {
+        return drivers.size();
+    }
+
+    /**
+     * Returns the number of races added to this championship.
+     *
+     * @return the number of races
+     */
+    public int getRaceCount() {
+        return races.size();
     }
 
     /**
      * Registers a driver in the championship.
      *
      * @param driver the driver to register
+     * @throws IllegalStateException    if the driver is already registered
+     * @throws IllegalArgumentException if a driver with the same name and country is already registered
+     */
+    public synchronized void registerDriver(Driver driver) {
+        if (driver.getChampionship() != null) {
+            throw new IllegalStateException("Driver is already registered: " + driver.getName());
+        }
+        if (index.find(driver.getName(), driver.getCountry()) != null) {
+            throw new IllegalArgumentException("A driver with the same name and country is already registered: "
+                    + driver.getName() + " (" + driver.getCountry() + ")");
+        }
+
+        int id = drivers.size(); // the registration id is the driver's index in the list
+        standings.add(driver, id);
+        int countryId = countries.register(driver);
+        driver.register(this, id, countryId);
+        drivers.add(driver); // published before the index, so every id the index hands out resolves
+        index.add(driver, countryId);
+    }
+
+    /**
+     * Returns the registered driver with a registration id. This method does not block.
+     *
+     * @param id the registration id of the driver
+     * @return the driver
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    public Driver getDriver(int id) {
+        return drivers.get(id);
+    }
+
+    /**
+     * Finds the registered driver with a name and country. This method does not block.
+     *
+     * @param name    the name of the driver
+     * @param country the country of the driver
+     * @return the driver, or null if no driver with that name and country is registered
+     */
+    public Driver findDriver(String name, String country) {
+        return index.find(name, country);
+    }
+
+    /**
+     * Returns the registered drivers of a country, in registration order.
+     *
+     * @param country the country
+     * @return a read-only list of the country's drivers, empty if no registered driver is from it
+     */
+    public List<Driver> getDriversByCountry(String country) {
+        int countryId = countries.idOf(country);
+        if (countryId < 0) {
+            return Collections.emptyList();
+        }
+        int[] ids = index.countryDriverIds(countryId);
+        Driver[] countryDrivers = new Driver[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            countryDrivers[i] = drivers.get(ids[i]);
+        }
+        return Collections.unmodifiableList(Arrays.asList(countryDrivers));
+    }
+
+    /**
+     * Called by a registered driver whenever their points change, to keep the standings up to date.
+     * This method does not block, so it can be called from many threads at once.
+     *
+     * @param driver the driver whose points have changed
+     * @param points the points added to the driver's total
      */
-    public void registerDriver(Driver driver) {
-        drivers.add(driver);
-        totalDrivers++; // increment the total number of drivers
+    void pointsChanged(Driver driver, int points) {
+        standings.markChanged(driver);
+        countries.addPoints(driver.getCountryId(), points);
+        StandingsFeed subscribed = feed;
+        if (subscribed != null) {
+            subscribed.changed();
+        }
+    }
+
+    /**
+     * Called by a race of this championship whenever a driver's points in it change,
+     * to keep the season points up to date.
+     *
+     * @param race   the index of the race
+     * @param driver the driver whose points have changed
+     * @param points the driver's points in the race
+     */
+    void racePointsChanged(int race, Driver driver, int points) {
+        changes.increment();
+        SeasonPointsMatrix matrix = seasonPoints;
+        if (matrix != null) {
+            matrix.set(driver.getId(), race, points);
+        }
+    }
+
+    /**
+     * Called by a registered driver whenever their car is replaced.
+     */
+    void carChanged() {
+        changes.increment();
+    }
+
+    /**
+     * Returns the number of changes to the races of this championship, their results and the
+     * cars of its drivers, which standings snapshots do not hold. The count only grows, so a
+     * response rendered from races or cars is current as long as the count is unchanged.
+     *
+     * @return the number of changes so far
+     */
+    long getChangeCount() {
+        return changes.sum();
     }
 
     /**
      * Adds a race result to the championship.
      *
      * @param result the race result to add
+     * @throws IllegalStateException    if the race has already been added to a championship
+     * @throws IllegalArgumentException if the race has results of drivers from another championship
      */
-    public void addRaceResult(RallyRaceResult result) {
+    public synchronized void addRaceResult(RallyRaceResult result) {
+        result.addToSeason(this, races.size()); // the race index is the race's index in the list
+        if (seasonPoints != null) {
+            seasonPoints.raceAdded();
+        }
         races.add(result);
+        changes.increment(); // a race without results changes no points, but is listed
+        if (feed != null) {
+            feed.raceAdded(); // the results recorded so far make up the batch of the previous race
+        }
+    }
+
+    /**
+     * Returns the scoring system used to derive points from positions.
+     *
+     * @return the scoring system
+     */
+    public ScoringSystem getScoringSystem() {
+        return scoringSystem;
+    }
+
+    /**
+     * Sets the scoring system used to derive points from positions. Results already recorded
+     * keep their points; use {@link #rescore(ScoringSystem)} to apply a system to them.
+     *
+     * @param scoringSystem the scoring system
+     */
+    public void setScoringSystem(ScoringSystem scoringSystem) {
+        this.scoringSystem = scoringSystem;
+    }
+
+    /**
+     * Re-scores every race of the championship under a scoring system, and makes it the scoring
+     * system of the championship. The new points and season totals, with the worst results dropped
+     * if the system says so, are computed in parallel without changing any driver, and are then
+     * swapped in while every race is frozen, and a new snapshot is published with the new totals.
+     * If the results of a race changed while re-scoring, nothing is swapped in. Results recorded
+     * while the new points are being swapped in wait until they are.
+     * <p>
+     * Standings queries that lock the standings, such as {@link #getDriverStandings()}, see either
+     * the old or the new totals. Lock-free reads, such as {@link Driver#getPoints()},
+     * {@link #getTotalPoints()}, {@link #getCountryPoints(String)} and the points of a
+     * race, may see a mix of old and new points while they are being swapped.
+     * <p>
+     * Each driver's total becomes the sum of their counted race points. Results must not be
+     * recorded while a season is being re-scored.
+     *
+     * @param scoring the scoring system to apply
+     * @return the snapshot published with the new totals
+     * @throws IllegalStateException if results were recorded while re-scoring
+     */
+    public synchronized StandingsSnapshot rescore(ScoringSystem scoring) {
+        SeasonRescorer rescorer = new SeasonRescorer(scoring, races, drivers.size());
+        rescorer.run(ForkJoinPool.commonPool());
+
+        swapPoints(races.toArray(new RallyRaceResult[0]), rescorer);
+        scoringSystem = scoring;
+        return publishSnapshot();
+    }
+
+    /**
+     * Freezes every race of the season, checks that no results were recorded since they were
+     * re-scored, and swaps in the new race points and totals. The races are frozen one at a time
+     * rather than locked all at once, so any number of races can be swapped.
+     * The caller must hold the lock of the championship.
+     *
+     * @param seasonRaces the races of the season
+     * @param rescorer    the rescorer holding the new points and totals
+     * @throws IllegalStateException if the results of a race changed since it was re-scored
+     */
+    private void swapPoints(RallyRaceResult[] seasonRaces, SeasonRescorer rescorer) {
+        int frozen = 0;
+        try {
+            while (frozen < seasonRaces.length) {
+                seasonRaces[frozen++].freeze();
+            }
+            for (int i = 0; i < seasonRaces.length; i++) {
+                synchronized (seasonRaces[i]) {
+                    if (seasonRaces[i].getModificationCount() != rescorer.getModificationCount(i)) {
+                        throw new IllegalStateException("Results of " + seasonRaces[i].getRaceName()
+                                + " changed while re-scoring");
+                    }
+                }
+            }
+            for (int i = 0; i < seasonRaces.length; i++) {
+                seasonRaces[i].replacePoints(rescorer.getPoints(i));
+            }
+
+            // holding the standings and country locks keeps standings queries out until every total is swapped
+            int[] totals = rescorer.getTotals();
+            synchronized (standings) {
+                synchronized (countries) {
+                    for (int id = 0; id < totals.length; id++) {
+                        Driver driver = drivers.get(id);
+                        int change = totals[id] - driver.getPoints();
+                        if (change != 0) {
+                            driver.addPoints(change);
+                        }
+                    }
+                }
+            }
+        } finally {
+            for (int i = 0; i < frozen; i++) {
+                seasonRaces[i].thaw();
+            }
+        }
+    }
+
+    /**
+     * Returns the points a driver earned in a race of the championship.
+     *
+     * @param driver the driver
+     * @param race   the index of the race in {@link #getRaces()}
+     * @return the driver's points in the race, or 0 if the driver has no result in it
+     * @throws IllegalArgumentException  if the driver is not registered in this championship
+     * @throws IndexOutOfBoundsException if there is no race at the index
+     */
+    public int getRacePoints(Driver driver, int race) {
+        checkRegistered(driver);
+        return seasonPoints().get(driver.getId(), race);
+    }
+
+    /**
+     * Returns the points a driver earned in each race of the championship.
+     *
+     * @param driver the driver
+     * @return the driver's points, in the order of {@link #getRaces()}
+     * @throws IllegalArgumentException if the driver is not registered in this championship
+     */
+    public int[] getSeasonPoints(Driver driver) {
+        checkRegistered(driver);
+        return seasonPoints().history(driver.getId());
+    }
+
+    /**
+     * Returns the season points matrix, building it from the results of every race on first use.
+     * The matrix is dense, so it is only allocated for championships that query it.
+     *
+     * @return the season points matrix
+     */
+    private SeasonPointsMatrix seasonPoints() {
+        if (seasonPointsBuilt) {
+            return seasonPoints;
+        }
+        synchronized (this) {
+            if (!seasonPointsBuilt) {
+                // publish the matrix before reading the races, so a result recorded meanwhile
+                // either is read from its race or updates the matrix itself
+                SeasonPointsMatrix matrix = new SeasonPointsMatrix();
+                seasonPoints = matrix;
+                for (int race = 0; race < races.size(); race++) {
+                    RallyRaceResult result = races.get(race);
+                    synchronized (result) {
+                        for (int row = 0; row < result.getFieldSize(); row++) {
+                            matrix.set(result.driverAt(row).getId(), race, result.pointsAt(row));
+                        }
+                    }
+                    matrix.raceAdded();
+                }
+                seasonPointsBuilt = true;
+            }
+            return seasonPoints;
+        }
     }
 
     /**
@@ -88,37 +427,222 @@ public class ChampionshipManager {
      * @return a list of drivers sorted by their points
      */
     public List<Driver> getDriverStandings() {
-        List<Driver> driverStandings = new ArrayList<>(drivers);
-        // sort drivers by points in descending order
-        driverStandings.sort((d1, d2) -> Integer.compare(d2.getPoints(), d1.getPoints()));
-        return driverStandings;
+        long start = ChampionshipMetrics.DRIVER_STANDINGS.start();
+        StandingsQueryEvent event = new StandingsQueryEvent();
+        event.begin();
+        // the index is already sorted by points, with ties in registration order
+        List<Driver> sorted = standings.top(standings.size());
+        ChampionshipMetrics.DRIVER_STANDINGS.recordSince(start);
+        event.commit("getDriverStandings", sorted.size());
+        return sorted;
     }
 
     /**
-     * Returns the current championship leader (the driver with the most points).
+     * Returns the leading drivers of the championship standings.
      *
-     * @return the leading driver
+     * @param count the maximum number of drivers to return
+     * @return a list of at most {@code count} drivers sorted by their points
      */
-    public static Driver getLeadingDriver() {
-        ChampionshipManager manager = ChampionshipManager.getInstance();
-        List<Driver> drivers = manager.getDrivers();
+    public List<Driver> getTopDrivers(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Driver count must not be negative: " + count);
+        }
+        return standings.top(count);
+    }
+
+    /**
+     * Returns the position of a driver in the championship standings, starting from 1.
+     *
+     * @param driver the driver whose position is being retrieved
+     * @return the driver's position in the standings
+     * @throws IllegalArgumentException if the driver is not registered in this championship
+     */
+    public int getDriverPosition(Driver driver) {
+        checkRegistered(driver);
+        return standings.rank(driver) + 1;
+    }
+
+    /**
+     * Checks that a driver is registered in this championship.
+     *
+     * @param driver the driver to check
+     * @throws IllegalArgumentException if the driver is not registered in this championship
+     */
+    private void checkRegistered(Driver driver) {
+        if (driver.getChampionship() != this) {
+            throw new IllegalArgumentException("Driver is not registered in this championship: " + driver.getName());
+        }
+    }
 
-        Driver leadingDriver = null;
-        int mostPoints = -1; // initialize with a value lower than possible points
+    /**
+     * Returns the total points earned by the drivers of a country. This method does not block.
+     *
+     * @param country the country
+     * @return the total points of the country's drivers, or 0 if no registered driver is from it
+     */
+    public long getCountryPoints(String country) {
+        return countries.getPoints(country);
+    }
 
-        // find the driver with the most points
-        for (Driver driver : drivers) {
-            if (driver.getPoints() > mostPoints) {
-                mostPoints = driver.getPoints();
-                leadingDriver = driver;
+    /**
+     * Returns the country whose drivers have earned the most points. The result is the same as
+     * {@link ChampionshipStatistics#findMostSuccessfulCountry} for the registered drivers, but it is
+     * kept up to date as points change instead of being computed from all drivers.
+     *
+     * @return the leading country, or an empty string if no drivers are registered
+     */
+    public String getLeadingCountry() {
+        return countries.getLeader();
+    }
+
+    /**
+     * Returns the countries whose drivers have earned the most points, in order.
+     *
+     * @param count the maximum number of countries to return
+     * @return a list of at most {@code count} countries sorted by their points
+     */
+    public List<String> getTopCountries(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Country count must not be negative: " + count);
+        }
+        return countries.top(count);
+    }
+
+    /**
+     * Publishes a snapshot of the current standings, leader and statistics as a new version.
+     * Readers that call {@link #getSnapshot()} afterwards see the new version.
+     *
+     * @return the published snapshot
+     */
+    public synchronized StandingsSnapshot publishSnapshot() {
+        StandingsSnapshot published = takeSnapshot(snapshot.getVersion() + 1);
+        history.set((int) (published.getVersion() % RETAINED_SNAPSHOTS), published);
+        snapshot = published;
+        ChampionshipMetrics.snapshotPublished();
+        return published;
+    }
+
+    /**
+     * Takes a snapshot of the current standings, leader and statistics without publishing it,
+     * so the snapshot returned by {@link #getSnapshot()} and the recent snapshots kept for
+     * {@link #getPositionChangesSince(long)} are left as they are.
+     *
+     * @param version the version to give the snapshot
+     * @return the snapshot
+     */
+    synchronized StandingsSnapshot takeSnapshot(long version) {
+        // holding the lock keeps drivers from being registered while the snapshot is built
+        int count = drivers.size();
+        Driver[] order = new Driver[count];
+        int[] points = new int[count];
+        standings.copyTo(order, points);
+
+        // the country totals are summed from the copied points, so the leader matches the standings
+        long[] countryTotals = new long[countries.size()];
+        for (int i = 0; i < count; i++) {
+            countryTotals[order[i].getCountryId()] += points[i];
+        }
+
+        return new StandingsSnapshot(version, order, points, countries.leaderOf(countryTotals), races.size());
+    }
+
+    /**
+     * Returns the latest published standings snapshot. This method does not block.
+     *
+     * @return the latest snapshot, which is empty with version 0 if none has been published
+     */
+    public StandingsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns a recently published standings snapshot. This method does not block.
+     *
+     * @param version the version of the snapshot
+     * @return the snapshot, or null if that version has not been published or is no longer retained
+     */
+    public StandingsSnapshot getSnapshot(long version) {
+        if (version < 0) {
+            return null;
+        }
+        StandingsSnapshot retained = history.get((int) (version % RETAINED_SNAPSHOTS));
+        return retained != null && retained.getVersion() == version ? retained : null;
+    }
+
+    /**
+     * Returns the drivers whose position or points changed between a recent snapshot and the latest one.
+     *
+     * @param version the version of the older snapshot
+     * @return the changes, in the standings order of the latest snapshot
+     * @throws IllegalArgumentException if the version is not one of the recently published snapshots
+     */
+    public List<PositionChange> getPositionChangesSince(long version) {
+        StandingsSnapshot latest = snapshot;
+        StandingsSnapshot older = getSnapshot(version);
+        if (older == null) {
+            throw new IllegalArgumentException("Snapshot version is not retained: " + version);
+        }
+        return latest.changesSince(older);
+    }
+
+    /**
+     * Subscribes a listener to the changes of the standings. The changes are coalesced into
+     * batches: a batch is published when a race is added, and otherwise at most every
+     * 100 milliseconds while points change. Each batch is delivered to every subscriber in
+     * order on its own thread, so recording results never waits for a listener. When a listener
+     * falls too far behind, batches are published less often until it catches up, so every
+     * listener receives fewer, larger batches and no change is lost.
+     *
+     * @param listener the listener to notify
+     * @return the subscription, to be closed when the listener is no longer interested
+     */
+    public StandingsSubscription subscribe(StandingsListener listener) {
+        Objects.requireNonNull(listener, "listener");
+        StandingsFeed current = feed;
+        if (current == null) {
+            synchronized (this) {
+                current = feed;
+                if (current == null) {
+                    current = new StandingsFeed(this, StandingsFeed.WINDOW_NANOS, StandingsFeed.CAPACITY);
+                    feed = current;
+                }
             }
         }
+        return current.subscribe(listener);
+    }
 
-        return leadingDriver;
+    /**
+     * Returns the leader of this championship (the driver with the most points).
+     * When several drivers share the most points, the one registered first leads.
+     *
+     * @return the leading driver, or null if no drivers are registered
+     */
+    public Driver getLeader() {
+        return standings.first();
+    }
+
+    /**
+     * Returns the total points accumulated by the drivers of this championship.
+     * This method does not block.
+     *
+     * @return the total points
+     */
+    public long getTotalPoints() {
+        return countries.totalPoints();
+    }
+
+    /**
+     * Returns the current leader of the default championship (the driver with the most points).
+     * When several drivers share the most points, the one registered first leads.
+     *
+     * @return the leading driver, or null if no drivers are registered
+     */
+    public static Driver getLeadingDriver() {
+        return ChampionshipManager.getInstance().getLeader();
     }
 
     /**
-     * Returns the total championship points accumulated by all drivers.
+     * Returns the total championship points accumulated by all drivers of the default championship.
      *
      * @return the total championship points
      */
@@ -0,0 +1,252 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The ChampionshipMetrics class records counters and latency histograms of the hot paths of the
+ * championship engine: recording results, reading the standings and race results, and computing
+ * statistics. It is a singleton shared by every championship in the JVM.
+ * <p>
+ * Metrics are disabled unless the system property {@code championship.metrics} is true or they
+ * are enabled at run time, and a disabled metric costs one volatile read. Recording results and
+ * reading race results take well under a microsecond, so only a random sample of those calls is
+ * timed, one in 256 by default or as set by {@code championship.metrics.sampling}, and the number
+ * of results recorded is estimated from the same sample. The standings and statistics queries
+ * are timed on every call. The metrics can be read from {@link #dump()}, or over JMX once
+ * {@link #register()} has been called.
+ * <p>
+ * The same operations also emit the JFR events {@code main.ResultIngestion} and
+ * {@code main.StandingsQuery} when a flight recording is running, independently of whether
+ * metrics are enabled.
+ */
+public class ChampionshipMetrics implements ChampionshipMetricsMXBean {
+    private static final int SAMPLING_INTERVAL = Integer.highestOneBit(
+            Math.max(1, Integer.getInteger("championship.metrics.sampling", 256))); // the sampling interval of the fast operations
+
+    /** The latencies of recording results, sampled. */
+    public static final LatencyHistogram RECORD_RESULT = new LatencyHistogram("recordResult", SAMPLING_INTERVAL);
+    /** The latencies of reading the championship standings. */
+    public static final LatencyHistogram DRIVER_STANDINGS = new LatencyHistogram("getDriverStandings", 1);
+    /** The latencies of reading race results, sampled. */
+    public static final LatencyHistogram RACE_RESULTS = new LatencyHistogram("getResults", SAMPLING_INTERVAL);
+    /** The latencies of computing championship statistics. */
+    public static final LatencyHistogram STATISTICS = new LatencyHistogram("statistics", 1);
+
+    private static final LongAdder resultsRecorded = new LongAdder(); // the estimated number of results recorded
+    private static final LongAdder snapshotsPublished = new LongAdder(); // the number of snapshots published
+    private static volatile boolean enabled = Boolean.getBoolean("championship.metrics"); // whether metrics are recorded
+
+    /**
+     * Private constructor to enforce singleton pattern.
+     */
+    private ChampionshipMetrics() {
+    }
+
+    /**
+     * Holds the singleton instance, which the JVM creates safely on first access.
+     */
+    private static class InstanceHolder {
+        private static final ChampionshipMetrics INSTANCE = new ChampionshipMetrics(); // singleton instance
+    }
+
+    /**
+     * Returns the singleton instance of ChampionshipMetrics.
+     *
+     * @return the singleton instance of ChampionshipMetrics
+     */
+    public static ChampionshipMetrics getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * Returns whether metrics are being recorded.
+     *
+     * @return true if metrics are enabled
+     */
+    static boolean recording() {
+        return enabled;
+    }
+
+    /**
+     * Records the latency of a call recording results, and counts the results. Since only
+     * timed calls are counted, each counts for the sampling interval.
+     *
+     * @param start the start time of the call
+     * @param count the number of results recorded
+     */
+    static void resultsRecorded(long start, int count) {
+        if (start != LatencyHistogram.NOT_TIMED) {
+            RECORD_RESULT.recordSince(start);
+            resultsRecorded.add((long) count * RECORD_RESULT.getSamplingInterval());
+        }
+    }
+
+    /**
+     * Counts a published snapshot.
+     */
+    static void snapshotPublished() {
+        if (enabled) {
+            snapshotsPublished.increment();
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server as {@code main:type=ChampionshipMetrics}.
+     * Registering again has no effect.
+     *
+     * @throws IllegalStateException if the metrics cannot be registered
+     */
+    public void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName("main:type=ChampionshipMetrics"));
+        } catch (InstanceAlreadyExistsException e) {
+            // already registered
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register championship metrics", e);
+        }
+    }
+
+    /**
+     * Returns whether latencies and counters are being recorded.
+     *
+     * @return true if metrics are enabled
+     */
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops recording latencies and counters.
+     *
+     * @param enabled whether metrics should be recorded
+     */
+    @Override
+    public void setEnabled(boolean enabled) {
+        ChampionshipMetrics.enabled = enabled;
+    }
+
+    /**
+     * Returns how many calls recording results or reading race results there are for each one
+     * that is timed.
+     *
+     * @return the sampling interval
+     */
+    @Override
+    public int getSamplingInterval() {
+        return RECORD_RESULT.getSamplingInterval();
+    }
+
+    /**
+     * Sets how many calls recording results or reading race results there are for each one
+     * that is timed.
+     *
+     * @param interval the sampling interval, a power of two; 1 times every call
+     * @throws IllegalArgumentException if the interval is not a positive power of two
+     */
+    @Override
+    public void setSamplingInterval(int interval) {
+        RECORD_RESULT.setSamplingInterval(interval);
+        RACE_RESULTS.setSamplingInterval(interval);
+    }
+
+    /**
+     * Returns the latencies of recording race results.
+     *
+     * @return the latency summary
+     */
+    @Override
+    public LatencySummary getRecordResult() {
+        return RECORD_RESULT.summarize();
+    }
+
+    /**
+     * Returns the latencies of reading the championship standings.
+     *
+     * @return the latency summary
+     */
+    @Override
+    public LatencySummary getDriverStandings() {
+        return DRIVER_STANDINGS.summarize();
+    }
+
+    /**
+     * Returns the latencies of reading race results.
+     *
+     * @return the latency summary
+     */
+    @Override
+    public LatencySummary getRaceResults() {
+        return RACE_RESULTS.summarize();
+    }
+
+    /**
+     * Returns the latencies of computing championship statistics.
+     *
+     * @return the latency summary
+     */
+    @Override
+    public LatencySummary getStatistics() {
+        return STATISTICS.summarize();
+    }
+
+    /**
+     * Returns the number of race results recorded, counting each result of a batch. The number
+     * is estimated from the timed calls, and is exact when every call is timed.
+     *
+     * @return the number of results
+     */
+    @Override
+    public long getResultsRecorded() {
+        return resultsRecorded.sum();
+    }
+
+    /**
+     * Returns the number of standings snapshots published.
+     *
+     * @return the number of snapshots
+     */
+    @Override
+    public long getSnapshotsPublished() {
+        return snapshotsPublished.sum();
+    }
+
+    /**
+     * Returns every metric as text, one line per latency histogram and counter, with latencies
+     * in microseconds.
+     *
+     * @return the text dump
+     */
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder(512);
+        text.append("metrics enabled: ").append(enabled)
+                .append(", timing 1 result call in ").append(RECORD_RESULT.getSamplingInterval()).append('\n');
+        for (LatencyHistogram histogram : new LatencyHistogram[] {RECORD_RESULT, DRIVER_STANDINGS, RACE_RESULTS, STATISTICS}) {
+            text.append(histogram.summarize()).append('\n');
+        }
+        text.append("resultsRecorded      ").append(resultsRecorded.sum()).append('\n');
+        text.append("snapshotsPublished   ").append(snapshotsPublished.sum()).append('\n');
+        return text.toString();
+    }
+
+    /**
+     * Discards the recorded latencies and resets the counters.
+     */
+    @Override
+    public void reset() {
+        RECORD_RESULT.reset();
+        DRIVER_STANDINGS.reset();
+        RACE_RESULTS.reset();
+        STATISTICS.reset();
+        resultsRecorded.reset();
+        snapshotsPublished.reset();
+    }
+}
@@ -0,0 +1,94 @@
+package main;
+
+/**
+ * The ChampionshipMetricsMXBean interface is the JMX view of the {@link ChampionshipMetrics}.
+ * It is registered as {@code main:type=ChampionshipMetrics}.
+ */
+public interface ChampionshipMetricsMXBean {
+
+    /**
+     * Returns whether latencies and counters are being recorded.
+     *
+     * @return true if metrics are enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Starts or stops recording latencies and counters.
+     *
+     * @param enabled whether metrics should be recorded
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns how many calls recording results or reading race results there are for each one
+     * that is timed.
+     *
+     * @return the sampling interval
+     */
+    int getSamplingInterval();
+
+    /**
+     * Sets how many calls recording results or reading race results there are for each one
+     * that is timed.
+     *
+     * @param interval the sampling interval, a power of two; 1 times every call
+     * @throws IllegalArgumentException if the interval is not a positive power of two
+     */
+    void setSamplingInterval(int interval);
+
+    /**
+     * Returns the latencies of recording race results.
+     *
+     * @return the latency summary
+     */
+    LatencySummary getRecordResult();
+
+    /**
+     * Returns the latencies of reading the championship standings.
+     *
+     * @return the latency summary
+     */
+    LatencySummary getDriverStandings();
+
+    /**
+     * Returns the latencies of reading race results.
+     *
+     * @return the latency summary
+     */
+    LatencySummary getRaceResults();
+
+    /**
+     * Returns the latencies of computing championship statistics.
+     *
+     * @return the latency summary
+     */
+    LatencySummary getStatistics();
+
+    /**
+     * Returns the number of race results recorded, counting each result of a batch. The number
+     * is estimated from the timed calls, and is exact when every call is timed.
+     *
+     * @return the number of results
+     */
+    long getResultsRecorded();
+
+    /**
+     * Returns the number of standings snapshots published.
+     *
+     * @return the number of snapshots
+     */
+    long getSnapshotsPublished();
+
+    /**
+     * Returns every metric as text.
+     *
+     * @return the text dump
+     */
+    String dump();
+
+    /**
+     * Discards the recorded latencies and resets the counters.
+     */
+    void reset();
+}
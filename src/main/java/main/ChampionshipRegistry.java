@@ -0,0 +1,293 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The ChampionshipRegistry class holds named, independent championships, such as WRC, WRC2 and
+ * national series, in one JVM. Each championship has its own drivers, races and locks, so work
+ * on different championships never contends; {@link #partitionOf} assigns championships to
+ * worker threads so that each championship is only written by one of them.
+ * <p>
+ * The registry always contains the default championship, {@link ChampionshipManager#getInstance()},
+ * under {@link #DEFAULT_NAME}. Aggregate queries across all championships query each one in
+ * parallel on a fork/join pool.
+ * <p>
+ * A driver can only be registered in one championship, so a driver entered in several series
+ * is represented by one Driver per championship.
+ */
+public class ChampionshipRegistry {
+    /** The name of the default championship. */
+    public static final String DEFAULT_NAME = "default";
+
+    private final ConcurrentMap<String, ChampionshipManager> championships; // the championships, by name
+    private final ForkJoinPool pool; // the pool running aggregate queries
+
+    /**
+     * Constructs a ChampionshipRegistry containing the default championship, running aggregate
+     * queries on the common fork/join pool.
+     */
+    public ChampionshipRegistry() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a ChampionshipRegistry containing the default championship, running aggregate
+     * queries on the given pool.
+     *
+     * @param pool the pool to run aggregate queries on
+     */
+    public ChampionshipRegistry(ForkJoinPool pool) {
+        this.championships = new ConcurrentHashMap<>();
+        this.pool = pool;
+        championships.put(DEFAULT_NAME, ChampionshipManager.getInstance());
+    }
+
+    /**
+     * Returns the championship with a name, creating it if it does not exist.
+     *
+     * @param name the name of the championship
+     * @return the championship
+     */
+    public ChampionshipManager getOrCreate(String name) {
+        Objects.requireNonNull(name, "name");
+        return championships.computeIfAbsent(name, ChampionshipManager::new);
+    }
+
+    /**
+     * Creates a championship.
+     *
+     * @param name the name of the championship
+     * @return the new championship
+     * @throws IllegalArgumentException if a championship with the name already exists
+     */
+    public ChampionshipManager create(String name) {
+        Objects.requireNonNull(name, "name");
+        ChampionshipManager championship = new ChampionshipManager(name);
+        if (championships.putIfAbsent(name, championship) != null) {
+            throw new IllegalArgumentException("Championship already exists: " + name);
+        }
+        return championship;
+    }
+
+    /**
+     * Returns the championship with a name.
+     *
+     * @param name the name of the championship
+     * @return the championship, or null if there is none with the name
+     */
+    public ChampionshipManager get(String name) {
+        return championships.get(name);
+    }
+
+    /**
+     * Removes a championship from the registry. The default championship cannot be removed.
+     *
+     * @param name the name of the championship
+     * @return the removed championship, or null if there was none with the name
+     * @throws IllegalArgumentException if the name is that of the default championship
+     */
+    public ChampionshipManager remove(String name) {
+        if (DEFAULT_NAME.equals(name)) {
+            throw new IllegalArgumentException("The default championship cannot be removed");
+        }
+        return championships.remove(name);
+    }
+
+    /**
+     * Returns the championships of the registry.
+     *
+     * @return a list of the championships, in no particular order
+     */
+    public List<ChampionshipManager> getChampionships() {
+        return new ArrayList<>(championships.values());
+    }
+
+    /**
+     * Returns the partition a championship belongs to when the championships are divided among
+     * a number of workers. The partition depends only on the name, so it is stable.
+     *
+     * @param name       the name of the championship
+     * @param partitions the number of partitions
+     * @return the partition, from 0 to {@code partitions - 1}
+     * @throws IllegalArgumentException if the number of partitions is not positive
+     */
+    public static int partitionOf(String name, int partitions) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partitions must be positive: " + partitions);
+        }
+        return Math.floorMod(name.hashCode(), partitions);
+    }
+
+    /**
+     * Returns the championships of one partition.
+     *
+     * @param partition  the partition
+     * @param partitions the number of partitions
+     * @return a list of the championships in the partition
+     * @throws IllegalArgumentException if the number of partitions is not positive
+     */
+    public List<ChampionshipManager> getPartition(int partition, int partitions) {
+        List<ChampionshipManager> result = new ArrayList<>();
+        for (Map.Entry<String, ChampionshipManager> entry : championships.entrySet()) {
+            if (partitionOf(entry.getKey(), partitions) == partition) {
+                result.add(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the total number of drivers registered across all championships.
+     *
+     * @return the total number of drivers
+     */
+    public long getTotalDrivers() {
+        return inParallel(values -> values.parallelStream().mapToLong(ChampionshipManager::getDriverCount).sum());
+    }
+
+    /**
+     * Returns the total number of races added across all championships.
+     *
+     * @return the total number of races
+     */
+    public long getTotalRaces() {
+        return inParallel(values -> values.parallelStream().mapToLong(ChampionshipManager::getRaceCount).sum());
+    }
+
+    /**
+     * Returns the total points of all drivers across all championships.
+     *
+     * @return the total points
+     */
+    public long getTotalPoints() {
+        return inParallel(values -> values.parallelStream().mapToLong(ChampionshipManager::getTotalPoints).sum());
+    }
+
+    /**
+     * Returns the total points earned by the drivers of a country across all championships.
+     *
+     * @param country the country
+     * @return the total points of the country's drivers
+     */
+    public long getCountryPoints(String country) {
+        return inParallel(values -> values.parallelStream().mapToLong(championship -> championship.getCountryPoints(country)).sum());
+    }
+
+    /**
+     * Returns the leader of every championship that has drivers.
+     *
+     * @return a read-only map from championship name to its leading driver
+     */
+    public Map<String, Driver> getLeaders() {
+        Map<String, Driver> leaders = new ConcurrentHashMap<>();
+        inParallel(values -> {
+            values.parallelStream().forEach(championship -> {
+                Driver leader = championship.getLeader();
+                if (leader != null) {
+                    leaders.put(championship.getName(), leader);
+                }
+            });
+            return null;
+        });
+        return Collections.unmodifiableMap(leaders);
+    }
+
+    /**
+     * Returns the drivers with the most points across all championships. Drivers with equal
+     * points are ordered by championship name, then by their order in their championship.
+     *
+     * @param count the maximum number of drivers to return
+     * @return a list of at most {@code count} drivers sorted by their points
+     * @throws IllegalArgumentException if the count is negative
+     */
+    public List<Driver> getTopDrivers(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Driver count must not be negative: " + count);
+        }
+
+        // each championship returns its own leading drivers in order, which are then merged
+        List<Top> tops = inParallel(values -> values.parallelStream()
+                .sorted(Comparator.comparing(ChampionshipManager::getName))
+                .map(championship -> new Top(championship.getTopDrivers(count)))
+                .toList());
+
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> {
+            int byPoints = Integer.compare(tops.get(b[0]).points[b[1]], tops.get(a[0]).points[a[1]]);
+            return byPoints != 0 ? byPoints : Integer.compare(a[0], b[0]);
+        });
+        for (int i = 0; i < tops.size(); i++) {
+            if (tops.get(i).drivers.length > 0) {
+                heads.add(new int[] {i, 0});
+            }
+        }
+        List<Driver> merged = new ArrayList<>(count);
+        while (merged.size() < count && !heads.isEmpty()) {
+            int[] head = heads.poll();
+            Top top = tops.get(head[0]);
+            merged.add(top.drivers[head[1]]);
+            if (++head[1] < top.drivers.length) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Runs a query over the championships on the pool of the registry, so that its parallel
+     * streams use that pool.
+     *
+     * @param query the query
+     * @param <T>   the type of the result
+     * @return the result of the query
+     */
+    private <T> T inParallel(Query<T> query) {
+        Collection<ChampionshipManager> values = championships.values();
+        try {
+            return pool.submit(() -> query.run(values)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying championships", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * The leading drivers of one championship, with their points when they were read.
+     */
+    private static final class Top {
+        private final Driver[] drivers; // the leading drivers, in order
+        private final int[] points; // the points of each driver, read once so the merge order is stable
+
+        private Top(List<Driver> top) {
+            this.drivers = top.toArray(new Driver[0]);
+            this.points = new int[drivers.length];
+            for (int i = 0; i < drivers.length; i++) {
+                points[i] = drivers[i].getPoints();
+            }
+        }
+    }
+
+    /**
+     * A query over the championships of the registry.
+     *
+     * @param <T> the type of the result
+     */
+    private interface Query<T> {
+        T run(Collection<ChampionshipManager> championships);
+    }
+}
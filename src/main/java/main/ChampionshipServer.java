@@ -0,0 +1,498 @@
+package main;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The ChampionshipServer class serves a championship as JSON over HTTP, using the JDK's built-in
+ * HTTP server with one virtual thread per request.
+ * <p>
+ * Responses are rendered from the latest published {@link StandingsSnapshot}, and the snapshot
+ * version is the ETag of every response, so clients can revalidate with {@code If-None-Match}
+ * and receive 304 Not Modified until a new snapshot is published. The race and car endpoints also
+ * render results and cars, which snapshots do not hold, so their ETag adds the number of changes
+ * to them. Rendered bodies are cached per ETag, so repeated requests between changes only write
+ * bytes.
+ * <p>
+ * The endpoints are:
+ * <ul>
+ *     <li>{@code /standings?limit=N} - the drivers in standings order</li>
+ *     <li>{@code /leader} - the leading driver</li>
+ *     <li>{@code /statistics} - championship totals and the leading country</li>
+ *     <li>{@code /races} - the races held</li>
+ *     <li>{@code /races/N?offset=M&limit=K} - a page of the results of the race at index N, of 100
+ *     results unless a limit of at most 1000 is given</li>
+ *     <li>{@code /cars} - the performance rating of each driver's car</li>
+ * </ul>
+ * The JDK server closes idle keep-alive connections beyond the limit set by the
+ * {@code sun.net.httpserver.maxIdleConnections} system property, 200 by default, so it should be
+ * raised when serving many concurrent clients.
+ */
+public class ChampionshipServer implements Closeable {
+    private static final int BACKLOG = 16384; // the maximum number of connections waiting to be accepted
+    private static final int MAX_CACHED_RESPONSES = 1024; // the maximum number of distinct requests cached
+    static final int DEFAULT_PAGE_SIZE = 100; // the number of race results returned without a limit
+    static final int MAX_PAGE_SIZE = 1000; // the largest limit of race results, bounding the time a race is locked
+
+    private final ChampionshipManager manager; // the championship being served
+    private final HttpServer server; // the underlying HTTP server
+    private final ExecutorService executor; // the executor that runs one virtual thread per request
+    private final Map<String, CachedResponse> cache; // rendered responses, by request path and query
+
+    /**
+     * Constructs a ChampionshipServer bound to an address. The server does not accept requests
+     * until it is started.
+     *
+     * @param manager the championship to serve
+     * @param address the address to bind to, with port 0 for any free port
+     * @throws IOException if the server cannot be bound
+     */
+    public ChampionshipServer(ChampionshipManager manager, InetSocketAddress address) throws IOException {
+        this.manager = manager;
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.cache = new ConcurrentHashMap<>();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Starts accepting requests, and registers the {@link ChampionshipMetrics} over JMX so
+     * that the running server can be monitored.
+     */
+    public void start() {
+        ChampionshipMetrics.getInstance().register();
+        server.start();
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and closes the server once the requests being handled have finished.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    /**
+     * Handles a request: answers 304 if the client has the current version, and otherwise
+     * sends the rendered response for the current version.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the response cannot be written
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            boolean head = method.equals("HEAD");
+            Headers headers = exchange.getResponseHeaders();
+            if (!head && !method.equals("GET")) {
+                headers.set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            // the change count is read before rendering, so a change made meanwhile changes the next ETag
+            String path = exchange.getRequestURI().getRawPath();
+            StandingsSnapshot snapshot = manager.getSnapshot();
+            long changes = rendersLiveData(path) ? manager.getChangeCount() : -1;
+            String etag = "\"" + snapshot.getVersion() + (changes < 0 ? "" : "-" + changes) + "\"";
+            headers.set("ETag", etag);
+            headers.set("Cache-Control", "no-cache");
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            CachedResponse response = respond(path, exchange.getRequestURI().getRawQuery(), snapshot, changes);
+            headers.set("Content-Type", "application/json; charset=utf-8");
+            if (head) {
+                exchange.sendResponseHeaders(response.status, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(response.status, response.body.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response.body);
+            }
+        }
+    }
+
+    /**
+     * Returns whether an endpoint renders race results or cars, which snapshots do not hold.
+     *
+     * @param path the path of the request
+     * @return true for the race and car endpoints
+     */
+    private static boolean rendersLiveData(String path) {
+        return path.equals("/races") || path.startsWith("/races/") || path.equals("/cars");
+    }
+
+    /**
+     * Returns the response to a request for a snapshot, rendering it unless it is cached.
+     *
+     * @param path     the path of the request
+     * @param query    the query of the request, or null if it has none
+     * @param snapshot the snapshot to render
+     * @param changes  the number of changes to race results and cars, or -1 if the endpoint renders neither
+     * @return the response
+     */
+    private CachedResponse respond(String path, String query, StandingsSnapshot snapshot, long changes) {
+        String key = query == null ? path : path + '?' + query;
+        CachedResponse cached = cache.get(key);
+        if (cached != null && cached.version == snapshot.getVersion() && cached.changes == changes) {
+            return cached;
+        }
+
+        CachedResponse response;
+        try {
+            String json = render(path, query, snapshot);
+            response = json == null
+                    ? error(snapshot, changes, 404, "Not found: " + path)
+                    : new CachedResponse(snapshot.getVersion(), changes, 200, json);
+        } catch (IllegalArgumentException e) {
+            response = error(snapshot, changes, 400, e.getMessage());
+        }
+
+        // distinct queries are unbounded, so only a limited number of them is cached
+        if (cached != null || cache.size() < MAX_CACHED_RESPONSES) {
+            cache.put(key, response);
+        }
+        return response;
+    }
+
+    /**
+     * Renders the JSON body of an endpoint.
+     *
+     * @param path     the path of the request
+     * @param query    the query of the request, or null if it has none
+     * @param snapshot the snapshot to render
+     * @return the JSON body, or null if no endpoint matches the path
+     * @throws IllegalArgumentException if the query or the path parameter is invalid
+     */
+    private String render(String path, String query, StandingsSnapshot snapshot) {
+        return switch (path) {
+            case "/standings" -> renderStandings(snapshot, parseParameter(query, "limit", snapshot.getDriverCount()));
+            case "/leader" -> renderLeader(snapshot);
+            case "/statistics" -> renderStatistics(snapshot);
+            case "/races" -> renderRaces(snapshot);
+            case "/cars" -> renderCars(snapshot);
+            default -> path.startsWith("/races/") ? renderRace(snapshot, path.substring("/races/".length()), query) : null;
+        };
+    }
+
+    /**
+     * Renders the standings.
+     *
+     * @param snapshot the snapshot to render
+     * @param limit    the maximum number of drivers to include
+     * @return the JSON body
+     */
+    private static String renderStandings(StandingsSnapshot snapshot, int limit) {
+        List<Driver> drivers = snapshot.getTopDrivers(limit);
+        StringBuilder json = new StringBuilder(64 + drivers.size() * 80);
+        json.append("{\"version\":").append(snapshot.getVersion()).append(",\"standings\":[");
+        for (int i = 0; i < drivers.size(); i++) {
+            Driver driver = drivers.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"position\":").append(i + 1).append(",\"name\":");
+            appendString(json, driver.getName());
+            json.append(",\"country\":");
+            appendString(json, driver.getCountry());
+            json.append(",\"points\":").append(snapshot.getPointsAt(i + 1)).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Renders the leading driver.
+     *
+     * @param snapshot the snapshot to render
+     * @return the JSON body
+     */
+    private static String renderLeader(StandingsSnapshot snapshot) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"version\":").append(snapshot.getVersion()).append(",\"leader\":");
+        Driver leader = snapshot.getLeadingDriver();
+        if (leader == null) {
+            json.append("null");
+        } else {
+            json.append("{\"name\":");
+            appendString(json, leader.getName());
+            json.append(",\"country\":");
+            appendString(json, leader.getCountry());
+            json.append(",\"points\":").append(snapshot.getPointsAt(1)).append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Renders the championship statistics.
+     *
+     * @param snapshot the snapshot to render
+     * @return the JSON body
+     */
+    private static String renderStatistics(StandingsSnapshot snapshot) {
+        StringBuilder json = new StringBuilder(160);
+        json.append("{\"version\":").append(snapshot.getVersion())
+                .append(",\"drivers\":").append(snapshot.getDriverCount())
+                .append(",\"races\":").append(snapshot.getRaceCount())
+                .append(",\"totalPoints\":").append(snapshot.getTotalPoints())
+                .append(",\"averagePoints\":");
+        appendNumber(json, snapshot.getAveragePointsPerDriver());
+        json.append(",\"leadingCountry\":");
+        appendString(json, snapshot.getLeadingCountry());
+        return json.append('}').toString();
+    }
+
+    /**
+     * Renders the list of races held when the snapshot was published.
+     *
+     * @param snapshot the snapshot to render
+     * @return the JSON body
+     */
+    private String renderRaces(StandingsSnapshot snapshot) {
+        List<RallyRaceResult> races = manager.getRaces();
+        StringBuilder json = new StringBuilder(64 + snapshot.getRaceCount() * 80);
+        json.append("{\"version\":").append(snapshot.getVersion()).append(",\"races\":[");
+        for (int i = 0; i < snapshot.getRaceCount(); i++) {
+            RallyRaceResult race = races.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"index\":").append(i).append(",\"name\":");
+            appendString(json, race.getRaceName());
+            json.append(",\"location\":");
+            appendString(json, race.getLocation());
+            json.append(",\"fieldSize\":").append(race.getFieldSize()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Renders a page of the results of a race, of {@link #DEFAULT_PAGE_SIZE} results unless a limit
+     * is given.
+     *
+     * @param snapshot the snapshot to render
+     * @param index    the index of the race, as given in the path
+     * @param query    the query of the request, or null if it has none
+     * @return the JSON body, or null if there is no race at the index
+     * @throws IllegalArgumentException if the index, offset or limit is invalid, or the limit is
+     *                                  over {@link #MAX_PAGE_SIZE}
+     */
+    private String renderRace(StandingsSnapshot snapshot, String index, String query) {
+        int raceIndex = parseNumber(index, "race index");
+        if (raceIndex < 0 || raceIndex >= snapshot.getRaceCount()) {
+            return null;
+        }
+        RallyRaceResult race = manager.getRaces().get(raceIndex);
+        int offset = parseParameter(query, "offset", 0);
+        int limit = parseParameter(query, "limit", DEFAULT_PAGE_SIZE);
+        if (limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be at most " + MAX_PAGE_SIZE + ": " + limit);
+        }
+
+        StringBuilder json = new StringBuilder(128 + Math.min(limit, race.getFieldSize()) * 64);
+        json.append("{\"version\":").append(snapshot.getVersion()).append(",\"name\":");
+        appendString(json, race.getRaceName());
+        json.append(",\"location\":");
+        appendString(json, race.getLocation());
+        json.append(",\"fieldSize\":").append(race.getFieldSize())
+                .append(",\"offset\":").append(offset).append(",\"results\":[");
+        int start = json.length();
+        race.forEachResult(offset, limit, (driver, position, points) -> {
+            if (json.length() > start) {
+                json.append(',');
+            }
+            json.append("{\"position\":").append(position).append(",\"name\":");
+            appendString(json, driver.getName());
+            json.append(",\"country\":");
+            appendString(json, driver.getCountry());
+            json.append(",\"points\":").append(points).append('}');
+        });
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Renders the performance rating of each driver's car, in standings order.
+     *
+     * @param snapshot the snapshot to render
+     * @return the JSON body
+     */
+    private static String renderCars(StandingsSnapshot snapshot) {
+        List<Driver> drivers = snapshot.getStandings();
+        RallyCar[] cars = new RallyCar[drivers.size()];
+        int count = 0;
+        for (Driver driver : drivers) {
+            if (driver.getCar() != null) {
+                cars[count++] = driver.getCar();
+            }
+        }
+        double[] ratings = new double[count];
+        RallyCar.calculatePerformance(count == cars.length ? cars : Arrays.copyOf(cars, count), ratings);
+
+        StringBuilder json = new StringBuilder(64 + count * 120);
+        json.append("{\"version\":").append(snapshot.getVersion()).append(",\"cars\":[");
+        int car = 0;
+        for (Driver driver : drivers) {
+            if (driver.getCar() == null) {
+                continue;
+            }
+            if (car > 0) {
+                json.append(',');
+            }
+            json.append("{\"driver\":");
+            appendString(json, driver.getName());
+            json.append(",\"make\":");
+            appendString(json, driver.getCar().getMake());
+            json.append(",\"model\":");
+            appendString(json, driver.getCar().getModel());
+            json.append(",\"class\":");
+            appendString(json, CarClass.of(driver.getCar()).name());
+            json.append(",\"horsepower\":").append(driver.getCar().getHorsepower()).append(",\"performance\":");
+            appendNumber(json, ratings[car++]);
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Builds an error response.
+     *
+     * @param snapshot the snapshot the request was answered from
+     * @param changes  the number of changes to race results and cars, or -1 if not rendered
+     * @param status   the HTTP status code
+     * @param message  the error message
+     * @return the response
+     */
+    private static CachedResponse error(StandingsSnapshot snapshot, long changes, int status, String message) {
+        StringBuilder json = new StringBuilder(64).append("{\"error\":");
+        appendString(json, message);
+        return new CachedResponse(snapshot.getVersion(), changes, status, json.append('}').toString());
+    }
+
+    /**
+     * Reads a non-negative number parameter of a query.
+     *
+     * @param query        the query, or null if there is none
+     * @param name         the name of the parameter
+     * @param defaultValue the value if the parameter is absent
+     * @return the value of the parameter
+     * @throws IllegalArgumentException if the value is not a non-negative number
+     */
+    private static int parseParameter(String query, String name, int defaultValue) {
+        if (query == null) {
+            return defaultValue;
+        }
+        String prefix = name + '=';
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith(prefix)) {
+                int value = parseNumber(parameter.substring(prefix.length()), name);
+                if (value < 0) {
+                    throw new IllegalArgumentException(Character.toUpperCase(name.charAt(0)) + name.substring(1)
+                            + " must not be negative: " + value);
+                }
+                return value;
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Parses a number from a request.
+     *
+     * @param value the text of the number
+     * @param name  the name of the value, for the error message
+     * @return the number
+     * @throws IllegalArgumentException if the text is not a number
+     */
+    private static int parseNumber(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+
+    /**
+     * Appends a JSON string literal.
+     *
+     * @param json  the JSON being built
+     * @param value the string
+     */
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Appends a JSON number, or null if the value is not finite.
+     *
+     * @param json  the JSON being built
+     * @param value the number
+     */
+    private static void appendNumber(StringBuilder json, double value) {
+        if (Double.isFinite(value)) {
+            json.append(value);
+        } else {
+            json.append("null");
+        }
+    }
+
+    /**
+     * A rendered response and the snapshot version it was rendered from.
+     */
+    private static final class CachedResponse {
+        private final long version; // the version of the snapshot the response was rendered from
+        private final long changes; // the number of changes to race results and cars rendered, or -1 if none were
+        private final int status; // the HTTP status code
+        private final byte[] body; // the JSON body, encoded as UTF-8
+
+        private CachedResponse(long version, long changes, int status, String body) {
+            this.version = version;
+            this.changes = changes;
+            this.status = status;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
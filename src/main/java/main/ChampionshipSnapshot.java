@@ -0,0 +1,511 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ChampionshipSnapshot class reads and writes a compact binary snapshot of a championship:
+ * its cars, drivers, standings, races and race results.
+ * <p>
+ * A snapshot is opened by memory-mapping the file, which is instant regardless of its size.
+ * Drivers, standings and races can be read straight from the mapped file, so standings queries
+ * can be answered before the championship is restored into a ChampionshipManager.
+ * <p>
+ * The file starts with a fixed header holding the counts and the offset of each section.
+ * The string section holds every distinct string once, and the other sections are arrays of
+ * fixed-width records that refer to strings by their offset within the string section.
+ */
+public class ChampionshipSnapshot {
+    static final int MAGIC = 0x52435331; // "RCS1", identifies snapshot files
+    static final int VERSION = 2; // the version of the snapshot format; version 2 added power stage positions
+    static final int HEADER_SIZE = 88; // the size of the header, in bytes
+    static final int CAR_RECORD_SIZE = 24; // type, make, model, horsepower and downforce or suspension travel
+    static final int DRIVER_RECORD_SIZE = 16; // name, country, points and car index
+    static final int RACE_RECORD_SIZE = 20; // name, location, first result row and field size
+    static final int RESULT_RECORD_SIZE = 16; // driver id, position, points and power stage position
+    static final int ASPHALT_CAR = 1; // car type of an AsphaltCar
+    static final int GRAVEL_CAR = 2; // car type of a GravelCar
+
+    private final ByteBuffer buffer; // the mapped file
+    private final int carCount; // the number of distinct cars
+    private final int driverCount; // the number of drivers
+    private final int raceCount; // the number of races
+    private final int stringsOffset; // the offset of the string section
+    private final int carsOffset; // the offset of the car records
+    private final int driversOffset; // the offset of the driver records
+    private final int standingsOffset; // the offset of the driver ids in standings order
+    private final int racesOffset; // the offset of the race records
+    private final int resultsOffset; // the offset of the result records
+
+    /**
+     * Constructs a ChampionshipSnapshot over a mapped file, validating its header.
+     *
+     * @param buffer the mapped file
+     * @throws IOException if the file is not a snapshot of a supported version
+     */
+    private ChampionshipSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a championship snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version: " + buffer.getInt(4) + ", expected " + VERSION);
+        }
+        if (buffer.getLong(80) != buffer.capacity()) {
+            throw new IOException("Truncated championship snapshot");
+        }
+
+        this.carCount = buffer.getInt(8);
+        this.driverCount = buffer.getInt(12);
+        this.raceCount = buffer.getInt(16);
+        this.stringsOffset = (int) buffer.getLong(32);
+        this.carsOffset = (int) buffer.getLong(40);
+        this.driversOffset = (int) buffer.getLong(48);
+        this.standingsOffset = (int) buffer.getLong(56);
+        this.racesOffset = (int) buffer.getLong(64);
+        this.resultsOffset = (int) buffer.getLong(72);
+    }
+
+    /**
+     * Opens a snapshot file by memory-mapping it. No records are read until they are requested.
+     *
+     * @param file the snapshot file
+     * @return the opened snapshot
+     * @throws IOException if the file cannot be mapped or is not a valid snapshot
+     */
+    public static ChampionshipSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map: " + file);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ChampionshipSnapshot(mapped);
+        }
+    }
+
+    /**
+     * Writes a snapshot of a championship to a file, replacing the file if it exists.
+     * The snapshot is written to a temporary file next to it and synced to disk first, then
+     * moved over the file atomically, so a crash leaves either the old or the new snapshot.
+     * The drivers, their points and cars, and the races are read once at the start, and results
+     * of drivers registered after that are left out, so the snapshot is consistent while the
+     * championship keeps changing.
+     *
+     * @param manager the championship to write
+     * @param file    the file to write to
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if a driver's car is neither an AsphaltCar nor a GravelCar
+     */
+    public static void write(ChampionshipManager manager, Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                write(manager, channel);
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a snapshot of a championship to an empty channel.
+     *
+     * @param manager the championship to write
+     * @param channel the channel to write to
+     * @throws IOException if the channel cannot be written
+     * @throws IllegalArgumentException if a driver's car is neither an AsphaltCar nor a GravelCar
+     */
+    private static void write(ChampionshipManager manager, FileChannel channel) throws IOException {
+        // read the drivers, their points and cars, and the races once, so every section agrees
+        StandingsSnapshot standings = manager.takeSnapshot(manager.getSnapshot().getVersion());
+        List<Driver> drivers = standings.getStandings();
+        Driver[] driversById = new Driver[drivers.size()];
+        int[] pointsById = new int[drivers.size()];
+        RallyCar[] carsById = new RallyCar[drivers.size()];
+        for (int position = 1; position <= drivers.size(); position++) {
+            Driver driver = drivers.get(position - 1);
+            driversById[driver.getId()] = driver;
+            pointsById[driver.getId()] = standings.getPointsAt(position);
+            carsById[driver.getId()] = driver.getCar();
+        }
+        RallyRaceResult[] races = manager.getRaces().toArray(new RallyRaceResult[0]);
+
+        SnapshotWriter out = new SnapshotWriter(channel, HEADER_SIZE);
+
+        // strings first, so the records below can refer to them
+        long stringsOffset = out.position();
+        Map<String, Integer> strings = new HashMap<>();
+        Map<RallyCar, Integer> cars = new IdentityHashMap<>();
+        for (int id = 0; id < driversById.length; id++) {
+            out.putString(driversById[id].getName(), strings, stringsOffset);
+            out.putString(driversById[id].getCountry(), strings, stringsOffset);
+            RallyCar car = carsById[id];
+            if (car != null && !cars.containsKey(car)) {
+                cars.put(car, cars.size());
+                out.putString(car.getMake(), strings, stringsOffset);
+                out.putString(car.getModel(), strings, stringsOffset);
+            }
+        }
+        for (RallyRaceResult race : races) {
+            out.putString(race.getRaceName(), strings, stringsOffset);
+            out.putString(race.getLocation(), strings, stringsOffset);
+        }
+
+        long carsOffset = out.position();
+        RallyCar[] carsByIndex = new RallyCar[cars.size()];
+        for (Map.Entry<RallyCar, Integer> entry : cars.entrySet()) {
+            carsByIndex[entry.getValue()] = entry.getKey();
+        }
+        for (RallyCar car : carsByIndex) {
+            if (car instanceof AsphaltCar asphaltCar) {
+                out.putInt(ASPHALT_CAR);
+                out.putInt(strings.get(car.getMake()));
+                out.putInt(strings.get(car.getModel()));
+                out.putInt(car.getHorsepower());
+                out.putDouble(asphaltCar.getDownforce());
+            } else if (car instanceof GravelCar gravelCar) {
+                out.putInt(GRAVEL_CAR);
+                out.putInt(strings.get(car.getMake()));
+                out.putInt(strings.get(car.getModel()));
+                out.putInt(car.getHorsepower());
+                out.putDouble(gravelCar.getSuspensionTravel());
+            } else {
+                throw new IllegalArgumentException("Unsupported car type: " + car.getClass().getName());
+            }
+        }
+
+        long driversOffset = out.position();
+        for (int id = 0; id < driversById.length; id++) {
+            out.putInt(strings.get(driversById[id].getName()));
+            out.putInt(strings.get(driversById[id].getCountry()));
+            out.putInt(pointsById[id]);
+            out.putInt(carsById[id] == null ? -1 : cars.get(carsById[id]));
+        }
+
+        long standingsOffset = out.position();
+        for (Driver driver : drivers) {
+            out.putInt(driver.getId());
+        }
+
+        // lock each race once to copy its results, recording where they start; drivers registered
+        // after the drivers were read have no record, so their results are left out
+        long racesOffset = out.position();
+        long resultsOffset = racesOffset + (long) races.length * RACE_RECORD_SIZE;
+        long resultCount = 0;
+        SnapshotWriter results = new SnapshotWriter(channel, resultsOffset);
+        for (RallyRaceResult race : races) {
+            int written = 0;
+            synchronized (race) {
+                for (int row = 0; row < race.getFieldSize(); row++) {
+                    int id = race.driverAt(row).getId();
+                    if (id < driversById.length) {
+                        results.putInt(id);
+                        results.putInt(race.positionAt(row));
+                        results.putInt(race.pointsAt(row));
+                        results.putInt(race.powerStageAt(row));
+                        written++;
+                    }
+                }
+            }
+            out.putInt(strings.get(race.getRaceName()));
+            out.putInt(strings.get(race.getLocation()));
+            out.putLong(resultCount);
+            out.putInt(written);
+            resultCount += written;
+        }
+        out.flush();
+        results.flush();
+        long fileLength = results.position();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(carsByIndex.length).putInt(driversById.length)
+                .putInt(races.length).putInt(0).putLong(resultCount)
+                .putLong(stringsOffset).putLong(carsOffset).putLong(driversOffset)
+                .putLong(standingsOffset).putLong(racesOffset).putLong(resultsOffset).putLong(fileLength);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Returns the number of drivers in the snapshot.
+     *
+     * @return the number of drivers
+     */
+    public int getDriverCount() {
+        return driverCount;
+    }
+
+    /**
+     * Returns the number of races in the snapshot.
+     *
+     * @return the number of races
+     */
+    public int getRaceCount() {
+        return raceCount;
+    }
+
+    /**
+     * Returns the registration id of the driver at a standings position.
+     *
+     * @param position the standings position, starting from 1
+     * @return the registration id of the driver at that position
+     */
+    public int getDriverIdAt(int position) {
+        if (position < 1 || position > driverCount) {
+            throw new IndexOutOfBoundsException("Standings position out of range: " + position);
+        }
+        return buffer.getInt(standingsOffset + (position - 1) * 4);
+    }
+
+    /**
+     * Returns the name of a driver.
+     *
+     * @param id the registration id of the driver
+     * @return the driver's name
+     */
+    public String getDriverName(int id) {
+        return string(buffer.getInt(driverRecord(id)));
+    }
+
+    /**
+     * Returns the country of a driver.
+     *
+     * @param id the registration id of the driver
+     * @return the driver's country
+     */
+    public String getDriverCountry(int id) {
+        return string(buffer.getInt(driverRecord(id) + 4));
+    }
+
+    /**
+     * Returns the total points of a driver.
+     *
+     * @param id the registration id of the driver
+     * @return the driver's total points
+     */
+    public int getDriverPoints(int id) {
+        return buffer.getInt(driverRecord(id) + 8);
+    }
+
+    /**
+     * Returns the name of a race.
+     *
+     * @param index the index of the race, in the order races were added
+     * @return the race name
+     */
+    public String getRaceName(int index) {
+        return string(buffer.getInt(raceRecord(index)));
+    }
+
+    /**
+     * Returns the location of a race.
+     *
+     * @param index the index of the race, in the order races were added
+     * @return the race location
+     */
+    public String getRaceLocation(int index) {
+        return string(buffer.getInt(raceRecord(index) + 4));
+    }
+
+    /**
+     * Returns the number of results recorded in a race.
+     *
+     * @param index the index of the race, in the order races were added
+     * @return the number of results of the race
+     */
+    public int getRaceFieldSize(int index) {
+        return buffer.getInt(raceRecord(index) + 16);
+    }
+
+    /**
+     * Restores the snapshot into an empty championship, creating every car, driver and race.
+     * Drivers are registered in their original order, so they keep their registration ids
+     * and the restored standings match the snapshot.
+     *
+     * @param manager the championship to restore into, which must have no drivers or races
+     * @throws IllegalStateException if the championship is not empty
+     */
+    public void restore(ChampionshipManager manager) {
+        if (!manager.getDrivers().isEmpty() || !manager.getRaces().isEmpty()) {
+            throw new IllegalStateException("Snapshots can only be restored into an empty championship");
+        }
+
+        RallyCar[] cars = new RallyCar[carCount];
+        for (int i = 0; i < carCount; i++) {
+            int record = carsOffset + i * CAR_RECORD_SIZE;
+            String make = string(buffer.getInt(record + 4));
+            String model = string(buffer.getInt(record + 8));
+            int horsepower = buffer.getInt(record + 12);
+            double value = buffer.getDouble(record + 16);
+            cars[i] = buffer.getInt(record) == ASPHALT_CAR
+                    ? new AsphaltCar(make, model, horsepower, value)
+                    : new GravelCar(make, model, horsepower, value);
+        }
+
+        Driver[] drivers = new Driver[driverCount];
+        for (int id = 0; id < driverCount; id++) {
+            int record = driverRecord(id);
+            int car = buffer.getInt(record + 12);
+            drivers[id] = new Driver(string(buffer.getInt(record)), string(buffer.getInt(record + 4)),
+                    car < 0 ? null : cars[car]);
+            manager.registerDriver(drivers[id]);
+            drivers[id].addPoints(buffer.getInt(record + 8));
+        }
+
+        for (int i = 0; i < raceCount; i++) {
+            int record = raceRecord(i);
+            RallyRaceResult race = new RallyRaceResult(string(buffer.getInt(record)), string(buffer.getInt(record + 4)));
+            long firstRow = buffer.getLong(record + 8);
+            int fieldSize = buffer.getInt(record + 16);
+            for (int row = 0; row < fieldSize; row++) {
+                int result = (int) (resultsOffset + (firstRow + row) * RESULT_RECORD_SIZE);
+                race.restoreResult(drivers[buffer.getInt(result)], buffer.getInt(result + 4), buffer.getInt(result + 8),
+                        buffer.getInt(result + 12));
+            }
+            manager.addRaceResult(race);
+        }
+    }
+
+    /**
+     * Returns the offset of a driver record.
+     *
+     * @param id the registration id of the driver
+     * @return the offset of the driver's record
+     */
+    private int driverRecord(int id) {
+        if (id < 0 || id >= driverCount) {
+            throw new IndexOutOfBoundsException("Driver id out of range: " + id);
+        }
+        return driversOffset + id * DRIVER_RECORD_SIZE;
+    }
+
+    /**
+     * Returns the offset of a race record.
+     *
+     * @param index the index of the race
+     * @return the offset of the race's record
+     */
+    private int raceRecord(int index) {
+        if (index < 0 || index >= raceCount) {
+            throw new IndexOutOfBoundsException("Race index out of range: " + index);
+        }
+        return racesOffset + index * RACE_RECORD_SIZE;
+    }
+
+    /**
+     * Decodes a string of the string section.
+     *
+     * @param reference the offset of the string within the string section
+     * @return the decoded string
+     */
+    private String string(int reference) {
+        int offset = stringsOffset + reference;
+        int length = buffer.getInt(offset);
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes little-endian values to a channel through a reusable buffer, starting at a given file offset.
+     */
+    private static final class SnapshotWriter {
+        private final FileChannel channel; // the channel written to
+        private final ByteBuffer buffer; // the buffer collecting values until it is full
+        private long position; // the file offset of the start of the buffer
+
+        private SnapshotWriter(FileChannel channel, long position) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            this.position = position;
+        }
+
+        /**
+         * Returns the file offset of the next value written.
+         *
+         * @return the file offset of the next value
+         */
+        private long position() {
+            return position + buffer.position();
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        private void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Writes a string to the string section unless it was already written.
+         *
+         * @param value          the string to write
+         * @param strings        map from each written string to its offset within the string section
+         * @param sectionOffset  the file offset of the string section
+         */
+        private void putString(String value, Map<String, Integer> strings, long sectionOffset) throws IOException {
+            if (strings.containsKey(value)) {
+                return;
+            }
+            strings.put(value, (int) (position() - sectionOffset));
+
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            int written = 0;
+            while (written < bytes.length) {
+                ensure(1);
+                int chunk = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, chunk);
+                written += chunk;
+            }
+        }
+
+        /**
+         * Flushes the buffer if it has less room than needed.
+         *
+         * @param bytes the number of bytes about to be written
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        /**
+         * Writes the buffered values to the channel.
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+    }
+}
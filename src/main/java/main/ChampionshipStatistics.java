@@ -18,6 +18,9 @@ public class ChampionshipStatistics {
      * @return the average points per driver as a double
      */
     public static double calculateAveragePointsPerDriver(List<Driver> drivers) {
+        long start = ChampionshipMetrics.STATISTICS.start();
+        StandingsQueryEvent event = new StandingsQueryEvent();
+        event.begin();
         int totalPoints = 0;
 
         // sum up the points of all drivers
@@ -26,7 +29,10 @@ public class ChampionshipStatistics {
         }
 
         // calculate the average points per driver
-        return (double) totalPoints / drivers.size();
+        double average = (double) totalPoints / drivers.size();
+        ChampionshipMetrics.STATISTICS.recordSince(start);
+        event.commit("calculateAveragePointsPerDriver", drivers.size());
+        return average;
     }
 
     /**
@@ -37,6 +43,9 @@ public class ChampionshipStatistics {
      * @return the name of the most successful country
      */
     public static String findMostSuccessfulCountry(List<Driver> drivers) {
+        long start = ChampionshipMetrics.STATISTICS.start();
+        StandingsQueryEvent event = new StandingsQueryEvent();
+        event.begin();
         // map to store the total points for each country
         Map<String, Integer> countriesPoints = new HashMap<>();
 
@@ -60,6 +69,8 @@ public class ChampionshipStatistics {
             }
         }
 
+        ChampionshipMetrics.STATISTICS.recordSince(start);
+        event.commit("findMostSuccessfulCountry", drivers.size());
         return mostSuccessfulCountry;
     }
 
@@ -69,10 +80,16 @@ public class ChampionshipStatistics {
      * @return the total number of races held
      */
     public static int getTotalRacesHeld() {
+        long start = ChampionshipMetrics.STATISTICS.start();
+        StandingsQueryEvent event = new StandingsQueryEvent();
+        event.begin();
         ChampionshipManager manager = ChampionshipManager.getInstance();
         List<RallyRaceResult> races = manager.getRaces();
 
         // return the number of races in the list
-        return races.size();
+        int racesHeld = races.size();
+        ChampionshipMetrics.STATISTICS.recordSince(start);
+        event.commit("getTotalRacesHeld", racesHeld);
+        return racesHeld;
     }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The ChampionshipStatisticsEngine class computes every championship statistic in a single
+ * pass over the drivers, split across cores with fork/join. Each task accumulates the overall,
+ * per-country and per-car-class statistics of its share of the drivers in primitive columns,
+ * and the results of the tasks are merged.
+ * <p>
+ * The most successful country is chosen exactly as {@link ChampionshipStatistics#findMostSuccessfulCountry}
+ * chooses it, including which of several countries with equal points wins.
+ */
+public class ChampionshipStatisticsEngine {
+    static final int THRESHOLD = 1 << 13; // the number of drivers below which a task is not split
+
+    private final ForkJoinPool pool; // the pool running the tasks
+
+    /**
+     * Constructs a ChampionshipStatisticsEngine running on the common fork/join pool.
+     */
+    public ChampionshipStatisticsEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a ChampionshipStatisticsEngine running on the given pool.
+     *
+     * @param pool the pool to run the tasks on
+     */
+    public ChampionshipStatisticsEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Computes the statistics of a list of drivers.
+     *
+     * @param drivers the drivers of the championship
+     * @return the statistics of the drivers
+     */
+    public ChampionshipSummary compute(List<Driver> drivers) {
+        int size = drivers.size(); // drivers registered while computing are not included
+        Map<String, Integer> countryIds = new ConcurrentHashMap<>();
+        Accumulators result = pool.invoke(new StatisticsTask(drivers, countryIds, 0, size));
+
+        // order the countries by their first driver, the order in which they would enter a map
+        String[] countries = new String[countryIds.size()];
+        for (Map.Entry<String, Integer> entry : countryIds.entrySet()) {
+            countries[entry.getValue()] = entry.getKey();
+        }
+        Integer[] order = new Integer[countries.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(result.countries::first));
+
+        List<String> countriesInOrder = new ArrayList<>(countries.length);
+        Map<String, PointsAggregate> countryAggregates = new HashMap<>();
+        for (int id : order) {
+            countriesInOrder.add(countries[id]);
+            countryAggregates.put(countries[id], result.countries.toAggregate(id));
+        }
+
+        Map<CarClass, PointsAggregate> classAggregates = new HashMap<>();
+        for (CarClass carClass : CarClass.values()) {
+            classAggregates.put(carClass, result.classes.toAggregate(carClass.ordinal()));
+        }
+
+        return new ChampionshipSummary(result.overall.toAggregate(0), countriesInOrder, countryAggregates,
+                classAggregates, findMostSuccessfulCountry(countries, order, result.countries));
+    }
+
+    /**
+     * Finds the most successful country with the same tie-break as ChampionshipStatistics:
+     * the country totals are visited in the iteration order of a HashMap the countries were
+     * inserted into in order of their first driver, and the last country with the most points wins.
+     *
+     * @param countries the countries, by id
+     * @param order     the country ids, in order of their first driver
+     * @param totals    the accumulated country totals
+     * @return the most successful country, or an empty string if there are no drivers
+     */
+    private static String findMostSuccessfulCountry(String[] countries, Integer[] order, PointsAccumulator totals) {
+        Map<String, Integer> insertionOrder = new HashMap<>();
+        for (int id : order) {
+            insertionOrder.put(countries[id], id);
+        }
+
+        String mostSuccessfulCountry = "";
+        long mostPoints = -1; // initialize with a value lower than possible points
+        for (Map.Entry<String, Integer> entry : insertionOrder.entrySet()) {
+            long points = totals.total(entry.getValue());
+            if (points >= mostPoints) {
+                mostPoints = points;
+                mostSuccessfulCountry = entry.getKey();
+            }
+        }
+        return mostSuccessfulCountry;
+    }
+
+    /**
+     * The accumulators of a share of the drivers.
+     */
+    private static final class Accumulators {
+        private final PointsAccumulator overall = new PointsAccumulator(1); // all drivers, in group 0
+        private final PointsAccumulator countries; // one group per country id
+        private final PointsAccumulator classes = new PointsAccumulator(CarClass.values().length); // one group per car class
+
+        private Accumulators(int countryCount) {
+            this.countries = new PointsAccumulator(countryCount);
+        }
+
+        private void merge(Accumulators other) {
+            overall.merge(other.overall);
+            countries.merge(other.countries);
+            classes.merge(other.classes);
+        }
+    }
+
+    /**
+     * A task accumulating the statistics of a range of drivers, splitting it in halves while it is large.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private static final class StatisticsTask extends RecursiveTask<Accumulators> {
+        private final List<Driver> drivers; // the drivers of the championship
+        private final Map<String, Integer> countryIds; // the dense id of each country, shared by all tasks
+        private final int from; // the first driver of the range
+        private final int to; // the end of the range, exclusive
+
+        private StatisticsTask(List<Driver> drivers, Map<String, Integer> countryIds, int from, int to) {
+            this.drivers = drivers;
+            this.countryIds = countryIds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulators compute() {
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                StatisticsTask right = new StatisticsTask(drivers, countryIds, middle, to);
+                right.fork();
+                Accumulators result = new StatisticsTask(drivers, countryIds, from, middle).compute();
+                result.merge(right.join());
+                return result;
+            }
+
+            Accumulators result = new Accumulators(countryIds.size());
+            for (int i = from; i < to; i++) {
+                Driver driver = drivers.get(i);
+                int points = driver.getPoints();
+                Integer countryId = countryIds.get(driver.getCountry());
+                if (countryId == null) {
+                    synchronized (countryIds) {
+                        countryId = countryIds.computeIfAbsent(driver.getCountry(), country -> countryIds.size());
+                    }
+                }
+
+                result.overall.add(0, points, i);
+                result.countries.add(countryId, points, i);
+                result.classes.add(CarClass.of(driver.getCar()).ordinal(), points, i);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package main;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ChampionshipSummary class holds the statistics computed by the ChampionshipStatisticsEngine:
+ * the points statistics of all drivers, of the drivers of each country and of the drivers of
+ * each car class, and the most successful country.
+ */
+public class ChampionshipSummary {
+    private final PointsAggregate overall; // the statistics of all drivers
+    private final List<String> countries; // the countries, in order of their first driver
+    private final Map<String, PointsAggregate> countryAggregates; // the statistics of each country
+    private final Map<CarClass, PointsAggregate> classAggregates; // the statistics of each car class
+    private final String mostSuccessfulCountry; // the country with the most points
+
+    /**
+     * Constructs a ChampionshipSummary with the specified statistics.
+     *
+     * @param overall               the statistics of all drivers
+     * @param countries             the countries, in order of their first driver
+     * @param countryAggregates     the statistics of each country
+     * @param classAggregates       the statistics of each car class
+     * @param mostSuccessfulCountry the country with the most points
+     */
+    ChampionshipSummary(PointsAggregate overall, List<String> countries, Map<String, PointsAggregate> countryAggregates,
+                        Map<CarClass, PointsAggregate> classAggregates, String mostSuccessfulCountry) {
+        this.overall = overall;
+        this.countries = Collections.unmodifiableList(countries);
+        this.countryAggregates = countryAggregates;
+        this.classAggregates = classAggregates;
+        this.mostSuccessfulCountry = mostSuccessfulCountry;
+    }
+
+    /**
+     * Returns the statistics of all drivers.
+     *
+     * @return the overall statistics
+     */
+    public PointsAggregate getOverall() {
+        return overall;
+    }
+
+    /**
+     * Returns the total points of all drivers.
+     *
+     * @return the total championship points
+     */
+    public long getTotalPoints() {
+        return overall.getTotal();
+    }
+
+    /**
+     * Returns the average points per driver, computed as ChampionshipStatistics computes it.
+     *
+     * @return the average points per driver, or NaN if there are no drivers
+     */
+    public double getAveragePointsPerDriver() {
+        return overall.getAverage();
+    }
+
+    /**
+     * Returns the country with the most points, chosen as ChampionshipStatistics chooses it.
+     *
+     * @return the most successful country, or an empty string if there are no drivers
+     */
+    public String getMostSuccessfulCountry() {
+        return mostSuccessfulCountry;
+    }
+
+    /**
+     * Returns the countries of the drivers, in order of their first driver.
+     *
+     * @return the countries
+     */
+    public List<String> getCountries() {
+        return countries;
+    }
+
+    /**
+     * Returns the statistics of the drivers of a country.
+     *
+     * @param country the country
+     * @return the statistics of the country, with a count of 0 if it has no drivers
+     */
+    public PointsAggregate getCountry(String country) {
+        return countryAggregates.getOrDefault(country, PointsAggregate.EMPTY);
+    }
+
+    /**
+     * Returns the statistics of the drivers of a car class.
+     *
+     * @param carClass the car class
+     * @return the statistics of the car class, with a count of 0 if it has no drivers
+     */
+    public PointsAggregate getCarClass(CarClass carClass) {
+        return classAggregates.get(carClass);
+    }
+}
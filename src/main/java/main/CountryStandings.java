@@ -0,0 +1,289 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The CountryStandings class keeps the total points of each country of a championship up to date
+ * as drivers earn points, together with the countries ordered by their totals.
+ * <p>
+ * Point changes are added to the country total atomically without locking, and the changed
+ * country is queued. Queries reposition the queued countries in the ordering, which usually only
+ * moves a country by a place or two, so the leading country and the top nations are read in
+ * constant time.
+ * <p>
+ * Countries with equal totals are ordered so that the leading country is the one
+ * {@link ChampionshipStatistics#findMostSuccessfulCountry} picks for the registered drivers:
+ * that method keeps the last country with the most points in the iteration order of a HashMap
+ * filled in driver order, so ties are broken by that iteration order, last first.
+ */
+class CountryStandings {
+    private final Map<String, Country> byName; // the countries, by name
+    private final Queue<Country> pending; // countries whose totals changed since the last query
+    private volatile Country[] byId; // the countries, by id, in order of their first registered driver
+    private Country[] order; // the countries, ordered by total points, guarded by this
+    private int size; // the number of countries, guarded by this
+
+    /**
+     * Constructs an empty CountryStandings.
+     */
+    CountryStandings() {
+        this.byName = new ConcurrentHashMap<>();
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.byId = new Country[16];
+        this.order = new Country[16];
+    }
+
+    /**
+     * Adds a newly registered driver to the total of their country, adding the country if it is new.
+     *
+     * @param driver the driver being registered
+     * @return the id of the driver's country
+     */
+    synchronized int register(Driver driver) {
+        Country country = byName.get(driver.getCountry());
+        if (country == null) {
+            country = new Country(driver.getCountry(), size);
+            Country[] array = byId;
+            if (size == array.length) {
+                array = Arrays.copyOf(array, size * 2);
+                order = Arrays.copyOf(order, size * 2);
+            }
+            array[size] = country;
+            byId = array; // publishes the country to threads reporting point changes
+            order[size] = country;
+            size++;
+            byName.put(country.name, country);
+
+            // a new country can change the map iteration order of every country
+            rankCountries();
+        }
+
+        country.total.addAndGet(driver.getPoints());
+        markChanged(country);
+        return country.id;
+    }
+
+    /**
+     * Adds points to a country total. This method does not block.
+     *
+     * @param countryId the id of the country
+     * @param points    the points to add
+     */
+    void addPoints(int countryId, int points) {
+        Country country = byId[countryId];
+        country.total.addAndGet(points);
+        markChanged(country);
+    }
+
+    /**
+     * Returns the total points of a country. This method does not block.
+     *
+     * @param name the name of the country
+     * @return the total points of the country, or 0 if no registered driver is from it
+     */
+    long getPoints(String name) {
+        Country country = byName.get(name);
+        return country == null ? 0 : country.total.get();
+    }
+
+    /**
+     * Returns the total points of every country. This method does not block.
+     *
+     * @return the sum of the country totals
+     */
+    long totalPoints() {
+        Country[] array = byId;
+        long total = 0;
+        for (Country country : array) {
+            if (country != null) {
+                total += country.total.get();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the id of a country. This method does not block.
+     *
+     * @param name the name of the country
+     * @return the id of the country, or -1 if no registered driver is from it
+     */
+    int idOf(String name) {
+        Country country = byName.get(name);
+        return country == null ? -1 : country.id;
+    }
+
+    /**
+     * Returns the country with the most points.
+     *
+     * @return the leading country, or an empty string if there is none
+     */
+    synchronized String getLeader() {
+        applyPending();
+        if (size == 0 || order[0].sortedTotal < -1) {
+            return ""; // as in the batch computation, which starts below any possible total
+        }
+        return order[0].name;
+    }
+
+    /**
+     * Returns the country with the most points for a given set of totals, breaking ties the same
+     * way as the ordering. This is used to find the leader of a snapshot of the standings.
+     *
+     * @param totals the total points of each country, by country id
+     * @return the leading country, or an empty string if there is none
+     */
+    synchronized String leaderOf(long[] totals) {
+        Country leader = null;
+        for (int id = 0; id < totals.length; id++) {
+            Country country = byId[id];
+            if (leader == null || totals[id] > totals[leader.id]
+                    || totals[id] == totals[leader.id] && country.rank > leader.rank) {
+                leader = country;
+            }
+        }
+        if (leader == null || totals[leader.id] < -1) {
+            return "";
+        }
+        return leader.name;
+    }
+
+    /**
+     * Returns the number of countries.
+     *
+     * @return the number of countries
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the countries with the most points, in order.
+     *
+     * @param limit the maximum number of countries to return
+     * @return the leading countries
+     */
+    synchronized List<String> top(int limit) {
+        applyPending();
+        int count = Math.min(limit, size);
+        List<String> countries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            countries.add(order[i].name);
+        }
+        return countries;
+    }
+
+    /**
+     * Queues a country whose total has changed, unless it is already queued.
+     *
+     * @param country the country
+     */
+    private void markChanged(Country country) {
+        if (country.queued.compareAndSet(false, true)) {
+            pending.add(country);
+        }
+    }
+
+    /**
+     * Moves every country whose total changed since the last query to its place in the ordering.
+     * Must be called while holding the lock.
+     */
+    private void applyPending() {
+        Country country;
+        while ((country = pending.poll()) != null) {
+            // clear the flag before reading the total, so a concurrent change queues the country again
+            country.queued.set(false);
+            long total = country.total.get();
+            if (total == country.sortedTotal) {
+                continue;
+            }
+            country.sortedTotal = total;
+
+            // bubble the country up or down to its place
+            int position = country.position;
+            while (position > 0 && compare(country, order[position - 1]) < 0) {
+                move(order[position - 1], position);
+                position--;
+            }
+            while (position < size - 1 && compare(country, order[position + 1]) > 0) {
+                move(order[position + 1], position);
+                position++;
+            }
+            move(country, position);
+        }
+    }
+
+    /**
+     * Recomputes the tie-break rank of every country and re-sorts the ordering.
+     * Must be called while holding the lock.
+     */
+    private void rankCountries() {
+        Map<String, Country> iterationOrder = new HashMap<>();
+        for (int id = 0; id < size; id++) {
+            iterationOrder.put(byId[id].name, byId[id]);
+        }
+        int rank = 0;
+        for (Country country : iterationOrder.values()) {
+            country.rank = rank++;
+        }
+
+        Arrays.sort(order, 0, size, CountryStandings::compare);
+        for (int position = 0; position < size; position++) {
+            order[position].position = position;
+        }
+    }
+
+    /**
+     * Places a country at a position of the ordering.
+     *
+     * @param country  the country
+     * @param position the position
+     */
+    private void move(Country country, int position) {
+        order[position] = country;
+        country.position = position;
+    }
+
+    /**
+     * Compares two countries by the ordering: more points first, then later map iteration order first.
+     *
+     * @param a the first country
+     * @param b the second country
+     * @return a negative value if a ranks ahead of b, a positive value if it ranks behind
+     */
+    private static int compare(Country a, Country b) {
+        if (a.sortedTotal != b.sortedTotal) {
+            return Long.compare(b.sortedTotal, a.sortedTotal);
+        }
+        return Integer.compare(b.rank, a.rank);
+    }
+
+    /**
+     * A country and its points.
+     */
+    private static final class Country {
+        private final String name; // the name of the country
+        private final int id; // the id of the country, in order of its first registered driver
+        private final AtomicLong total; // the total points of the country's drivers
+        private final AtomicBoolean queued; // whether the country is waiting in the pending queue
+        private long sortedTotal; // the total the country is ordered by, guarded by the standings lock
+        private int rank; // the position of the country in map iteration order, guarded by the standings lock
+        private int position; // the position of the country in the ordering, guarded by the standings lock
+
+        private Country(String name, int id) {
+            this.name = name;
+            this.id = id;
+            this.total = new AtomicLong();
+            this.queued = new AtomicBoolean();
+        }
+    }
+}
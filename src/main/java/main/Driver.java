@@ -1,14 +1,31 @@
 package main;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 /**
  * The Driver class represents a rally driver in the championship.
  * It stores the driver's name, country, points, and the car they are driving.
+ * Points can be added from several threads at once without losing updates.
  */
 public class Driver {
+    private static final VarHandle POINTS; // atomic access to the points field
+
+    static {
+        try {
+            POINTS = MethodHandles.lookup().findVarHandle(Driver.class, "points", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private String name; // the name of the driver
     private String country; // the country the driver represents
-    private int points; // the total points earned by the driver
+    private volatile int points; // the total points earned by the driver
     private RallyCar car; // the car the driver is driving
+    private int id; // the registration id of the driver within their championship, or -1 if unregistered
+    private int countryId; // the id of the driver's country within their championship, or -1 if unregistered
+    private volatile ChampionshipManager championship; // the championship the driver is registered with, if any
 
     /**
      * Constructs a Driver object with the specified name, country, and car.
@@ -22,6 +39,8 @@ public class Driver {
         this.country = country;
         this.car = car;
         this.points = 0; // initialize points to 0
+        this.id = -1; // the driver is not registered yet
+        this.countryId = -1;
     }
 
     /**
@@ -67,15 +86,67 @@ public class Driver {
      */
     public void setCar(RallyCar car) {
         this.car = car;
+
+        ChampionshipManager championship = this.championship;
+        if (championship != null) {
+            championship.carChanged();
+        }
+    }
+
+    /**
+     * Returns the registration id of the driver, which is the order in which the driver
+     * was registered with their championship, starting from 0.
+     *
+     * @return the driver's registration id, or -1 if the driver is not registered
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the championship the driver is registered with.
+     *
+     * @return the driver's championship, or null if the driver is not registered
+     */
+    public ChampionshipManager getChampionship() {
+        return championship;
+    }
+
+    /**
+     * Returns the id of the driver's country within their championship.
+     *
+     * @return the driver's country id, or -1 if the driver is not registered
+     */
+    int getCountryId() {
+        return countryId;
     }
 
     /**
-     * Adds points to the driver's total points.
+     * Assigns the driver to a championship under the given registration id.
+     *
+     * @param championship the championship the driver is registered with
+     * @param id           the registration id of the driver
+     * @param countryId    the id of the driver's country within the championship
+     */
+    void register(ChampionshipManager championship, int id, int countryId) {
+        this.id = id;
+        this.countryId = countryId;
+        this.championship = championship; // publishes the id together with the championship
+    }
+
+    /**
+     * Adds points to the driver's total points. This method is thread-safe.
+     * The driver's championship is notified so that its standings stay up to date.
      *
      * @param points the points to add to the driver's total
      */
     public void addPoints(int points) {
-        this.points += points; // add the points to the driver's total
+        POINTS.getAndAdd(this, points); // atomically add the points to the driver's total
+
+        ChampionshipManager championship = this.championship;
+        if (championship != null) {
+            championship.pointsChanged(this, points);
+        }
     }
 
     /**
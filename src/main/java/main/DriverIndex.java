@@ -0,0 +1,132 @@
+package main;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The DriverIndex class finds the registered drivers of a championship by name and country,
+ * and lists the drivers of each country.
+ * <p>
+ * The drivers themselves are the entries of an open-addressing hash table, hashed by the cached
+ * hash codes of their name and country, so neither registering nor looking up a driver builds a
+ * key object. Lookups do not block: a table is only modified by inserting into an empty slot,
+ * and a full table is replaced by a larger copy.
+ */
+class DriverIndex {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Driver[].class); // ordered access to table slots
+
+    private volatile Driver[] table; // the drivers, by hash of name and country, with a power of two length
+    private int size; // the number of drivers in the table, guarded by this
+    private int[][] countryDrivers; // the registration ids of the drivers of each country, by country id, guarded by this
+    private int[] countryCounts; // the number of drivers of each country, by country id, guarded by this
+
+    /**
+     * Constructs an empty DriverIndex.
+     */
+    DriverIndex() {
+        this.table = new Driver[16];
+        this.countryDrivers = new int[8][];
+        this.countryCounts = new int[8];
+    }
+
+    /**
+     * Finds the driver with a name and country. This method does not block.
+     *
+     * @param name    the name of the driver
+     * @param country the country of the driver
+     * @return the driver, or null if no driver with that name and country is indexed
+     */
+    Driver find(String name, String country) {
+        Driver[] slots = table;
+        int mask = slots.length - 1;
+        for (int slot = hash(name, country) & mask; ; slot = (slot + 1) & mask) {
+            Driver driver = (Driver) SLOTS.getAcquire(slots, slot);
+            if (driver == null) {
+                return null;
+            }
+            if (Objects.equals(driver.getName(), name) && Objects.equals(driver.getCountry(), country)) {
+                return driver;
+            }
+        }
+    }
+
+    /**
+     * Adds a registered driver to the index. The caller must check that no driver with the
+     * same name and country is indexed.
+     *
+     * @param driver    the driver
+     * @param countryId the id of the driver's country
+     */
+    synchronized void add(Driver driver, int countryId) {
+        Driver[] slots = table;
+        if ((size + 1) * 2 > slots.length) {
+            slots = new Driver[slots.length * 2];
+            for (Driver indexed : table) {
+                if (indexed != null) {
+                    insert(slots, indexed);
+                }
+            }
+            table = slots; // publishes the larger table to lookups
+        }
+        insert(slots, driver);
+        size++;
+
+        if (countryId >= countryDrivers.length) {
+            countryDrivers = Arrays.copyOf(countryDrivers, Math.max(countryId + 1, countryDrivers.length * 2));
+            countryCounts = Arrays.copyOf(countryCounts, countryDrivers.length);
+        }
+        int[] ids = countryDrivers[countryId];
+        int count = countryCounts[countryId];
+        if (ids == null) {
+            ids = new int[4];
+        } else if (count == ids.length) {
+            ids = Arrays.copyOf(ids, count * 2);
+        }
+        ids[count] = driver.getId();
+        countryDrivers[countryId] = ids;
+        countryCounts[countryId] = count + 1;
+    }
+
+    /**
+     * Returns the registration ids of the drivers of a country.
+     *
+     * @param countryId the id of the country
+     * @return the registration ids, in registration order
+     */
+    synchronized int[] countryDriverIds(int countryId) {
+        if (countryId >= countryDrivers.length || countryDrivers[countryId] == null) {
+            return new int[0];
+        }
+        return Arrays.copyOf(countryDrivers[countryId], countryCounts[countryId]);
+    }
+
+    /**
+     * Inserts a driver into the first free slot of its probe sequence.
+     *
+     * @param slots  the table
+     * @param driver the driver
+     */
+    private static void insert(Driver[] slots, Driver driver) {
+        int mask = slots.length - 1;
+        int slot = hash(driver.getName(), driver.getCountry()) & mask;
+        while (slots[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        SLOTS.setRelease(slots, slot, driver);
+    }
+
+    /**
+     * Returns the hash of a name and country, with the high bits spread into the low ones.
+     *
+     * @param name    the name
+     * @param country the country
+     * @return the hash
+     */
+    private static int hash(String name, String country) {
+        int hash = Objects.hashCode(name) * 31 + Objects.hashCode(country);
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,60 @@
+package main;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The FleetVectorRater class rates the cars of a {@link CarFleet} several at a time with the
+ * {@code jdk.incubator.vector} API. It is only loaded when that module is present.
+ * <p>
+ * Each lane repeats {@link RallyCar#roundToOneDecimal(double)} on the absolute rating, with the
+ * floor computed by adding and subtracting 2^52, which is exact for the magnitudes a horsepower
+ * can produce, and the sign restored afterwards.
+ */
+final class FleetVectorRater {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED; // the widest double vectors
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2)); // int vectors with as many lanes as DOUBLES
+    private static final double TWO_POW_52 = 0x1p52; // adding this to a smaller non-negative double rounds it to an integer
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FleetVectorRater() {
+    }
+
+    /**
+     * Rates the asphalt and gravel cars of the leading whole vectors of the fleet. The ratings
+     * of cars of other classes are left to be replaced by the caller.
+     *
+     * @param horsepower the horsepower of each car
+     * @param carClasses the ordinal of the class of each car
+     * @param size       the number of cars
+     * @param ratings    the array receiving the rating of each car
+     * @return the number of leading cars rated; the caller rates the rest
+     */
+    static int rate(int[] horsepower, int[] carClasses, int size, double[] ratings) {
+        int bound = DOUBLES.loopBound(size);
+        for (int i = 0; i < bound; i += DOUBLES.length()) {
+            VectorMask<Double> asphalt = IntVector.fromArray(INTS, carClasses, i)
+                    .eq(CarClass.ASPHALT.ordinal()).cast(DOUBLES);
+            DoubleVector power = (DoubleVector) IntVector.fromArray(INTS, horsepower, i).castShape(DOUBLES, 0);
+            DoubleVector performance = power.mul(DoubleVector.broadcast(DOUBLES, GravelCar.PERFORMANCE_FACTOR)
+                    .blend(AsphaltCar.PERFORMANCE_FACTOR, asphalt));
+
+            DoubleVector value = performance.abs(); // rounding is symmetric around zero
+            DoubleVector scaled = value.mul(10.0);
+            DoubleVector nearest = scaled.add(TWO_POW_52).sub(TWO_POW_52);
+            DoubleVector tenths = nearest.sub(1.0, nearest.compare(VectorOperators.GT, scaled)); // floor
+            DoubleVector midpoint = tenths.mul(2.0).add(1.0).div(20.0);
+            tenths = tenths.add(1.0, value.compare(VectorOperators.GE, midpoint));
+            DoubleVector rounded = tenths.div(10.0);
+            rounded.blend(rounded.neg(), performance.compare(VectorOperators.LT, 0.0)).intoArray(ratings, i);
+        }
+        return bound;
+    }
+}
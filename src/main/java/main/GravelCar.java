@@ -6,6 +6,7 @@ package main;
  * It also provides a specific implementation for calculating performance on gravel.
  */
 public class GravelCar extends RallyCar {
+    static final double PERFORMANCE_FACTOR = 0.87; // the factor applied to the horsepower on gravel
     private double suspensionTravel; // the suspension travel of the car, which affects its performance on gravel
 
     /**
@@ -33,16 +34,16 @@ public class GravelCar extends RallyCar {
     /**
      * Calculates the performance of the car on gravel surfaces.
      * Gravel cars have a 15% performance reduction based on their horsepower.
-     * The result is formatted to 1 decimal place.
+     * The result is rounded to 1 decimal place.
      *
-     * @return the performance rating of the car as a double, formatted to 1 decimal place
+     * @return the performance rating of the car as a double, rounded to 1 decimal place
      */
     @Override
     public double calculatePerformance() {
         // gravel cars have a 13% performance reduction
-        double performance = getHorsepower() * 0.87;
+        double performance = getHorsepower() * PERFORMANCE_FACTOR;
 
-        // format the performance to 1 decimal place
-        return Double.parseDouble(String.format("%.1f", performance));
+        // round the performance to 1 decimal place
+        return roundToOneDecimal(performance);
     }
 }
\ No newline at end of file
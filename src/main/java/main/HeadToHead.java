@@ -0,0 +1,469 @@
+package main;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The HeadToHead class counts, for every pair of drivers of a championship, the races in which
+ * each finished ahead of the other, so that "driver A finished ahead of driver B in X of Y races"
+ * is answered in constant time for any pair.
+ * <p>
+ * The pairs are stored as a packed lower triangle of one int per pair, indexed by registration
+ * id: the row of a driver holds their records against every driver registered before them, and
+ * the two halves of an int count the races each of the two finished ahead. Races in which two
+ * drivers share a position are counted in a second triangle of chars, allocated only once such a
+ * race is added. A championship of 10,000 drivers takes 200 MB, a quarter of a square matrix of
+ * the two counts, and rows for newly registered drivers are appended to the triangle.
+ * <p>
+ * Each race is reduced to a compact array of dense ranks. A batch of races is counted tile by
+ * tile: the triangle is divided into square tiles of {@link #BLOCK} drivers, and each tile is
+ * updated for every race before moving to the next, so the tile stays in the cache while the
+ * ranks of its drivers stream past. Rows of tiles are counted in parallel on a fork/join pool.
+ * A single race only updates the pairs of its own field, so adding a race costs the square of
+ * its field size rather than of the number of drivers. When the vector API is used, as it is
+ * for a {@link CarFleet}, each row is counted several pairs at a time.
+ * <p>
+ * Races are counted with the results recorded when they are added; results recorded in a race
+ * afterwards are not counted. At most 65,535 races can be added.
+ */
+public class HeadToHead {
+    static final int BLOCK = 256; // the number of drivers on each side of a tile
+    static final long THRESHOLD = 1L << 22; // the number of pair updates below which a task is not split
+    static final int MAX_RACES = 0xFFFF; // the number of races a half of a cell can count
+    static final int MAX_DRIVERS = 1 << 16; // the number of drivers whose triangle fits in an array
+    private static final int AHEAD = 1; // counts a race the driver of the row finished ahead
+    private static final int BEHIND = 1 << 16; // counts a race the driver of the column finished ahead
+    private static final boolean VECTORIZED = CarFleet.isVectorized(); // whether the vector API is used, as for car fleets
+
+    private final ChampionshipManager championship; // the championship whose drivers are compared
+    private final ForkJoinPool pool; // the pool counting the races
+    private int[] cells; // the races each driver of a pair finished ahead: cells[start(row) + column]
+    private char[] ties; // the races the drivers of a pair shared a position, like cells, or null if none did
+    private int rows; // the number of drivers the triangle has rows for
+    private int raceCount; // the number of races counted
+
+    /**
+     * Constructs a HeadToHead counting every race added to a championship so far, running on
+     * the common fork/join pool.
+     *
+     * @param championship the championship
+     * @throws IllegalStateException if the championship has more than 65,535 races or 65,536 drivers
+     */
+    public HeadToHead(ChampionshipManager championship) {
+        this(championship, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a HeadToHead counting every race added to a championship so far.
+     *
+     * @param championship the championship
+     * @param pool         the pool to count races on
+     * @throws IllegalStateException if the championship has more than 65,535 races or 65,536 drivers
+     */
+    public HeadToHead(ChampionshipManager championship, ForkJoinPool pool) {
+        this.championship = championship;
+        this.pool = pool;
+        this.cells = new int[0];
+        countRaces(championship.getRaces());
+    }
+
+    /**
+     * Returns the championship whose drivers are compared.
+     *
+     * @return the championship
+     */
+    public ChampionshipManager getChampionship() {
+        return championship;
+    }
+
+    /**
+     * Returns the number of races counted.
+     *
+     * @return the number of races
+     */
+    public synchronized int getRaceCount() {
+        return raceCount;
+    }
+
+    /**
+     * Counts a race, updating only the pairs of drivers who both have a result in it.
+     *
+     * @param race the race
+     * @throws IllegalArgumentException if the race has results of drivers from another championship
+     * @throws IllegalStateException    if 65,535 races have already been counted
+     */
+    public synchronized void addRace(RallyRaceResult race) {
+        Field field = readField(race);
+        checkRaceCount(1);
+
+        // order the field by registration id, so each driver's updates run along their row
+        int size = field.ids.length;
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (long) field.ids[i] << 32 | field.ranks[i];
+        }
+        Arrays.sort(keys);
+        int[] ids = new int[size];
+        int[] ranks = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = (int) (keys[i] >>> 32);
+            ranks[i] = (int) keys[i];
+        }
+
+        ensureCapacity(size == 0 ? 0 : ids[size - 1] + 1, field.tied);
+        pool.invoke(new FieldTask(ids, ranks, field.tied, 0, size));
+        raceCount++;
+    }
+
+    /**
+     * Counts a batch of races, updating the whole triangle tile by tile in parallel. The races
+     * are checked before any is counted, so a failed batch counts none of them.
+     *
+     * @param races the races
+     * @throws IllegalArgumentException if a race has results of drivers from another championship
+     * @throws IllegalStateException    if more than 65,535 races would be counted
+     */
+    public synchronized void addRaces(List<RallyRaceResult> races) {
+        countRaces(races);
+    }
+
+    /**
+     * Counts a batch of races for {@link #addRaces}, which constructors call directly since it
+     * can be overridden. The caller must hold the lock of this HeadToHead, or be its constructor.
+     *
+     * @param races the races
+     * @throws IllegalArgumentException if a race has results of drivers from another championship
+     * @throws IllegalStateException    if more than 65,535 races would be counted
+     */
+    private void countRaces(List<RallyRaceResult> races) {
+        Field[] fields = new Field[races.size()];
+        int driverCount = 0;
+        boolean tied = false;
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = readField(races.get(i));
+            for (int id : fields[i].ids) {
+                driverCount = Math.max(driverCount, id + 1);
+            }
+            tied |= fields[i].tied;
+        }
+        checkRaceCount(fields.length);
+        if (fields.length == 0) {
+            return;
+        }
+
+        // spread each field over the registration ids, leaving 0 for the drivers without a result
+        int[][] ranks = new int[fields.length][driverCount];
+        boolean[] raceTied = new boolean[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            for (int row = 0; row < fields[i].ids.length; row++) {
+                ranks[i][fields[i].ids[row]] = fields[i].ranks[row];
+            }
+            raceTied[i] = fields[i].tied;
+        }
+
+        ensureCapacity(driverCount, tied);
+        pool.invoke(new TileTask(ranks, raceTied, 0, driverCount));
+        raceCount += fields.length;
+    }
+
+    /**
+     * Returns the number of counted races in which a driver finished ahead of a rival.
+     *
+     * @param driver the driver
+     * @param rival  the rival
+     * @return the number of races the driver finished ahead
+     * @throws IllegalArgumentException if a driver is not registered in the championship, or
+     *                                  the driver and the rival are the same
+     */
+    public synchronized int getWins(Driver driver, Driver rival) {
+        checkPair(driver, rival);
+        int id = driver.getId();
+        int rivalId = rival.getId();
+        if (id >= rows || rivalId >= rows) {
+            return 0;
+        }
+        return id > rivalId ? cells[start(id) + rivalId] & 0xFFFF : cells[start(rivalId) + id] >>> 16;
+    }
+
+    /**
+     * Returns the number of counted races in which both of two drivers have a result.
+     *
+     * @param driver the driver
+     * @param rival  the rival
+     * @return the number of races both drivers finished
+     * @throws IllegalArgumentException if a driver is not registered in the championship, or
+     *                                  the driver and the rival are the same
+     */
+    public synchronized int getMeetings(Driver driver, Driver rival) {
+        checkPair(driver, rival);
+        int row = Math.max(driver.getId(), rival.getId());
+        if (row >= rows) {
+            return 0;
+        }
+        int cell = start(row) + Math.min(driver.getId(), rival.getId());
+        return (cells[cell] & 0xFFFF) + (cells[cell] >>> 16) + (ties != null ? ties[cell] : 0);
+    }
+
+    /**
+     * Returns the index of the first cell of a row of the triangle.
+     *
+     * @param row the registration id of the driver of the row
+     * @return the index of the cell of the row against the first registered driver
+     */
+    private static int start(int row) {
+        return (int) ((long) row * (row - 1) >>> 1);
+    }
+
+    /**
+     * Reads the dense ranks of the field of a race: finishers with the same position share a
+     * rank, and the next position takes the next rank.
+     *
+     * @param race the race
+     * @return the field in position order
+     * @throws IllegalArgumentException if the race has results of drivers from another championship
+     */
+    private Field readField(RallyRaceResult race) {
+        synchronized (race) {
+            int size = race.getFieldSize();
+            int[] ids = new int[size];
+            int[] ranks = new int[size];
+            boolean tied = false;
+            int rank = 0;
+            for (int row = 0; row < size; row++) {
+                Driver driver = race.driverAt(row);
+                if (driver.getChampionship() != championship) {
+                    throw new IllegalArgumentException("Race has results from a different championship: " + race.getRaceName());
+                }
+                ids[row] = driver.getId();
+                if (row > 0 && race.positionAt(row) == race.positionAt(row - 1)) {
+                    tied = true;
+                } else {
+                    rank++;
+                }
+                ranks[row] = rank;
+            }
+            return new Field(ids, ranks, tied);
+        }
+    }
+
+    /**
+     * Checks that a number of races can still be counted.
+     *
+     * @param added the number of races to count
+     * @throws IllegalStateException if more than 65,535 races would be counted
+     */
+    private void checkRaceCount(int added) {
+        if (raceCount + added > MAX_RACES) {
+            throw new IllegalStateException("A head-to-head matrix counts at most " + MAX_RACES + " races");
+        }
+    }
+
+    /**
+     * Makes room for the rows of a number of drivers, growing the triangle by at least a quarter,
+     * and allocates the ties when needed.
+     *
+     * @param driverCount the number of drivers
+     * @param tied        whether ties are counted
+     * @throws IllegalStateException if there are more than 65,536 drivers
+     */
+    private void ensureCapacity(int driverCount, boolean tied) {
+        if (driverCount > MAX_DRIVERS) {
+            throw new IllegalStateException("A head-to-head matrix compares at most " + MAX_DRIVERS + " drivers");
+        }
+        if (driverCount > rows) {
+            rows = rows == 0 ? driverCount : Math.min(MAX_DRIVERS, Math.max(driverCount, rows + rows / 4));
+            cells = Arrays.copyOf(cells, start(rows));
+            if (ties != null) {
+                ties = Arrays.copyOf(ties, cells.length);
+            }
+        }
+        if (tied && ties == null) {
+            ties = new char[cells.length];
+        }
+    }
+
+    /**
+     * Counts every race for the pairs of a tile of the triangle.
+     *
+     * @param ranks      the rank of every driver in each race, by registration id, or 0 if none
+     * @param raceTied   whether each race has drivers sharing a position
+     * @param rowFrom    the first row of the tile
+     * @param rowTo      the end of the rows of the tile, exclusive
+     * @param columnFrom the first column of the tile
+     * @param columnTo   the end of the columns of the tile, exclusive
+     */
+    private void countTile(int[][] ranks, boolean[] raceTied, int rowFrom, int rowTo, int columnFrom, int columnTo) {
+        for (int race = 0; race < ranks.length; race++) {
+            int[] rank = ranks[race];
+            for (int row = rowFrom; row < rowTo; row++) {
+                int own = rank[row];
+                if (own == 0) {
+                    continue;
+                }
+                int start = start(row);
+                int end = Math.min(columnTo, row);
+                int column = columnFrom;
+                if (VECTORIZED) {
+                    column = HeadToHeadVectorCounter.countRow(cells, start, rank, own, columnFrom, end, AHEAD, BEHIND);
+                }
+                for (; column < end; column++) {
+                    int other = rank[column];
+                    // a column driver without a result has rank 0, which is behind nobody
+                    cells[start + column] += (other > own ? AHEAD : 0) + (other != 0 && other < own ? BEHIND : 0);
+                }
+                if (raceTied[race]) {
+                    for (column = columnFrom; column < end; column++) {
+                        if (rank[column] == own) {
+                            ties[start + column]++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a race for the pairs of a range of its field against the drivers before them.
+     *
+     * @param ids   the registration ids of the field, in increasing order
+     * @param ranks the ranks of the field, in the order of the ids
+     * @param tied  whether drivers share a position
+     * @param from  the first index of the range
+     * @param to    the end of the range, exclusive
+     */
+    private void countField(int[] ids, int[] ranks, boolean tied, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int own = ranks[i];
+            int start = start(ids[i]);
+            int j = 0;
+            if (VECTORIZED) {
+                j = HeadToHeadVectorCounter.countField(cells, start, ids, ranks, own, i, AHEAD, BEHIND);
+            }
+            for (; j < i; j++) {
+                int other = ranks[j];
+                cells[start + ids[j]] += (other > own ? AHEAD : 0) + (other < own ? BEHIND : 0);
+            }
+            if (tied) {
+                for (j = 0; j < i; j++) {
+                    if (ranks[j] == own) {
+                        ties[start + ids[j]]++;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the point splitting a range of rows into two halves with the same number of pairs.
+     *
+     * @param from the first row
+     * @param to   the end of the rows, exclusive
+     * @return the middle row
+     */
+    private static int balancedMiddle(int from, int to) {
+        return (int) Math.sqrt(((double) from * from + (double) to * to) / 2);
+    }
+
+    /**
+     * Checks that two drivers are different drivers of the championship.
+     *
+     * @param driver the driver
+     * @param rival  the rival
+     * @throws IllegalArgumentException if a driver is not registered in the championship, or
+     *                                  the driver and the rival are the same
+     */
+    private void checkPair(Driver driver, Driver rival) {
+        for (Driver checked : new Driver[] {driver, rival}) {
+            if (checked.getChampionship() != championship) {
+                throw new IllegalArgumentException("Driver is not registered in this championship: " + checked.getName());
+            }
+        }
+        if (driver == rival) {
+            throw new IllegalArgumentException("A driver has no head-to-head record against themselves: " + driver.getName());
+        }
+    }
+
+    /**
+     * The field of a race, as the registration ids and dense ranks of its drivers.
+     */
+    private static final class Field {
+        private final int[] ids; // the registration ids of the drivers
+        private final int[] ranks; // the dense ranks of the drivers, from 1
+        private final boolean tied; // whether drivers share a position
+
+        private Field(int[] ids, int[] ranks, boolean tied) {
+            this.ids = ids;
+            this.ranks = ranks;
+            this.tied = tied;
+        }
+    }
+
+    /**
+     * A task that counts a batch of races for a range of rows of the triangle, tile by tile,
+     * split into rows of tiles with about the same number of pairs.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private final class TileTask extends RecursiveAction {
+        private final int[][] ranks; // the rank of every driver in each race, by registration id
+        private final boolean[] raceTied; // whether each race has drivers sharing a position
+        private final int from; // the first row of the range, a multiple of the block
+        private final int to; // the end of the range, exclusive
+
+        private TileTask(int[][] ranks, boolean[] raceTied, int from, int to) {
+            this.ranks = ranks;
+            this.raceTied = raceTied;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            long pairs = ((long) to * to - (long) from * from) / 2;
+            if (to - from > BLOCK && pairs * ranks.length > THRESHOLD) {
+                int middle = balancedMiddle(from, to) / BLOCK * BLOCK;
+                middle = Math.min(Math.max(middle, from + BLOCK), to - 1);
+                invokeAll(new TileTask(ranks, raceTied, from, middle), new TileTask(ranks, raceTied, middle, to));
+                return;
+            }
+            for (int rowFrom = from; rowFrom < to; rowFrom += BLOCK) {
+                int rowTo = Math.min(rowFrom + BLOCK, to);
+                for (int columnFrom = 0; columnFrom < rowTo - 1; columnFrom += BLOCK) {
+                    countTile(ranks, raceTied, rowFrom, rowTo, columnFrom, Math.min(columnFrom + BLOCK, rowTo - 1));
+                }
+            }
+        }
+    }
+
+    /**
+     * A task that counts one race for a range of its field, split into ranges with about the
+     * same number of pairs.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private final class FieldTask extends RecursiveAction {
+        private final int[] ids; // the registration ids of the field, in increasing order
+        private final int[] ranks; // the ranks of the field, in the order of the ids
+        private final boolean tied; // whether drivers share a position
+        private final int from; // the first index of the range
+        private final int to; // the end of the range, exclusive
+
+        private FieldTask(int[] ids, int[] ranks, boolean tied, int from, int to) {
+            this.ids = ids;
+            this.ranks = ranks;
+            this.tied = tied;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && ((long) to * to - (long) from * from) / 2 > THRESHOLD) {
+                int middle = Math.min(Math.max(balancedMiddle(from, to), from + 1), to - 1);
+                invokeAll(new FieldTask(ids, ranks, tied, from, middle), new FieldTask(ids, ranks, tied, middle, to));
+                return;
+            }
+            countField(ids, ranks, tied, from, to);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package main;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The HeadToHeadVectorCounter class counts a race for a row of a {@link HeadToHead} triangle
+ * several pairs at a time with the {@code jdk.incubator.vector} API. It is only loaded when that
+ * module is present.
+ * <p>
+ * The compiler does not vectorize the scalar loop by itself, since the row and the ranks are both
+ * int arrays read at different offsets, which it cannot prove do not overlap.
+ */
+final class HeadToHeadVectorCounter {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED; // the widest int vectors
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private HeadToHeadVectorCounter() {
+    }
+
+    /**
+     * Counts a race for the leading whole vectors of a range of columns of a row.
+     *
+     * @param cells  the triangle
+     * @param start  the index of the first cell of the row
+     * @param rank   the rank of every driver in the race, by registration id, or 0 if none
+     * @param own    the rank of the driver of the row, at least 1
+     * @param from   the first column of the range
+     * @param to     the end of the range, exclusive
+     * @param ahead  the count of a race the driver of the row finished ahead
+     * @param behind the count of a race the driver of the column finished ahead
+     * @return the first column not counted; the caller counts the rest
+     */
+    static int countRow(int[] cells, int start, int[] rank, int own, int from, int to, int ahead, int behind) {
+        int bound = from + INTS.loopBound(to - from);
+        for (int column = from; column < bound; column += INTS.length()) {
+            IntVector other = IntVector.fromArray(INTS, rank, column);
+            VectorMask<Integer> rowAhead = other.compare(VectorOperators.GT, own);
+            VectorMask<Integer> columnAhead = other.compare(VectorOperators.LT, own)
+                    .and(other.compare(VectorOperators.NE, 0)); // rank 0 has no result
+            IntVector.fromArray(INTS, cells, start + column)
+                    .add(ahead, rowAhead)
+                    .add(behind, columnAhead)
+                    .intoArray(cells, start + column);
+        }
+        return bound;
+    }
+
+    /**
+     * Counts a race for the leading whole vectors of the drivers of its field before a driver,
+     * gathering and scattering the cells of the driver's row by registration id.
+     *
+     * @param cells  the triangle
+     * @param start  the index of the first cell of the row of the driver
+     * @param ids    the registration ids of the field, in increasing order
+     * @param ranks  the ranks of the field, in the order of the ids
+     * @param own    the rank of the driver
+     * @param to     the index of the driver in the field; the drivers before it are counted
+     * @param ahead  the count of a race the driver of the row finished ahead
+     * @param behind the count of a race the driver of the column finished ahead
+     * @return the index of the first driver of the field not counted; the caller counts the rest
+     */
+    static int countField(int[] cells, int start, int[] ids, int[] ranks, int own, int to, int ahead, int behind) {
+        int bound = INTS.loopBound(to);
+        for (int i = 0; i < bound; i += INTS.length()) {
+            IntVector other = IntVector.fromArray(INTS, ranks, i);
+            IntVector.fromArray(INTS, cells, start, ids, i)
+                    .add(ahead, other.compare(VectorOperators.GT, own))
+                    .add(behind, other.compare(VectorOperators.LT, own))
+                    .intoArray(cells, start, ids, i);
+        }
+        return bound;
+    }
+}
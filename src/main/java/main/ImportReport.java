@@ -0,0 +1,83 @@
+package main;
+
+/**
+ * The ImportReport class summarizes a run of the ResultImporter: how many rows were read,
+ * how many races and drivers were added to the championship, and how fast rows were imported.
+ */
+public class ImportReport {
+    private final long rows; // the number of result rows imported
+    private final int racesAdded; // the number of races added to the championship
+    private final int driversRegistered; // the number of drivers registered during the import
+    private final long elapsedNanos; // the duration of the import, in nanoseconds
+
+    /**
+     * Constructs an ImportReport with the specified counts and duration.
+     *
+     * @param rows              the number of result rows imported
+     * @param racesAdded        the number of races added to the championship
+     * @param driversRegistered the number of drivers registered during the import
+     * @param elapsedNanos      the duration of the import, in nanoseconds
+     */
+    public ImportReport(long rows, int racesAdded, int driversRegistered, long elapsedNanos) {
+        this.rows = rows;
+        this.racesAdded = racesAdded;
+        this.driversRegistered = driversRegistered;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the number of result rows imported.
+     *
+     * @return the number of rows
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of races added to the championship.
+     *
+     * @return the number of races added
+     */
+    public int getRacesAdded() {
+        return racesAdded;
+    }
+
+    /**
+     * Returns the number of drivers registered during the import.
+     *
+     * @return the number of drivers registered
+     */
+    public int getDriversRegistered() {
+        return driversRegistered;
+    }
+
+    /**
+     * Returns the duration of the import.
+     *
+     * @return the duration, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the import throughput.
+     *
+     * @return the number of rows imported per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns a string representation of the report, including the throughput.
+     *
+     * @return a string representation of the report
+     */
+    @Override
+    public String toString() {
+        return String.format("%d rows, %d races, %d new drivers in %.3f s (%.0f rows/sec)",
+                rows, racesAdded, driversRegistered, elapsedNanos / 1e9, getRowsPerSecond());
+    }
+}
@@ -0,0 +1,120 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * The IntIntMap class is a hash map from non-negative int keys to int values that stores
+ * its entries in primitive arrays, so lookups and updates do not box.
+ * It uses open addressing with linear probing and is not thread-safe.
+ */
+class IntIntMap {
+    static final int MISSING = -1; // the value returned for keys that are not in the map
+
+    private int[] keys; // the key of each slot, or MISSING if the slot is empty
+    private int[] values; // the value of each occupied slot
+    private int size; // the number of entries in the map
+
+    /**
+     * Constructs an empty IntIntMap sized for the expected number of entries.
+     *
+     * @param expectedSize the number of entries the map should hold without resizing
+     */
+    IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        Arrays.fill(keys, MISSING);
+    }
+
+    /**
+     * Returns the value mapped to a key.
+     *
+     * @param key the key to look up
+     * @return the value mapped to the key, or MISSING if the key is negative or not in the map
+     */
+    int get(int key) {
+        if (key < 0) {
+            return MISSING; // empty slots hold MISSING, so a negative key would match one
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == MISSING) {
+                return MISSING;
+            }
+        }
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key   the non-negative key
+     * @param value the value to map the key to
+     */
+    void put(int key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Key must not be negative: " + key);
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int current = keys[slot];
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+            if (current == MISSING) {
+                keys[slot] = key;
+                values[slot] = value;
+                size++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Rehashes the entries into tables of a new capacity.
+     *
+     * @param capacity the new capacity, a power of two
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, MISSING);
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != MISSING) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a key, so that sequential keys do not form long probe runs.
+     *
+     * @param key the key to hash
+     * @return the hash of the key
+     */
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
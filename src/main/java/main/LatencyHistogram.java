@@ -0,0 +1,272 @@
+package main;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts latencies in nanoseconds in log-linear buckets, in the manner
+ * of HdrHistogram: values below 128 have a bucket each, and every power of two above that is
+ * split into 64 buckets, so any value is counted with a relative error below 1.6%.
+ * <p>
+ * The buckets are allocated once, and recording a value is an atomic increment of one bucket,
+ * so recording does not allocate and can be done from several threads at once. Reading a
+ * percentile while values are being recorded gives an approximate answer.
+ * <p>
+ * Since reading the clock costs as much as the fastest measured operations, a histogram can
+ * time only a random sample of the calls to {@link #start()}: one in every sampling interval.
+ */
+public class LatencyHistogram {
+    /** The start time returned by {@link #start()} when the call is not timed. */
+    public static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private static final int SUB_BUCKET_BITS = 7; // values below 2^7 are counted exactly
+    private static final int HALF_SUB_BUCKETS = 1 << (SUB_BUCKET_BITS - 1); // the buckets per power of two above that
+    private static final int BUCKET_COUNT = (65 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS; // enough for any positive long
+
+    private final String name; // the name of the measured operation
+    private final AtomicLongArray counts; // the number of values in each bucket
+    private final LongAdder total; // the sum of all recorded values
+    private final AtomicLong max; // the largest recorded value
+    private volatile int samplingMask; // one less than the sampling interval, a power of two
+
+    /**
+     * Constructs an empty LatencyHistogram.
+     *
+     * @param name             the name of the measured operation
+     * @param samplingInterval the number of calls for each one that is timed, a power of two
+     * @throws IllegalArgumentException if the interval is not a positive power of two
+     */
+    public LatencyHistogram(String name, int samplingInterval) {
+        this.name = name;
+        this.samplingMask = samplingMask(samplingInterval);
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.total = new LongAdder();
+        this.max = new AtomicLong();
+    }
+
+    /**
+     * Returns the name of the measured operation.
+     *
+     * @return the operation name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns how many calls there are for each one that is timed.
+     *
+     * @return the sampling interval
+     */
+    public int getSamplingInterval() {
+        return samplingMask + 1;
+    }
+
+    /**
+     * Sets how many calls there are for each one that is timed.
+     *
+     * @param interval the sampling interval, a power of two; 1 times every call
+     * @throws IllegalArgumentException if the interval is not a positive power of two
+     */
+    public void setSamplingInterval(int interval) {
+        samplingMask = samplingMask(interval);
+    }
+
+    /**
+     * Returns the sampling mask of a sampling interval.
+     *
+     * @param interval the sampling interval, a power of two
+     * @return one less than the interval
+     * @throws IllegalArgumentException if the interval is not a positive power of two
+     */
+    private static int samplingMask(int interval) {
+        if (interval <= 0 || Integer.bitCount(interval) != 1) {
+            throw new IllegalArgumentException("Sampling interval must be a positive power of two: " + interval);
+        }
+        return interval - 1;
+    }
+
+    /**
+     * Returns the start time of a call of the measured operation, to be passed to
+     * {@link #recordSince}.
+     *
+     * @return the current time in nanoseconds, or {@link #NOT_TIMED} if metrics are disabled or
+     *         the call is not part of the sample
+     */
+    public long start() {
+        if (!ChampionshipMetrics.recording() || (ThreadLocalRandom.current().nextInt() & samplingMask) != 0) {
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a latency. Negative values are recorded as 0.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.getAndIncrement(bucketOf(value));
+        total.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Records the time elapsed since a start time taken by {@link #start()}.
+     * Nothing is recorded if the call was not timed, because metrics were disabled or the call
+     * was not sampled.
+     *
+     * @param start the start time
+     */
+    public void recordSince(long start) {
+        if (start != NOT_TIMED) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return the total in nanoseconds
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum in nanoseconds, or 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value below which a percentage of the recorded values fall. The value is the
+     * highest one counted in the same bucket, so it may exceed the exact percentile by the
+     * precision of the histogram.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the value at the percentile in nanoseconds, or 0 if nothing has been recorded
+     * @throws IllegalArgumentException if the percentile is not between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        return valueAtPercentile(snapshotCounts(), percentile);
+    }
+
+    /**
+     * Returns a summary of the recorded values.
+     *
+     * @return the count, mean, percentiles and maximum of the recorded values
+     */
+    public LatencySummary summarize() {
+        long[] snapshot = snapshotCounts();
+        long count = snapshot[BUCKET_COUNT];
+        return new LatencySummary(name, count, count == 0 ? 0 : (double) total.sum() / count,
+                valueAtPercentile(snapshot, 50), valueAtPercentile(snapshot, 90),
+                valueAtPercentile(snapshot, 99), valueAtPercentile(snapshot, 99.9), max.get());
+    }
+
+    /**
+     * Discards the recorded values. Values recorded while the histogram is being reset may be
+     * partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Copies the bucket counts.
+     *
+     * @return the count of each bucket, followed by their sum
+     */
+    private long[] snapshotCounts() {
+        long[] snapshot = new long[BUCKET_COUNT + 1];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        snapshot[BUCKET_COUNT] = count;
+        return snapshot;
+    }
+
+    /**
+     * Returns the value at a percentile of copied bucket counts.
+     *
+     * @param snapshot   the count of each bucket, followed by their sum
+     * @param percentile the percentage, from 0 to 100
+     * @return the value at the percentile, capped by the maximum
+     */
+    private long valueAtPercentile(long[] snapshot, double percentile) {
+        long count = snapshot[BUCKET_COUNT];
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Returns the bucket a value is counted in.
+     *
+     * @param value the non-negative value
+     * @return the index of the bucket
+     */
+    static int bucketOf(long value) {
+        if (value < (1 << SUB_BUCKET_BITS)) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value); // the position of the highest set bit
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the highest value counted in a bucket.
+     *
+     * @param bucket the index of the bucket
+     * @return the highest value of the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < (1 << SUB_BUCKET_BITS)) {
+            return bucket;
+        }
+        int shift = (bucket >>> (SUB_BUCKET_BITS - 1)) - 1;
+        long lowest = (long) (bucket - (shift << (SUB_BUCKET_BITS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
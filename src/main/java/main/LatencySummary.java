@@ -0,0 +1,123 @@
+package main;
+
+/**
+ * The LatencySummary class is an immutable summary of the latencies recorded by a
+ * {@link LatencyHistogram}: their count, mean, percentiles and maximum, in nanoseconds.
+ * Over JMX it is shown as a composite value with one item per getter.
+ */
+public class LatencySummary {
+    private final String operation; // the name of the measured operation
+    private final long count; // the number of recorded latencies, which may be a sample of the calls
+    private final double mean; // the mean latency
+    private final long p50; // the median latency
+    private final long p90; // the 90th percentile latency
+    private final long p99; // the 99th percentile latency
+    private final long p999; // the 99.9th percentile latency
+    private final long max; // the largest latency
+
+    /**
+     * Constructs a LatencySummary.
+     *
+     * @param operation the name of the measured operation
+     * @param count     the number of recorded latencies
+     * @param mean      the mean latency
+     * @param p50       the median latency
+     * @param p90       the 90th percentile latency
+     * @param p99       the 99th percentile latency
+     * @param p999      the 99.9th percentile latency
+     * @param max       the largest latency
+     */
+    LatencySummary(String operation, long count, double mean, long p50, long p90, long p99, long p999, long max) {
+        this.operation = operation;
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    /**
+     * Returns the name of the measured operation.
+     *
+     * @return the operation name
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean latency.
+     *
+     * @return the mean in nanoseconds
+     */
+    public double getMeanNanos() {
+        return mean;
+    }
+
+    /**
+     * Returns the median latency.
+     *
+     * @return the median in nanoseconds
+     */
+    public long getP50Nanos() {
+        return p50;
+    }
+
+    /**
+     * Returns the 90th percentile latency.
+     *
+     * @return the percentile in nanoseconds
+     */
+    public long getP90Nanos() {
+        return p90;
+    }
+
+    /**
+     * Returns the 99th percentile latency.
+     *
+     * @return the percentile in nanoseconds
+     */
+    public long getP99Nanos() {
+        return p99;
+    }
+
+    /**
+     * Returns the 99.9th percentile latency.
+     *
+     * @return the percentile in nanoseconds
+     */
+    public long getP999Nanos() {
+        return p999;
+    }
+
+    /**
+     * Returns the largest latency.
+     *
+     * @return the maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        return max;
+    }
+
+    /**
+     * Returns a one-line description of the summary, with latencies in microseconds.
+     *
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        return String.format("%-20s count=%d mean=%.2fus p50=%.2fus p90=%.2fus p99=%.2fus p99.9=%.2fus max=%.2fus",
+                operation, count, mean / 1e3, p50 / 1e3, p90 / 1e3, p99 / 1e3, p999 / 1e3, max / 1e3);
+    }
+}
@@ -1,9 +1,9 @@
 package main;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The Main class is the entry point of the Rally Championship Management System.
@@ -37,44 +37,27 @@ public class Main {
 
         // simulate Rally Finland race
         RallyRaceResult race1 = new RallyRaceResult("Rally Finland", "Jyväskylä");
-        Map<Driver, Integer> race1Points = new HashMap<>();
-        race1Points.put(d1, 25); // 1st place, 25 points
-        race1Points.put(d3, 18); // 2nd place, 18 points
-        race1Points.put(d2, 15); // 3rd place, 15 points
-        race1Points.put(d4, 12); // 4th place, 12 points
-
-        // record results for Rally Finland
-        race1.recordResult(d1, 1, 25);
-        race1.recordResult(d2, 3, 15);
-        race1.recordResult(d3, 2, 18);
-        race1.recordResult(d4, 4, 12);
+        // record results for Rally Finland, scored by the WRC points system
+        race1.recordResult(d1, 1);
+        race1.recordResult(d2, 3);
+        race1.recordResult(d3, 2);
+        race1.recordResult(d4, 4);
         manager.addRaceResult(race1);
 
         // simulate Monte Carlo Rally race
         RallyRaceResult race2 = new RallyRaceResult("Monte Carlo Rally", "Monaco");
-        Map<Driver, Integer> race2Points = new HashMap<>();
-        race2Points.put(d2, 25);
-        race2Points.put(d4, 18);
-        race2Points.put(d1, 15);
-        race2Points.put(d3, 12);
-
-        // record results for Monte Carlo Rally
-        race2.recordResult(d1, 3, 15);
-        race2.recordResult(d2, 1, 25);
-        race2.recordResult(d3, 4, 12);
-        race2.recordResult(d4, 2, 18);
+        // record results for Monte Carlo Rally, scored by the WRC points system
+        race2.recordResult(d1, 3);
+        race2.recordResult(d2, 1);
+        race2.recordResult(d3, 4);
+        race2.recordResult(d4, 2);
         manager.addRaceResult(race2);
 
-        // create a map to store points for each race
-        Map<RallyRaceResult, Map<Driver, Integer>> racePointsMap = new HashMap<>();
-        racePointsMap.put(race1, race1Points);
-        racePointsMap.put(race2, race2Points);
-
         // display championship rankings, leader, statistics, race results, and car performance ratings
         displayChampionshipRankings(manager.getDriverStandings());
         displayChampionshipLeader(ChampionshipManager.getLeadingDriver());
         displayChampionshipStatistics(manager.getDrivers());
-        displayRaceResults(racePointsMap);
+        displayRaceResults(manager.getRaces());
         displayCarPerformanceRatings(gravelCar, asphaltCar);
     }
 
@@ -84,12 +67,11 @@ public class Main {
      * @param driversRankings a list of drivers sorted by their championship points
      */
     public static void displayChampionshipRankings(List<Driver> driversRankings) {
-        int position = 1;
-        for (Driver driver : driversRankings) {
-            System.out.printf("%d. %s\n", position, driver);
-            position++;
+        try {
+            textRenderer().renderStandings(driversRankings);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        System.out.println();
     }
 
     /**
@@ -122,31 +104,13 @@ public class Main {
     /**
      * Displays the results of all races, including driver positions and race-specific points.
      *
-     * @param racePointsMap a map containing race results and driver points for each race
+     * @param racesResults the races whose results are displayed
      */
-    public static void displayRaceResults(Map<RallyRaceResult, Map<Driver, Integer>> racePointsMap) {
-        // create a list of races from the racePointsMap keys
-        List<RallyRaceResult> racesResults = new ArrayList<>(racePointsMap.keySet());
-
-        System.out.println("===== RACE RESULTS ====");
-        for (RallyRaceResult race : racesResults) {
-            System.out.println("Race: " + race.getRaceName() + " (" + race.getLocation() + ")");
-
-            // get the sorted list of drivers based on their positions
-            List<Driver> sortedDrivers = race.getResults();
-
-            // get the points map for this specific race
-            Map<Driver, Integer> pointsForRace = racePointsMap.get(race);
-
-            // display each driver's position and race-specific points
-            for (int i = 0; i < sortedDrivers.size(); i++) {
-                Driver driver = sortedDrivers.get(i);
-                int position = i + 1;
-                int racePoints = pointsForRace.getOrDefault(driver, 0); // get race-specific points
-                System.out.println("\tPosition " + position + ": " + driver.getName() + " - " + racePoints + " points");
-            }
-
-            System.out.println(); // add a blank line between races for better readability
+    public static void displayRaceResults(List<RallyRaceResult> racesResults) {
+        try {
+            textRenderer().renderRaceResults(racesResults);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -161,4 +125,14 @@ public class Main {
         System.out.println("Gravel Car Performance: " + car1.calculatePerformance());
         System.out.println("Asphalt Car Performance: " + car2.calculatePerformance());
     }
+
+    /**
+     * Returns a renderer of text reports to the standard output, in its charset.
+     *
+     * @return a text report renderer
+     */
+    private static ReportRenderer textRenderer() {
+        return new ReportRenderer(ReportFormat.TEXT, Channels.newChannel(System.out), System.out.charset(),
+                ReportRenderer.DEFAULT_BUFFER_SIZE);
+    }
 }
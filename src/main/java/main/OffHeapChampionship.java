@@ -0,0 +1,475 @@
+package main;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The OffHeapChampionship class holds the drivers and points of a very large championship, such
+ * as a grassroots or esports series with tens of millions of drivers, outside the Java heap.
+ * Each driver is a fixed-width record in pages of direct memory holding their points, country
+ * code, car reference and the location of their name, which is stored as UTF-8 in pages of its
+ * own. Drivers are identified by their registration id, the index of their record, so the heap
+ * holds no object per driver and the garbage collector has nothing to trace for them.
+ * <p>
+ * Cars are copied into a {@link CarFleet}, whose index is the car reference of a record. Country
+ * codes index a table of the distinct countries, which also keeps the points total of each
+ * country up to date as points are added, so totals do not need a pass over the drivers.
+ * <p>
+ * It offers the operations of {@link ChampionshipManager} by registration id: registering
+ * drivers, adding points, the standings and the totals. Points can be added and read from
+ * several threads at once without locking; registration is synchronized. Standings are computed
+ * from the records when they are asked for.
+ */
+public class OffHeapChampionship {
+    static final int RECORD_BYTES = 24; // the size of a driver record
+    private static final int POINTS = 0; // the offset of the points, an int
+    private static final int COUNTRY = 4; // the offset of the country code, an int
+    private static final int CAR = 8; // the offset of the car reference, an int, or -1 without a car
+    private static final int NAME_LENGTH = 12; // the offset of the length of the name in bytes, an int
+    private static final int NAME_OFFSET = 16; // the offset of the location of the name, a long
+
+    private static final int PAGE_BITS = 16; // the records in a page are 2^PAGE_BITS
+    private static final int NAME_PAGE_BITS = 20; // the bytes in a page of names are 2^NAME_PAGE_BITS
+    private static final int MAX_COUNTRIES = 1 << 16; // the most distinct countries
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class,
+            ByteOrder.nativeOrder()); // atomic access to the ints of a record
+
+    private volatile ByteBuffer[] pages; // the pages of driver records
+    private volatile int size; // the number of registered drivers, published after their record is written
+    private final List<ByteBuffer> namePages; // the pages of names, guarded by this
+    private long nameEnd; // the location after the last stored name, guarded by this
+    private final Map<String, Integer> countryCodes; // the code of each country, guarded by this
+    private volatile String[] countries; // the country of each code
+    private final AtomicLongArray countryPoints; // the points total of each country, by code
+    private final CarFleet fleet; // the cars of the drivers, guarded by this
+
+    /**
+     * Constructs an empty OffHeapChampionship.
+     */
+    public OffHeapChampionship() {
+        this.pages = new ByteBuffer[0];
+        this.namePages = new ArrayList<>();
+        this.countryCodes = new HashMap<>();
+        this.countries = new String[0];
+        this.countryPoints = new AtomicLongArray(MAX_COUNTRIES);
+        this.fleet = new CarFleet(1 << PAGE_BITS);
+    }
+
+    /**
+     * Registers a driver. The driver's car is copied into the championship's fleet.
+     *
+     * @param name    the name of the driver
+     * @param country the country the driver represents
+     * @param car     the car the driver is driving, or null
+     * @return the registration id of the driver
+     * @throws IllegalArgumentException if the name is longer than 2^20 bytes in UTF-8
+     * @throws IllegalStateException    if the championship already has 2^31 - 1 drivers or 65536 countries
+     */
+    public synchronized int registerDriver(String name, String country, RallyCar car) {
+        int id = size;
+        if (id == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Championship already has " + id + " drivers");
+        }
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        if (encoded.length > 1 << NAME_PAGE_BITS) {
+            throw new IllegalArgumentException("Driver name is too long: " + encoded.length + " bytes");
+        }
+        int countryCode = countryCodeOf(country);
+
+        int page = id >>> PAGE_BITS;
+        if (page == pages.length) {
+            ByteBuffer[] grown = Arrays.copyOf(pages, page + 1);
+            grown[page] = ByteBuffer.allocateDirect(RECORD_BYTES << PAGE_BITS).order(ByteOrder.nativeOrder());
+            pages = grown;
+        }
+        ByteBuffer records = pages[page];
+        int record = recordOf(id);
+        records.putInt(record + POINTS, 0);
+        records.putInt(record + COUNTRY, countryCode);
+        records.putInt(record + CAR, car == null ? -1 : fleet.add(car));
+        records.putInt(record + NAME_LENGTH, encoded.length);
+        records.putLong(record + NAME_OFFSET, storeName(encoded));
+        size = id + 1; // publishes the record
+        return id;
+    }
+
+    /**
+     * Returns the number of registered drivers.
+     *
+     * @return the number of drivers
+     */
+    public int getDriverCount() {
+        return size;
+    }
+
+    /**
+     * Adds points to a driver's total. This method is thread-safe and does not block.
+     *
+     * @param id     the registration id of the driver
+     * @param points the points to add
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    public void addPoints(int id, int points) {
+        ByteBuffer records = pageOf(id);
+        int record = recordOf(id);
+        INTS.getAndAdd(records, record + POINTS, points);
+        countryPoints.getAndAdd(records.getInt(record + COUNTRY), points);
+    }
+
+    /**
+     * Returns the points of a driver.
+     *
+     * @param id the registration id of the driver
+     * @return the driver's points
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    public int getPoints(int id) {
+        return (int) INTS.getVolatile(pageOf(id), recordOf(id) + POINTS);
+    }
+
+    /**
+     * Returns the name of a driver.
+     *
+     * @param id the registration id of the driver
+     * @return the driver's name
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    public String getName(int id) {
+        ByteBuffer records = pageOf(id);
+        int record = recordOf(id);
+        byte[] encoded = new byte[records.getInt(record + NAME_LENGTH)];
+        long location = records.getLong(record + NAME_OFFSET);
+        ByteBuffer names;
+        synchronized (this) {
+            names = namePages.get((int) (location >>> NAME_PAGE_BITS));
+        }
+        names.get((int) (location & ((1 << NAME_PAGE_BITS) - 1)), encoded);
+        return new String(encoded, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the country of a driver.
+     *
+     * @param id the registration id of the driver
+     * @return the driver's country
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    public String getCountry(int id) {
+        int code = pageOf(id).getInt(recordOf(id) + COUNTRY);
+        return countries[code];
+    }
+
+    /**
+     * Returns the class of a driver's car.
+     *
+     * @param id the registration id of the driver
+     * @return the class of the car, or {@link CarClass#NONE} if the driver has no car
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    public synchronized CarClass getCarClass(int id) {
+        int car = pageOf(id).getInt(recordOf(id) + CAR);
+        return car < 0 ? CarClass.NONE : fleet.getCarClass(car);
+    }
+
+    /**
+     * Returns the performance rating of a driver's car.
+     *
+     * @param id the registration id of the driver
+     * @return the rating of the car, as {@link RallyCar#calculatePerformance()} gives it, or NaN
+     *         if the driver has no car
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    public synchronized double getCarPerformance(int id) {
+        int car = pageOf(id).getInt(recordOf(id) + CAR);
+        return car < 0 ? Double.NaN : fleet.calculatePerformance(car);
+    }
+
+    /**
+     * Returns the total points of all drivers. This method does not block.
+     *
+     * @return the total points
+     */
+    public long getTotalPoints() {
+        long total = 0;
+        for (int code = 0; code < countries.length; code++) {
+            total += countryPoints.get(code);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total points earned by the drivers of a country. This method does not block.
+     *
+     * @param country the country
+     * @return the total points of the country's drivers, or 0 if no registered driver is from it
+     */
+    public long getCountryPoints(String country) {
+        String[] known = countries;
+        for (int code = 0; code < known.length; code++) {
+            if (known[code].equals(country)) {
+                return countryPoints.get(code);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the country whose drivers have earned the most points. Countries with equal
+     * points are ranked in the order their first driver registered.
+     *
+     * @return the leading country, or an empty string if no drivers are registered
+     */
+    public String getLeadingCountry() {
+        String[] known = countries;
+        String leader = "";
+        long most = Long.MIN_VALUE;
+        for (int code = 0; code < known.length; code++) {
+            long points = countryPoints.get(code);
+            if (points > most) {
+                most = points;
+                leader = known[code];
+            }
+        }
+        return leader;
+    }
+
+    /**
+     * Returns the leader of the standings.
+     *
+     * @return the registration id of the leading driver, or -1 if no drivers are registered
+     */
+    public int getLeader() {
+        int[] top = getTopDrivers(1);
+        return top.length == 0 ? -1 : top[0];
+    }
+
+    /**
+     * Returns the championship standings sorted by driver points in descending order, with
+     * ties in registration order. The ranking keys of all drivers are sorted in parallel.
+     *
+     * @return the registration ids of the drivers in standings order
+     */
+    public int[] getDriverStandings() {
+        int count = size;
+        long[] keys = new long[count];
+        for (int id = 0; id < count; id++) {
+            keys[id] = keyOf(id);
+        }
+        Arrays.parallelSort(keys);
+        int[] standings = new int[count];
+        for (int i = 0; i < count; i++) {
+            standings[i] = idOf(keys[i]);
+        }
+        return standings;
+    }
+
+    /**
+     * Returns the leading drivers of the standings, in one pass over the records that keeps
+     * the best keys seen in a heap.
+     *
+     * @param count the maximum number of drivers to return
+     * @return the registration ids of at most {@code count} drivers in standings order
+     * @throws IllegalArgumentException if the count is negative
+     */
+    public int[] getTopDrivers(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Driver count must not be negative: " + count);
+        }
+        int drivers = size;
+        int k = Math.min(count, drivers);
+        if (k == 0) {
+            return new int[0];
+        }
+
+        // a max-heap of the k lowest keys, whose root is the worst of the leading drivers so far
+        long[] heap = new long[k];
+        for (int id = 0; id < drivers; id++) {
+            long key = keyOf(id);
+            if (id < k) {
+                heap[id] = key;
+                siftUp(heap, id);
+            } else if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(heap, k);
+            }
+        }
+        Arrays.sort(heap);
+        int[] top = new int[k];
+        for (int i = 0; i < k; i++) {
+            top[i] = idOf(heap[i]);
+        }
+        return top;
+    }
+
+    /**
+     * Returns the position of a driver in the standings, starting from 1.
+     *
+     * @param id the registration id of the driver
+     * @return the driver's position
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    public int getDriverPosition(int id) {
+        long key = keyOf(id);
+        int drivers = size;
+        int ahead = 0;
+        for (int other = 0; other < drivers; other++) {
+            if (keyOf(other) < key) {
+                ahead++;
+            }
+        }
+        return ahead + 1;
+    }
+
+    /**
+     * Returns the bytes of direct memory held by the driver records and names.
+     *
+     * @return the off-heap footprint in bytes
+     */
+    public synchronized long getOffHeapBytes() {
+        return (long) pages.length * (RECORD_BYTES << PAGE_BITS) + (long) namePages.size() * (1 << NAME_PAGE_BITS);
+    }
+
+    /**
+     * Returns the ranking key of a driver: fewer points give a greater key, then a greater id.
+     *
+     * @param id the registration id of the driver
+     * @return the key
+     */
+    private long keyOf(int id) {
+        long behind = (long) Integer.MAX_VALUE - getPoints(id); // from 0 for the most points to 2^32 - 1
+        return behind << 31 | id;
+    }
+
+    /**
+     * Returns the registration id of a ranking key.
+     *
+     * @param key the key
+     * @return the registration id
+     */
+    private static int idOf(long key) {
+        return (int) (key & Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the page holding a driver's record.
+     *
+     * @param id the registration id of the driver
+     * @return the page
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    private ByteBuffer pageOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No driver has id " + id);
+        }
+        return pages[id >>> PAGE_BITS];
+    }
+
+    /**
+     * Returns the offset of a driver's record in its page.
+     *
+     * @param id the registration id of the driver
+     * @return the offset in bytes
+     */
+    private static int recordOf(int id) {
+        return (id & ((1 << PAGE_BITS) - 1)) * RECORD_BYTES;
+    }
+
+    /**
+     * Returns the code of a country, adding it to the country table if it is new. The caller
+     * must hold the lock.
+     *
+     * @param country the country
+     * @return the country code
+     * @throws IllegalStateException if the table already has 65536 countries
+     */
+    private int countryCodeOf(String country) {
+        Integer code = countryCodes.get(country);
+        if (code != null) {
+            return code;
+        }
+        int next = countries.length;
+        if (next == MAX_COUNTRIES) {
+            throw new IllegalStateException("Championship already has " + MAX_COUNTRIES + " countries");
+        }
+        String[] grown = Arrays.copyOf(countries, next + 1);
+        grown[next] = country;
+        countries = grown;
+        countryCodes.put(country, next);
+        return next;
+    }
+
+    /**
+     * Appends an encoded name to the name pages, starting a new page if the current one is too
+     * full. The caller must hold the lock.
+     *
+     * @param encoded the name in UTF-8
+     * @return the location of the name: its page, then its offset in the page
+     */
+    private long storeName(byte[] encoded) {
+        int pageBytes = 1 << NAME_PAGE_BITS;
+        int offset = (int) (nameEnd & (pageBytes - 1));
+        if (namePages.isEmpty() || (offset + encoded.length > pageBytes)) {
+            namePages.add(ByteBuffer.allocateDirect(pageBytes));
+            nameEnd = (long) (namePages.size() - 1) << NAME_PAGE_BITS;
+            offset = 0;
+        }
+        long location = nameEnd;
+        namePages.get(namePages.size() - 1).put(offset, encoded);
+        nameEnd += encoded.length;
+        return location;
+    }
+
+    /**
+     * Restores the heap order after the key at an index may have become greater than its parent's.
+     *
+     * @param heap  the max-heap
+     * @param index the index of the key
+     */
+    private static void siftUp(long[] heap, int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    /**
+     * Restores the heap order after the root key may have become smaller than its children's.
+     *
+     * @param heap the max-heap
+     * @param size the number of keys in the heap
+     */
+    private static void siftDown(long[] heap, int size) {
+        long key = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
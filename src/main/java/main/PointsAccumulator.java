@@ -0,0 +1,155 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * The PointsAccumulator class accumulates points statistics for a number of groups in
+ * primitive columns: the count, total, minimum, maximum, mean and sum of squared deviations
+ * of each group. Accumulators of disjoint parts of a field can be merged, so statistics can be
+ * computed in parallel. It is not thread-safe.
+ */
+class PointsAccumulator {
+    private long[] counts; // the number of values of each group
+    private long[] totals; // the sum of the values of each group
+    private int[] mins; // the smallest value of each group
+    private int[] maxes; // the largest value of each group
+    private double[] means; // the running mean of each group
+    private double[] squares; // the running sum of squared deviations from the mean of each group
+    private int[] firsts; // the smallest index of a value added to each group
+
+    /**
+     * Constructs an empty PointsAccumulator.
+     *
+     * @param groups the initial number of groups, which grows as needed
+     */
+    PointsAccumulator(int groups) {
+        int capacity = Math.max(1, groups);
+        counts = new long[capacity];
+        totals = new long[capacity];
+        mins = new int[capacity];
+        maxes = new int[capacity];
+        means = new double[capacity];
+        squares = new double[capacity];
+        firsts = new int[capacity];
+        Arrays.fill(mins, Integer.MAX_VALUE);
+        Arrays.fill(maxes, Integer.MIN_VALUE);
+        Arrays.fill(firsts, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds a value to a group.
+     *
+     * @param group  the group of the value
+     * @param points the value
+     * @param index  the index of the value in the field, used to track the first index of each group
+     */
+    void add(int group, int points, int index) {
+        if (group >= counts.length) {
+            grow(group + 1);
+        }
+
+        long count = ++counts[group];
+        totals[group] += points;
+        mins[group] = Math.min(mins[group], points);
+        maxes[group] = Math.max(maxes[group], points);
+        firsts[group] = Math.min(firsts[group], index);
+
+        // Welford's online update of the mean and squared deviations
+        double delta = points - means[group];
+        means[group] += delta / count;
+        squares[group] += delta * (points - means[group]);
+    }
+
+    /**
+     * Merges the groups of another accumulator into this one.
+     *
+     * @param other the accumulator to merge
+     */
+    void merge(PointsAccumulator other) {
+        if (other.counts.length > counts.length) {
+            grow(other.counts.length);
+        }
+
+        for (int group = 0; group < other.counts.length; group++) {
+            long otherCount = other.counts[group];
+            if (otherCount == 0) {
+                continue;
+            }
+            long count = counts[group];
+            long merged = count + otherCount;
+
+            // Chan's parallel combination of means and squared deviations
+            double delta = other.means[group] - means[group];
+            means[group] += delta * otherCount / merged;
+            squares[group] += other.squares[group] + delta * delta * count * otherCount / merged;
+
+            counts[group] = merged;
+            totals[group] += other.totals[group];
+            mins[group] = Math.min(mins[group], other.mins[group]);
+            maxes[group] = Math.max(maxes[group], other.maxes[group]);
+            firsts[group] = Math.min(firsts[group], other.firsts[group]);
+        }
+    }
+
+    /**
+     * Returns the number of groups with room in this accumulator.
+     *
+     * @return the number of groups
+     */
+    int groups() {
+        return counts.length;
+    }
+
+    /**
+     * Returns the smallest index of a value added to a group.
+     *
+     * @param group the group
+     * @return the first index of the group, or Integer.MAX_VALUE if the group is empty
+     */
+    int first(int group) {
+        return group < firsts.length ? firsts[group] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the total of a group.
+     *
+     * @param group the group
+     * @return the sum of the values of the group
+     */
+    long total(int group) {
+        return group < totals.length ? totals[group] : 0;
+    }
+
+    /**
+     * Returns an immutable summary of a group.
+     *
+     * @param group the group
+     * @return the statistics of the group
+     */
+    PointsAggregate toAggregate(int group) {
+        if (group >= counts.length || counts[group] == 0) {
+            return PointsAggregate.EMPTY;
+        }
+        return new PointsAggregate(counts[group], totals[group], mins[group], maxes[group], squares[group] / counts[group]);
+    }
+
+    /**
+     * Grows the columns to hold a number of groups.
+     *
+     * @param groups the number of groups needed
+     */
+    private void grow(int groups) {
+        int capacity = Math.max(groups, counts.length * 2);
+        int old = counts.length;
+        counts = Arrays.copyOf(counts, capacity);
+        totals = Arrays.copyOf(totals, capacity);
+        mins = Arrays.copyOf(mins, capacity);
+        maxes = Arrays.copyOf(maxes, capacity);
+        means = Arrays.copyOf(means, capacity);
+        squares = Arrays.copyOf(squares, capacity);
+        firsts = Arrays.copyOf(firsts, capacity);
+        Arrays.fill(mins, old, capacity, Integer.MAX_VALUE);
+        Arrays.fill(maxes, old, capacity, Integer.MIN_VALUE);
+        Arrays.fill(firsts, old, capacity, Integer.MAX_VALUE);
+    }
+}
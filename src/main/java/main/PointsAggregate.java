@@ -0,0 +1,107 @@
+package main;
+
+/**
+ * The PointsAggregate class holds statistics of the points of a group of drivers:
+ * how many drivers there are, their total, minimum, maximum and average points,
+ * and the variance of their points.
+ */
+public class PointsAggregate {
+    static final PointsAggregate EMPTY = new PointsAggregate(0, 0, 0, 0, 0); // the statistics of an empty group
+
+    private final long count; // the number of drivers in the group
+    private final long total; // the total points of the group
+    private final int min; // the smallest points of a driver in the group
+    private final int max; // the largest points of a driver in the group
+    private final double variance; // the population variance of the points of the group
+
+    /**
+     * Constructs a PointsAggregate with the specified statistics.
+     *
+     * @param count    the number of drivers in the group
+     * @param total    the total points of the group
+     * @param min      the smallest points of a driver in the group
+     * @param max      the largest points of a driver in the group
+     * @param variance the population variance of the points of the group
+     */
+    PointsAggregate(long count, long total, int min, int max, double variance) {
+        this.count = count;
+        this.total = total;
+        this.min = min;
+        this.max = max;
+        this.variance = variance;
+    }
+
+    /**
+     * Returns the number of drivers in the group.
+     *
+     * @return the number of drivers
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the total points of the group.
+     *
+     * @return the total points
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the smallest points of a driver in the group.
+     *
+     * @return the minimum points, or 0 if the group is empty
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest points of a driver in the group.
+     *
+     * @return the maximum points, or 0 if the group is empty
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the average points per driver of the group.
+     *
+     * @return the average points, or NaN if the group is empty
+     */
+    public double getAverage() {
+        return (double) total / count;
+    }
+
+    /**
+     * Returns the population variance of the points of the group.
+     *
+     * @return the variance of the points, or 0 if the group is empty
+     */
+    public double getVariance() {
+        return variance;
+    }
+
+    /**
+     * Returns the population standard deviation of the points of the group.
+     *
+     * @return the standard deviation of the points
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(variance);
+    }
+
+    /**
+     * Returns a string representation of the statistics.
+     *
+     * @return a string representation of the statistics
+     */
+    @Override
+    public String toString() {
+        return String.format("%d drivers, %d points (min %d, max %d, avg %.2f, sd %.2f)",
+                count, total, min, max, getAverage(), getStandardDeviation());
+    }
+}
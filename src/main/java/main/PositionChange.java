@@ -0,0 +1,85 @@
+package main;
+
+/**
+ * The PositionChange class describes how a driver's standings position and points changed
+ * between two versions of the championship standings.
+ */
+public class PositionChange {
+    private final Driver driver; // the driver whose position changed
+    private final int oldPosition; // the driver's position in the older version, or 0 if they were not in it
+    private final int newPosition; // the driver's position in the newer version
+    private final int oldPoints; // the driver's points in the older version
+    private final int newPoints; // the driver's points in the newer version
+
+    /**
+     * Constructs a PositionChange with the specified positions and points.
+     *
+     * @param driver      the driver whose position changed
+     * @param oldPosition the driver's position in the older version, or 0 if they were not in it
+     * @param newPosition the driver's position in the newer version
+     * @param oldPoints   the driver's points in the older version
+     * @param newPoints   the driver's points in the newer version
+     */
+    public PositionChange(Driver driver, int oldPosition, int newPosition, int oldPoints, int newPoints) {
+        this.driver = driver;
+        this.oldPosition = oldPosition;
+        this.newPosition = newPosition;
+        this.oldPoints = oldPoints;
+        this.newPoints = newPoints;
+    }
+
+    /**
+     * Returns the driver whose position changed.
+     *
+     * @return the driver
+     */
+    public Driver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Returns the driver's position in the older version.
+     *
+     * @return the old position, or 0 if the driver was not in the older version
+     */
+    public int getOldPosition() {
+        return oldPosition;
+    }
+
+    /**
+     * Returns the driver's position in the newer version.
+     *
+     * @return the new position
+     */
+    public int getNewPosition() {
+        return newPosition;
+    }
+
+    /**
+     * Returns the driver's points in the older version.
+     *
+     * @return the old points
+     */
+    public int getOldPoints() {
+        return oldPoints;
+    }
+
+    /**
+     * Returns the driver's points in the newer version.
+     *
+     * @return the new points
+     */
+    public int getNewPoints() {
+        return newPoints;
+    }
+
+    /**
+     * Returns a string representation of the change.
+     *
+     * @return a string representation of the change
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: %d -> %d (%d -> %d points)", driver.getName(), oldPosition, newPosition, oldPoints, newPoints);
+    }
+}
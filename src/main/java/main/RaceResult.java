@@ -14,6 +14,7 @@ public interface RaceResult {
      * @param driver   the driver whose result is being recorded
      * @param position the position the driver finished in the race
      * @param points   the points earned by the driver in the race
+     * @throws IllegalArgumentException if the driver is not registered in a championship
      */
     void recordResult(Driver driver, int position, int points);
 
@@ -26,7 +27,8 @@ public interface RaceResult {
     int getDriverPoints(Driver driver);
 
     /**
-     * Returns a list of drivers sorted by their finishing positions in the race.
+     * Returns a list of drivers sorted by their finishing positions in the race. The list is a
+     * new mutable copy, which the caller may change without affecting the race.
      *
      * @return a list of drivers sorted by their positions
      */
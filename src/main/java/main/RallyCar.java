@@ -57,4 +57,70 @@ public abstract class RallyCar {
      * @return the performance rating of the car as a double
      */
     public abstract double calculatePerformance();
+
+    /**
+     * Rates every car of an array into a primitive array, without boxing the ratings.
+     *
+     * @param cars    the cars to rate
+     * @param ratings the array receiving the rating of each car, at the same index as the car
+     * @throws IllegalArgumentException if the ratings array is shorter than the cars array
+     */
+    public static void calculatePerformance(RallyCar[] cars, double[] ratings) {
+        if (ratings.length < cars.length) {
+            throw new IllegalArgumentException("Ratings array is shorter than the cars array");
+        }
+
+        for (int i = 0; i < cars.length; i++) {
+            ratings[i] = cars[i].calculatePerformance();
+        }
+    }
+
+    /**
+     * Rates every car of an array.
+     *
+     * @param cars the cars to rate
+     * @return the rating of each car, at the same index as the car
+     */
+    public static double[] calculatePerformance(RallyCar[] cars) {
+        double[] ratings = new double[cars.length];
+        calculatePerformance(cars, ratings);
+        return ratings;
+    }
+
+    /**
+     * Rounds a value to 1 decimal place without allocating.
+     * The result is bit-identical to {@code Double.parseDouble(String.format("%.1f", value))}:
+     * the formatter rounds half up, away from zero, based on the shortest decimal representation
+     * of the value, so a value whose shortest representation is a midpoint such as 0.15 rounds up.
+     *
+     * @param value the value to round
+     * @return the value rounded to 1 decimal place
+     */
+    protected static double roundToOneDecimal(double value) {
+        if (Double.isNaN(value)) {
+            return Double.NaN; // parsing "NaN" yields the canonical NaN
+        }
+        if (Double.isInfinite(value)) {
+            return value; // infinities format and parse back unchanged
+        }
+        if (Math.abs(value) >= 1e13) {
+            // doubles are spaced too widely for the midpoint test below, so use the formatter itself
+            return Double.parseDouble(String.format("%.1f", value));
+        }
+        if (value < 0 || (value == 0 && 1 / value < 0)) {
+            return -roundToOneDecimal(-value); // half up rounds away from zero, and -0.0 stays negative
+        }
+
+        // the result is one of the two tenths around the value; the scaled floor may be off by one
+        // near a tenth, but then the value is far from the midpoint and the comparison still picks the nearest
+        long tenths = (long) Math.floor(value * 10);
+
+        // the midpoint between the two tenths has two decimal places, so the division is exact to the nearest double.
+        // if the value is that double, its shortest representation is the midpoint itself, which rounds up
+        double midpoint = (2 * tenths + 1) / 20.0;
+        if (value >= midpoint) {
+            tenths++;
+        }
+        return tenths / 10.0;
+    }
 }
\ No newline at end of file
@@ -1,19 +1,29 @@
 package main;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 /**
  * The RallyRaceResult class implements the RaceResult interface and represents
  * the results of a rally race. It stores the race name, location, and the results
  * of drivers, including their positions and points.
+ * Results are stored in parallel columns kept sorted by position, so reading the
+ * results needs neither boxing nor sorting. Results can be recorded from several threads at once.
  */
 public class RallyRaceResult implements RaceResult {
     private String raceName; // the name of the race
     private String location; // the location of the race
-    private Map<Driver, Integer> results; // map to store driver results (driver -> position)
+    private Driver[] drivers; // the drivers of the field, sorted by position
+    private int[] positions; // the position of each driver, in the same order as drivers
+    private int[] points; // the points earned by each driver, in the same order as drivers
+    private int[] powerStages; // the power stage position of each driver, or 0 if none, in the same order as drivers
+    private int size; // the number of recorded results
+    private IntIntMap rows; // map from a driver's registration id to their row in the columns
+    private ChampionshipManager championship; // the championship of the recorded drivers
+    private int seasonIndex = -1; // the index of the race in its championship, or -1 until it is added
+    private int modifications; // the number of changes to the results, which re-scoring checks
+    private boolean frozen; // whether the results are held unchanged while the season is re-scored
 
     /**
      * Constructs a RallyRaceResult object with the specified race name and location.
@@ -24,7 +34,11 @@ public class RallyRaceResult implements RaceResult {
     public RallyRaceResult(String raceName, String location) {
         this.raceName = raceName;
         this.location = location;
-        this.results = new HashMap<>();
+        this.drivers = new Driver[8];
+        this.positions = new int[8];
+        this.points = new int[8];
+        this.powerStages = new int[8];
+        this.rows = new IntIntMap(8);
     }
 
     /**
@@ -47,16 +61,175 @@ public class RallyRaceResult implements RaceResult {
 
     /**
      * Records the result of a driver in the race, including their position and points.
-     * The driver's total points are updated, and their position is stored in the results map.
+     * The driver's total points are updated, and their position is stored in the results.
+     * Recording a driver again replaces their position and adds to their points.
      *
      * @param driver   the driver whose result is being recorded
      * @param position the position the driver finished in the race
      * @param points   the points earned by the driver in the race
+     * @throws IllegalArgumentException if the driver is not registered, or is registered
+     *                                  in a different championship than the rest of the field
      */
     @Override
     public void recordResult(Driver driver, int position, int points) {
+        long start = ChampionshipMetrics.RECORD_RESULT.start();
+        ResultIngestionEvent event = new ResultIngestionEvent();
+        event.begin();
+        synchronized (this) {
+            awaitThaw();
+            checkChampionship(driver);
+            storeResult(driver, position, points); // store the driver's position in the results
+        }
+
         driver.addPoints(points); // add points to the driver's total
-        results.put(driver, position); // store the driver's position in the results map
+        ChampionshipMetrics.resultsRecorded(start, 1);
+        event.commit(raceName, 1);
+    }
+
+    /**
+     * Records the result of a driver given by registration id. This skips the checks of
+     * {@link #recordResult(Driver, int, int)}, since the driver is taken from the championship
+     * of the race, which must already be known from an earlier result or from adding the race.
+     *
+     * @param driverId the registration id of the driver in the race's championship
+     * @param position the position the driver finished in the race
+     * @param points   the points earned by the driver in the race
+     * @throws IllegalStateException     if the race has no results and is not added to a championship
+     * @throws IndexOutOfBoundsException if no driver has the id
+     */
+    public void recordResult(int driverId, int position, int points) {
+        long start = ChampionshipMetrics.RECORD_RESULT.start();
+        ResultIngestionEvent event = new ResultIngestionEvent();
+        event.begin();
+        Driver driver;
+        synchronized (this) {
+            awaitThaw();
+            if (championship == null) {
+                throw new IllegalStateException("Race is not part of a championship yet: " + raceName);
+            }
+            driver = championship.getDriver(driverId);
+            storeResult(driver, position, points);
+        }
+
+        driver.addPoints(points); // add points to the driver's total
+        ChampionshipMetrics.resultsRecorded(start, 1);
+        event.commit(raceName, 1);
+    }
+
+    /**
+     * Records the result of a driver in the race, with the points derived from the position
+     * by the scoring system of the driver's championship.
+     *
+     * @param driver   the driver whose result is being recorded
+     * @param position the position the driver finished in the race
+     * @throws IllegalArgumentException if the driver is not registered, or is registered
+     *                                  in a different championship than the rest of the field
+     */
+    public void recordResult(Driver driver, int position) {
+        ChampionshipManager driverChampionship = driver.getChampionship();
+        if (driverChampionship == null) {
+            throw new IllegalArgumentException("Driver must be registered before recording results: " + driver.getName());
+        }
+        recordResult(driver, position, driverChampionship.getScoringSystem().pointsFor(position));
+    }
+
+    /**
+     * Records the power stage result of a driver who has a result in the race. The bonus points
+     * of the power stage position, given by the scoring system of the championship, are added to
+     * the driver's points in the race and to their total.
+     *
+     * @param driver        the driver whose power stage result is being recorded
+     * @param stagePosition the position the driver finished the power stage in, starting from 1
+     * @throws IllegalArgumentException if the position is not positive, or the driver has no result in this race
+     * @throws IllegalStateException    if the driver's power stage result is already recorded
+     */
+    public void recordPowerStage(Driver driver, int stagePosition) {
+        if (stagePosition < 1) {
+            throw new IllegalArgumentException("Power stage position must be positive: " + stagePosition);
+        }
+
+        int bonus;
+        synchronized (this) {
+            awaitThaw();
+            int row = rowOf(driver);
+            if (powerStages[row] != 0) {
+                throw new IllegalStateException("Power stage result is already recorded for " + driver.getName());
+            }
+            bonus = championship.getScoringSystem().powerStagePointsFor(stagePosition);
+            powerStages[row] = stagePosition;
+            points[row] += bonus;
+            modifications++;
+            if (seasonIndex >= 0) {
+                championship.racePointsChanged(seasonIndex, driver, points[row]);
+            }
+        }
+
+        driver.addPoints(bonus); // add the bonus to the driver's total
+    }
+
+    /**
+     * Records the results of several drivers at once, taking the lock of the race only once.
+     * The outcome is the same as calling {@link #recordResult(Driver, int, int)} for each
+     * result in order.
+     *
+     * @param drivers   the drivers whose results are being recorded
+     * @param positions the position of each driver
+     * @param points    the points earned by each driver
+     * @param count     the number of results to record from the start of the arrays
+     * @throws IllegalArgumentException if a driver is not registered, or is registered
+     *                                  in a different championship than the rest of the field
+     */
+    public void recordResults(Driver[] drivers, int[] positions, int[] points, int count) {
+        long start = ChampionshipMetrics.RECORD_RESULT.start();
+        ResultIngestionEvent event = new ResultIngestionEvent();
+        event.begin();
+        synchronized (this) {
+            awaitThaw();
+            for (int i = 0; i < count; i++) {
+                checkChampionship(drivers[i]);
+            }
+
+            for (int i = 0; i < count; i++) {
+                storeResult(drivers[i], positions[i], points[i]);
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            drivers[i].addPoints(points[i]); // add points to the driver's total
+        }
+        ChampionshipMetrics.resultsRecorded(start, count);
+        event.commit(raceName, count);
+    }
+
+    /**
+     * Records the results of the drivers who completed every stage of a rally, in the order of
+     * its classification, with the points derived from their positions by the scoring system of
+     * their championship. This should be done once the stage times are final, since recording
+     * a driver again adds to their points.
+     *
+     * @param stageTimes the stage times of the rally
+     * @throws IllegalArgumentException if the drivers are registered in a different championship
+     *                                  than the rest of the field
+     */
+    public void recordResults(StageTimes stageTimes) {
+        Driver[] finishers;
+        int[] positions;
+        int count;
+        synchronized (stageTimes) {
+            finishers = new Driver[stageTimes.getEntryCount()];
+            positions = new int[finishers.length];
+            count = stageTimes.copyFinishers(finishers, positions);
+        }
+        if (count == 0) {
+            return;
+        }
+
+        ScoringSystem scoring = finishers[0].getChampionship().getScoringSystem();
+        int[] points = new int[count];
+        for (int i = 0; i < count; i++) {
+            points[i] = scoring.pointsFor(positions[i]);
+        }
+        recordResults(finishers, positions, points, count);
     }
 
     /**
@@ -64,31 +237,420 @@ public class RallyRaceResult implements RaceResult {
      *
      * @param driver the driver whose points are being retrieved
      * @return the points earned by the driver in the race
+     * @throws IllegalArgumentException if the driver has no result in this race
      */
     @Override
-    public int getDriverPoints(Driver driver) {
-        return results.get(driver); // retrieve the driver's points from the results map
+    public synchronized int getDriverPoints(Driver driver) {
+        return points[rowOf(driver)]; // retrieve the driver's points from the results
+    }
+
+    /**
+     * Returns the position a specific driver finished in the race.
+     *
+     * @param driver the driver whose position is being retrieved
+     * @return the driver's position in the race
+     * @throws IllegalArgumentException if the driver has no result in this race
+     */
+    public synchronized int getDriverPosition(Driver driver) {
+        return positions[rowOf(driver)];
     }
 
     /**
-     * Returns a list of drivers sorted by their finishing positions in the race.
+     * Returns the position a specific driver finished the power stage of the race in.
+     *
+     * @param driver the driver whose power stage position is being retrieved
+     * @return the driver's power stage position, or 0 if none is recorded
+     * @throws IllegalArgumentException if the driver has no result in this race
+     */
+    public synchronized int getPowerStagePosition(Driver driver) {
+        return powerStages[rowOf(driver)];
+    }
+
+    /**
+     * Returns a list of drivers sorted by their finishing positions in the race. The list is a
+     * new mutable copy, which the caller may change without affecting the race.
      *
      * @return a list of drivers sorted by their positions
      */
     @Override
     public List<Driver> getResults() {
-        // convert the results map entries to a list
-        List<Map.Entry<Driver, Integer>> resultsEntryList = new ArrayList<>(results.entrySet());
+        long start = ChampionshipMetrics.RACE_RESULTS.start();
+        StandingsQueryEvent event = new StandingsQueryEvent();
+        event.begin();
+        List<Driver> results;
+        synchronized (this) {
+            // the columns are already sorted by position
+            results = new ArrayList<>(Arrays.asList(drivers).subList(0, size));
+        }
+        ChampionshipMetrics.RACE_RESULTS.recordSince(start);
+        event.commit("getResults", results.size());
+        return results;
+    }
 
-        // sort the list by driver positions
-        resultsEntryList.sort(Map.Entry.comparingByValue());
+    /**
+     * Returns a range of the results in finishing order, without copying the rest of the field.
+     *
+     * @param offset the number of results to skip
+     * @param limit  the maximum number of results to return
+     * @return a list of at most {@code limit} drivers, starting after the first {@code offset}
+     * @throws IllegalArgumentException if the offset or the limit is negative
+     */
+    public List<Driver> getResults(int offset, int limit) {
+        long start = ChampionshipMetrics.RACE_RESULTS.start();
+        StandingsQueryEvent event = new StandingsQueryEvent();
+        event.begin();
+        List<Driver> results;
+        synchronized (this) {
+            int from = rangeStart(offset, limit);
+            results = Arrays.asList(Arrays.copyOfRange(drivers, from, rangeEnd(from, limit)));
+        }
+        ChampionshipMetrics.RACE_RESULTS.recordSince(start);
+        event.commit("getResults", results.size());
+        return results;
+    }
+
+    /**
+     * Returns the leading results of the race.
+     *
+     * @param count the maximum number of results to return
+     * @return a list of at most {@code count} drivers sorted by their positions
+     * @throws IllegalArgumentException if the count is negative
+     */
+    public List<Driver> getTopResults(int count) {
+        return getResults(0, count);
+    }
+
+    /**
+     * Returns a page of the results with their positions and points.
+     *
+     * @param offset the number of results to skip
+     * @param limit  the maximum number of results in the page
+     * @return the page
+     * @throws IllegalArgumentException if the offset or the limit is negative
+     */
+    public synchronized ResultPage getPage(int offset, int limit) {
+        int from = rangeStart(offset, limit);
+        int to = rangeEnd(from, limit);
+        return new ResultPage(from, size, Arrays.copyOfRange(drivers, from, to),
+                Arrays.copyOfRange(positions, from, to), Arrays.copyOfRange(points, from, to));
+    }
 
-        // create a list of drivers sorted by their positions
-        List<Driver> sortedDrivers = new ArrayList<>();
-        for (Map.Entry<Driver, Integer> entry : resultsEntryList) {
-            sortedDrivers.add(entry.getKey());
+    /**
+     * Passes a range of the results to a consumer in finishing order, without copying them.
+     * The race is locked while the rows are passed, so the consumer sees a consistent field
+     * and should not block or record results.
+     *
+     * @param offset   the number of results to skip
+     * @param limit    the maximum number of results to pass
+     * @param consumer the consumer of the rows
+     * @throws IllegalArgumentException if the offset or the limit is negative
+     */
+    public synchronized void forEachResult(int offset, int limit, ResultRowConsumer consumer) {
+        int from = rangeStart(offset, limit);
+        int to = rangeEnd(from, limit);
+        for (int row = from; row < to; row++) {
+            consumer.accept(drivers[row], positions[row], points[row]);
         }
+    }
+
+    /**
+     * Returns the number of drivers with a recorded result.
+     *
+     * @return the number of recorded results
+     */
+    public synchronized int getFieldSize() {
+        return size;
+    }
+
+    /**
+     * Returns the driver of a result row. The caller must hold the lock of the race.
+     *
+     * @param row the row, in position order
+     * @return the driver of the row
+     */
+    Driver driverAt(int row) {
+        return drivers[row];
+    }
+
+    /**
+     * Returns the position of a result row. The caller must hold the lock of the race.
+     *
+     * @param row the row, in position order
+     * @return the position of the row
+     */
+    int positionAt(int row) {
+        return positions[row];
+    }
+
+    /**
+     * Returns the points of a result row. The caller must hold the lock of the race.
+     *
+     * @param row the row, in position order
+     * @return the points of the row
+     */
+    int pointsAt(int row) {
+        return points[row];
+    }
 
-        return sortedDrivers;
+    /**
+     * Returns the power stage position of a result row. The caller must hold the lock of the race.
+     *
+     * @param row the row, in position order
+     * @return the power stage position of the row, or 0 if none is recorded
+     */
+    int powerStageAt(int row) {
+        return powerStages[row];
+    }
+
+    /**
+     * Returns the number of changes made to the results so far, so a re-score can tell whether
+     * the results it scored are still current. The caller must hold the lock of the race.
+     *
+     * @return the modification count
+     */
+    int getModificationCount() {
+        return modifications;
+    }
+
+    /**
+     * Holds the results unchanged while the season is re-scored: recording a result waits until
+     * {@link #thaw()} is called. Results being recorded when this is called are completed first.
+     */
+    synchronized void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Lets results be recorded again after {@link #freeze()}, waking up the writers waiting for it.
+     */
+    synchronized void thaw() {
+        frozen = false;
+        notifyAll();
+    }
+
+    /**
+     * Replaces the points of every result row, for re-scoring the race. Drivers' totals are not
+     * changed.
+     *
+     * @param rescored the new points of each row, in position order
+     * @throws IllegalStateException if the number of results has changed since the points were computed
+     */
+    synchronized void replacePoints(int[] rescored) {
+        if (rescored.length != size) {
+            throw new IllegalStateException("Results of " + raceName + " changed while re-scoring");
+        }
+        System.arraycopy(rescored, 0, points, 0, size);
+        if (seasonIndex >= 0) {
+            for (int row = 0; row < size; row++) {
+                championship.racePointsChanged(seasonIndex, drivers[row], points[row]);
+            }
+        }
+    }
+
+    /**
+     * Stores a result without adding its points to the driver's total, for restoring
+     * a race whose points are already included in the drivers' totals.
+     *
+     * @param driver     the driver of the result
+     * @param position   the position of the result
+     * @param points     the points of the result, including any power stage bonus
+     * @param powerStage the power stage position of the result, or 0 if none is recorded
+     */
+    synchronized void restoreResult(Driver driver, int position, int points, int powerStage) {
+        awaitThaw();
+        checkChampionship(driver);
+        insertRow(driver, position, points, powerStage);
+    }
+
+    /**
+     * Returns whether the race has been added to a championship's season.
+     *
+     * @return true if the race is part of a season
+     */
+    synchronized boolean isInSeason() {
+        return seasonIndex >= 0;
+    }
+
+    /**
+     * Makes this race part of a championship's season, and reports the points of the results
+     * recorded so far to it. Results recorded later are reported as they are recorded.
+     *
+     * @param manager the championship the race is added to
+     * @param index   the index of the race in the championship
+     * @throws IllegalStateException    if the race has already been added to a championship
+     * @throws IllegalArgumentException if the race has results of drivers from another championship
+     */
+    synchronized void addToSeason(ChampionshipManager manager, int index) {
+        if (seasonIndex >= 0) {
+            throw new IllegalStateException("Race is already added to a championship: " + raceName);
+        }
+        if (championship != null && championship != manager) {
+            throw new IllegalArgumentException("Race has results from a different championship: " + raceName);
+        }
+        championship = manager;
+        seasonIndex = index;
+        for (int row = 0; row < size; row++) {
+            manager.racePointsChanged(index, drivers[row], points[row]);
+        }
+    }
+
+    /**
+     * Returns the first row of a range of results. The caller must hold the lock of the race.
+     *
+     * @param offset the number of results to skip
+     * @param limit  the maximum number of results in the range
+     * @return the first row, at most the field size
+     * @throws IllegalArgumentException if the offset or the limit is negative
+     */
+    private int rangeStart(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative: " + offset + ", " + limit);
+        }
+        return Math.min(offset, size);
+    }
+
+    /**
+     * Returns the end of a range of results, exclusive. The caller must hold the lock of the race.
+     *
+     * @param from  the first row of the range
+     * @param limit the maximum number of results in the range
+     * @return the end of the range, at most the field size
+     */
+    private int rangeEnd(int from, int limit) {
+        return (int) Math.min((long) from + limit, size);
+    }
+
+    /**
+     * Returns the row of a driver's result in the columns.
+     *
+     * @param driver the driver to look up
+     * @return the row of the driver's result
+     * @throws IllegalArgumentException if the driver has no result in this race
+     */
+    private int rowOf(Driver driver) {
+        int row = driver.getChampionship() == championship ? rows.get(driver.getId()) : IntIntMap.MISSING;
+        if (row == IntIntMap.MISSING) {
+            throw new IllegalArgumentException("Driver has no result in " + raceName + ": " + driver.getName());
+        }
+        return row;
+    }
+
+    /**
+     * Checks that a driver can be recorded in this race, which requires every driver of
+     * the field to be registered in the same championship.
+     *
+     * @param driver the driver to check
+     */
+    private void checkChampionship(Driver driver) {
+        ChampionshipManager driverChampionship = driver.getChampionship();
+        if (driverChampionship == null) {
+            throw new IllegalArgumentException("Driver must be registered before recording results: " + driver.getName());
+        }
+        if (championship == null) {
+            championship = driverChampionship;
+        } else if (championship != driverChampionship) {
+            throw new IllegalArgumentException("Driver is registered in a different championship: " + driver.getName());
+        }
+    }
+
+    /**
+     * Waits while the results are frozen for a re-score. The caller must hold the lock of the race.
+     * An interrupt does not end the wait, but is kept for the caller.
+     */
+    private void awaitThaw() {
+        boolean interrupted = false;
+        while (frozen) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stores a driver's result, replacing an earlier result of the driver while keeping its
+     * points and power stage position. The caller must hold the lock of the race.
+     *
+     * @param driver   the driver of the result
+     * @param position the position of the result
+     * @param points   the points earned with the result
+     */
+    private void storeResult(Driver driver, int position, int points) {
+        int racePoints = points;
+        int powerStage = 0;
+        int row = rows.get(driver.getId());
+        if (row != IntIntMap.MISSING) {
+            racePoints += this.points[row]; // the points of an earlier result for this driver still count
+            powerStage = powerStages[row];
+            removeRow(row);
+        }
+        insertRow(driver, position, racePoints, powerStage);
+    }
+
+    /**
+     * Inserts a result after every result with the same or a better position.
+     *
+     * @param driver     the driver of the result
+     * @param position   the position of the result
+     * @param points     the points of the result
+     * @param powerStage the power stage position of the result, or 0 if none
+     */
+    private void insertRow(Driver driver, int position, int points, int powerStage) {
+        if (size == drivers.length) {
+            int capacity = size * 2;
+            drivers = Arrays.copyOf(drivers, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            this.points = Arrays.copyOf(this.points, capacity);
+            powerStages = Arrays.copyOf(powerStages, capacity);
+        }
+
+        // results usually arrive in finishing order, so search backwards from the end
+        int row = size;
+        while (row > 0 && positions[row - 1] > position) {
+            row--;
+        }
+
+        int moved = size - row;
+        System.arraycopy(drivers, row, drivers, row + 1, moved);
+        System.arraycopy(positions, row, positions, row + 1, moved);
+        System.arraycopy(this.points, row, this.points, row + 1, moved);
+        System.arraycopy(powerStages, row, powerStages, row + 1, moved);
+        drivers[row] = driver;
+        positions[row] = position;
+        this.points[row] = points;
+        powerStages[row] = powerStage;
+        size++;
+        modifications++;
+
+        for (int i = row; i < size; i++) {
+            rows.put(drivers[i].getId(), i); // the moved rows have shifted by one
+        }
+
+        if (seasonIndex >= 0) {
+            championship.racePointsChanged(seasonIndex, driver, points);
+        }
+    }
+
+    /**
+     * Removes a result from the columns.
+     *
+     * @param row the row of the result to remove
+     */
+    private void removeRow(int row) {
+        int moved = size - row - 1;
+        System.arraycopy(drivers, row + 1, drivers, row, moved);
+        System.arraycopy(positions, row + 1, positions, row, moved);
+        System.arraycopy(points, row + 1, points, row, moved);
+        System.arraycopy(powerStages, row + 1, powerStages, row, moved);
+        size--;
+        drivers[size] = null;
+
+        for (int i = row; i < size; i++) {
+            rows.put(drivers[i].getId(), i); // the moved rows have shifted by one
+        }
     }
-}
\ No newline at end of file
+}
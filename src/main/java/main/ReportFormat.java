@@ -0,0 +1,10 @@
+package main;
+
+/**
+ * The ReportFormat enum lists the formats a {@link ReportRenderer} can write reports in.
+ */
+public enum ReportFormat {
+    TEXT, // plain text, as printed to the console
+    CSV, // comma-separated values with a header row, quoted as in RFC 4180
+    JSON // one JSON document per report
+}
@@ -0,0 +1,305 @@
+package main;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ReportRenderer class writes championship reports, such as the results of every race of a
+ * season or the standings, as text, CSV or JSON to a channel. A report is encoded into one
+ * reusable buffer that is written to the channel whenever it fills up, so the size of a report
+ * is not limited by memory and rendering it allocates almost nothing.
+ * <p>
+ * Race results are streamed race by race. The rows of a race are copied a chunk at a time into
+ * reusable arrays while the race is locked, and rendered after the lock is released, so a slow
+ * channel never holds up results being recorded. A race whose results change while it is being
+ * rendered may therefore be rendered partly before and partly after the change.
+ * <p>
+ * The text format is the one {@link Main} prints. A ReportRenderer is not thread-safe.
+ */
+public class ReportRenderer {
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16; // the default size of the buffer in bytes
+    static final int CHUNK = 1024; // the number of result rows copied from a race at a time
+
+    private final ReportFormat format; // the format of the reports
+    private final ReportWriter writer; // encodes the reports and writes them to the channel
+    private final Driver[] rowDrivers; // the drivers of the copied rows
+    private final int[] rowPositions; // the positions of the copied rows
+    private final int[] rowPoints; // the points of the copied rows
+    private final ResultRowConsumer copier; // copies a row into the arrays
+    private int rowCount; // the number of copied rows
+
+    /**
+     * Constructs a ReportRenderer writing UTF-8 with a buffer of the default size.
+     *
+     * @param format  the format of the reports
+     * @param channel the channel to write the reports to
+     */
+    public ReportRenderer(ReportFormat format, WritableByteChannel channel) {
+        this(format, channel, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructs a ReportRenderer.
+     *
+     * @param format     the format of the reports
+     * @param channel    the channel to write the reports to
+     * @param charset    the charset of the reports
+     * @param bufferSize the size of the buffer in bytes, at least 64
+     * @throws IllegalArgumentException if the buffer is smaller than 64 bytes
+     */
+    public ReportRenderer(ReportFormat format, WritableByteChannel channel, Charset charset, int bufferSize) {
+        this.format = format;
+        this.writer = new ReportWriter(channel, charset, bufferSize);
+        this.rowDrivers = new Driver[CHUNK];
+        this.rowPositions = new int[CHUNK];
+        this.rowPoints = new int[CHUNK];
+        this.copier = this::copyRow;
+    }
+
+    /**
+     * Returns the format of the reports.
+     *
+     * @return the report format
+     */
+    public ReportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Writes the results of races, each with its drivers' positions and race points, and
+     * flushes them to the channel.
+     *
+     * @param races the races, in the order to write them
+     * @throws IOException if the channel cannot be written
+     */
+    public void renderRaceResults(Iterable<RallyRaceResult> races) throws IOException {
+        switch (format) {
+            case TEXT -> writer.write("===== RACE RESULTS ====\n");
+            case CSV -> writer.write("race,location,position,driver,country,points\n");
+            case JSON -> writer.write("{\"races\":[");
+        }
+
+        boolean first = true;
+        for (RallyRaceResult race : races) {
+            switch (format) {
+                case TEXT -> {
+                    writer.write("Race: ");
+                    writer.write(race.getRaceName());
+                    writer.write(" (");
+                    writer.write(race.getLocation());
+                    writer.write(")\n");
+                }
+                case JSON -> {
+                    writer.write(first ? "{\"name\":" : ",{\"name\":");
+                    writer.writeJsonString(race.getRaceName());
+                    writer.write(",\"location\":");
+                    writer.writeJsonString(race.getLocation());
+                    writer.write(",\"results\":[");
+                }
+                case CSV -> {
+                    // every row repeats the race
+                }
+            }
+            first = false;
+
+            int offset = 0;
+            do {
+                rowCount = 0;
+                race.forEachResult(offset, CHUNK, copier);
+                for (int row = 0; row < rowCount; row++) {
+                    renderResult(race, offset + row == 0, rowDrivers[row], rowPositions[row], rowPoints[row]);
+                }
+                offset += rowCount;
+            } while (rowCount == CHUNK);
+
+            switch (format) {
+                case TEXT -> writer.write('\n');
+                case JSON -> writer.write("]}");
+                case CSV -> {
+                    // rows end with their own line break
+                }
+            }
+        }
+
+        if (format == ReportFormat.JSON) {
+            writer.write("]}");
+        }
+        Arrays.fill(rowDrivers, null); // the renderer should not keep drivers alive
+        writer.flush();
+    }
+
+    /**
+     * Writes the championship standings with the drivers' current points, and flushes them to
+     * the channel.
+     *
+     * @param standings the drivers in standings order
+     * @throws IOException if the channel cannot be written
+     */
+    public void renderStandings(List<Driver> standings) throws IOException {
+        beginStandings();
+        int position = 1;
+        for (Driver driver : standings) {
+            renderStanding(position, driver, driver.getPoints());
+            position++;
+        }
+        endStandings();
+    }
+
+    /**
+     * Writes the championship standings of a snapshot, with the points the drivers had when it
+     * was published, and flushes them to the channel.
+     *
+     * @param snapshot the standings snapshot
+     * @throws IOException if the channel cannot be written
+     */
+    public void renderStandings(StandingsSnapshot snapshot) throws IOException {
+        beginStandings();
+        List<Driver> standings = snapshot.getStandings();
+        for (int i = 0; i < standings.size(); i++) {
+            renderStanding(i + 1, standings.get(i), snapshot.getPointsAt(i + 1));
+        }
+        endStandings();
+    }
+
+    /**
+     * Copies a result row into the arrays.
+     *
+     * @param driver   the driver of the result
+     * @param position the position of the result
+     * @param points   the points of the result
+     */
+    private void copyRow(Driver driver, int position, int points) {
+        rowDrivers[rowCount] = driver;
+        rowPositions[rowCount] = position;
+        rowPoints[rowCount] = points;
+        rowCount++;
+    }
+
+    /**
+     * Writes one result of a race.
+     *
+     * @param race     the race
+     * @param first    whether this is the first result of the race
+     * @param driver   the driver of the result
+     * @param position the position of the result
+     * @param points   the race points of the result
+     * @throws IOException if the channel cannot be written
+     */
+    private void renderResult(RallyRaceResult race, boolean first, Driver driver, int position, int points) throws IOException {
+        switch (format) {
+            case TEXT -> {
+                writer.write("\tPosition ");
+                writer.write(position);
+                writer.write(": ");
+                writer.write(driver.getName());
+                writer.write(" - ");
+                writer.write(points);
+                writer.write(" points\n");
+            }
+            case CSV -> {
+                writer.writeCsvField(race.getRaceName());
+                writer.write(',');
+                writer.writeCsvField(race.getLocation());
+                writer.write(',');
+                writer.write(position);
+                writer.write(',');
+                writer.writeCsvField(driver.getName());
+                writer.write(',');
+                writer.writeCsvField(driver.getCountry());
+                writer.write(',');
+                writer.write(points);
+                writer.write('\n');
+            }
+            case JSON -> {
+                writer.write(first ? "{\"position\":" : ",{\"position\":");
+                writer.write(position);
+                writer.write(",\"name\":");
+                writer.writeJsonString(driver.getName());
+                writer.write(",\"country\":");
+                writer.writeJsonString(driver.getCountry());
+                writer.write(",\"points\":");
+                writer.write(points);
+                writer.write('}');
+            }
+        }
+    }
+
+    /**
+     * Writes the start of the standings.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    private void beginStandings() throws IOException {
+        switch (format) {
+            case TEXT -> {
+                // the text standings have no heading
+            }
+            case CSV -> writer.write("position,driver,country,points\n");
+            case JSON -> writer.write("{\"standings\":[");
+        }
+    }
+
+    /**
+     * Writes one driver of the standings.
+     *
+     * @param position the position of the driver, starting from 1
+     * @param driver   the driver
+     * @param points   the driver's points
+     * @throws IOException if the channel cannot be written
+     */
+    private void renderStanding(int position, Driver driver, int points) throws IOException {
+        switch (format) {
+            case TEXT -> {
+                writer.write(position);
+                writer.write(". ");
+                writer.write(driver.getName());
+                writer.write(" (");
+                writer.write(driver.getCountry());
+                writer.write("): ");
+                writer.write(points);
+                writer.write(" points\n");
+            }
+            case CSV -> {
+                writer.write(position);
+                writer.write(',');
+                writer.writeCsvField(driver.getName());
+                writer.write(',');
+                writer.writeCsvField(driver.getCountry());
+                writer.write(',');
+                writer.write(points);
+                writer.write('\n');
+            }
+            case JSON -> {
+                writer.write(position == 1 ? "{\"position\":" : ",{\"position\":");
+                writer.write(position);
+                writer.write(",\"name\":");
+                writer.writeJsonString(driver.getName());
+                writer.write(",\"country\":");
+                writer.writeJsonString(driver.getCountry());
+                writer.write(",\"points\":");
+                writer.write(points);
+                writer.write('}');
+            }
+        }
+    }
+
+    /**
+     * Writes the end of the standings and flushes them to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    private void endStandings() throws IOException {
+        switch (format) {
+            case TEXT -> writer.write('\n');
+            case JSON -> writer.write("]}");
+            case CSV -> {
+                // rows end with their own line break
+            }
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,257 @@
+package main;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+
+/**
+ * The ReportWriter class encodes text into a reusable byte buffer and writes the buffer to a
+ * channel whenever it fills up, so a report of any size is written with one buffer and no
+ * intermediate strings. ASCII characters and numbers are encoded directly into the buffer, and
+ * other characters with an encoder of the charset, which replaces characters the charset cannot
+ * encode. It is not thread-safe.
+ */
+final class ReportWriter {
+    private static final byte[] MIN_INT = "-2147483648".getBytes(Charset.forName("US-ASCII")); // the one int that cannot be negated
+
+    private final WritableByteChannel channel; // the channel the report is written to
+    private final byte[] bytes; // the encoded bytes not yet written
+    private final ByteBuffer buffer; // a view of the bytes, for the channel and the encoder
+    private final CharsetEncoder encoder; // encodes the characters that are not ASCII
+    private final boolean asciiCompatible; // whether the charset encodes ASCII as single ASCII bytes
+    private int count; // the number of bytes in the buffer
+
+    /**
+     * Constructs a ReportWriter.
+     *
+     * @param channel    the channel to write to
+     * @param charset    the charset of the report
+     * @param bufferSize the size of the buffer in bytes, at least 64
+     * @throws IllegalArgumentException if the buffer is smaller than 64 bytes
+     */
+    ReportWriter(WritableByteChannel channel, Charset charset, int bufferSize) {
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("Buffer must hold at least 64 bytes: " + bufferSize);
+        }
+        this.channel = channel;
+        this.bytes = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(bytes);
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        this.asciiCompatible = Arrays.equals(new String(ascii, Charset.forName("US-ASCII")).getBytes(charset), ascii);
+    }
+
+    /**
+     * Writes an ASCII character.
+     *
+     * @param c the character, below 128
+     * @throws IOException if the channel cannot be written
+     */
+    void write(char c) throws IOException {
+        if (!asciiCompatible) {
+            encode(String.valueOf(c), 0, 1);
+            return;
+        }
+        if (count == bytes.length) {
+            flushBuffer();
+        }
+        bytes[count++] = (byte) c;
+    }
+
+    /**
+     * Writes a string.
+     *
+     * @param text the string
+     * @throws IOException if the channel cannot be written
+     */
+    void write(String text) throws IOException {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c >= 0x80 || !asciiCompatible) {
+                int end = i + 1;
+                while (end < length && (text.charAt(end) >= 0x80 || !asciiCompatible)) {
+                    end++;
+                }
+                encode(text, i, end);
+                i = end;
+                continue;
+            }
+            if (count == bytes.length) {
+                flushBuffer();
+            }
+            bytes[count++] = (byte) c;
+            i++;
+        }
+    }
+
+    /**
+     * Writes an int in decimal.
+     *
+     * @param value the int
+     * @throws IOException if the channel cannot be written
+     */
+    void write(int value) throws IOException {
+        if (!asciiCompatible) {
+            write(Integer.toString(value));
+            return;
+        }
+        if (count + MIN_INT.length > bytes.length) {
+            flushBuffer();
+        }
+        if (value == Integer.MIN_VALUE) {
+            System.arraycopy(MIN_INT, 0, bytes, count, MIN_INT.length);
+            count += MIN_INT.length;
+            return;
+        }
+        if (value < 0) {
+            bytes[count++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = count + digits - 1; i >= count; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        count += digits;
+    }
+
+    /**
+     * Writes a string as a JSON string literal, with quotes and escapes.
+     *
+     * @param text the string
+     * @throws IOException if the channel cannot be written
+     */
+    void writeJsonString(String text) throws IOException {
+        write('"');
+        int from = 0; // the start of the characters that need no escape
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String escape = switch (c) {
+                case '"' -> "\\\"";
+                case '\\' -> "\\\\";
+                case '\n' -> "\\n";
+                case '\r' -> "\\r";
+                case '\t' -> "\\t";
+                default -> c < 0x20 ? String.format("\\u%04x", (int) c) : null;
+            };
+            if (escape != null) {
+                write(text, from, i);
+                write(escape);
+                from = i + 1;
+            }
+        }
+        write(text, from, text.length());
+        write('"');
+    }
+
+    /**
+     * Writes a string as a CSV field, quoted if it contains a comma, a quote or a line break.
+     *
+     * @param text the string
+     * @throws IOException if the channel cannot be written
+     */
+    void writeCsvField(String text) throws IOException {
+        boolean quoted = false;
+        for (int i = 0; i < text.length() && !quoted; i++) {
+            char c = text.charAt(i);
+            quoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quoted) {
+            write(text);
+            return;
+        }
+
+        write('"');
+        int from = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                write(text, from, i + 1);
+                from = i; // the quote is written again, doubling it
+            }
+        }
+        write(text, from, text.length());
+        write('"');
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    void flush() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Writes part of a string.
+     *
+     * @param text the string
+     * @param from the first character to write
+     * @param to   the end of the characters to write, exclusive
+     * @throws IOException if the channel cannot be written
+     */
+    private void write(String text, int from, int to) throws IOException {
+        if (from == 0 && to == text.length()) {
+            write(text);
+        } else if (from < to) {
+            write(text.substring(from, to));
+        }
+    }
+
+    /**
+     * Encodes characters with the encoder of the charset.
+     *
+     * @param text the string holding the characters
+     * @param from the first character to encode
+     * @param to   the end of the characters to encode, exclusive
+     * @throws IOException if the channel cannot be written
+     */
+    private void encode(String text, int from, int to) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text, from, to);
+        encoder.reset();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, buffer.limit(bytes.length).position(count), true);
+            count = buffer.position();
+            if (result.isOverflow()) {
+                flushBuffer();
+            }
+        } while (result.isOverflow());
+        do {
+            result = encoder.flush(buffer.limit(bytes.length).position(count));
+            count = buffer.position();
+            if (result.isOverflow()) {
+                flushBuffer();
+            }
+        } while (result.isOverflow());
+    }
+
+    /**
+     * Writes the buffered bytes to the channel and empties the buffer.
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    private void flushBuffer() throws IOException {
+        buffer.limit(count).position(0);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        count = 0;
+    }
+}
@@ -0,0 +1,488 @@
+package main;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The ResultImporter class streams race results from CSV or NDJSON feeds into a championship.
+ * Input is read line by line, and only the results of the race currently being read are held
+ * in memory, so feeds larger than the heap can be imported. Results of consecutive rows of the
+ * same race are recorded in one batch when the race ends.
+ * <p>
+ * Each row holds the race name, race location, driver name, driver country, position and points.
+ * CSV rows list them in that order, with an optional header row starting with {@code race}, and
+ * fields may be quoted. NDJSON rows are objects with the keys {@code race}, {@code location},
+ * {@code driver}, {@code country}, {@code position} and {@code points}.
+ * Importing produces the same standings as recording every row one by one, in order.
+ */
+public class ResultImporter {
+    private static final int BUFFER_SIZE = 1 << 16; // the size of the read buffer, in characters
+
+    private final ChampionshipManager manager; // the championship the results are imported into
+    private final Map<String, RallyRaceResult> racesByKey; // map from a race's name and location to the race
+    private boolean registerUnknownDrivers; // whether drivers missing from the championship are registered
+
+    private RallyRaceResult currentRace; // the race whose rows are being read, or null before the first row
+    private Driver[] batchDrivers; // the drivers of the buffered rows of the current race
+    private int[] batchPositions; // the positions of the buffered rows
+    private int[] batchPoints; // the points of the buffered rows
+    private int batchSize; // the number of buffered rows
+
+    /**
+     * Constructs a ResultImporter for a championship. The races already in the championship are
+     * indexed once, and drivers are found through the championship's driver index, so rows are
+     * resolved without scanning the driver list.
+     *
+     * @param manager the championship to import results into
+     */
+    public ResultImporter(ChampionshipManager manager) {
+        this.manager = manager;
+        this.racesByKey = new HashMap<>();
+        this.batchDrivers = new Driver[64];
+        this.batchPositions = new int[64];
+        this.batchPoints = new int[64];
+
+        for (RallyRaceResult race : manager.getRaces()) {
+            racesByKey.putIfAbsent(key(race.getRaceName(), race.getLocation()), race);
+        }
+    }
+
+    /**
+     * Sets whether drivers that are not registered in the championship are registered on import,
+     * without a car. When disabled, which is the default, such rows fail the import.
+     *
+     * @param registerUnknownDrivers true to register unknown drivers
+     */
+    public void setRegisterUnknownDrivers(boolean registerUnknownDrivers) {
+        this.registerUnknownDrivers = registerUnknownDrivers;
+    }
+
+    /**
+     * Imports a file, choosing the format by its extension: {@code .csv} for CSV,
+     * and {@code .ndjson}, {@code .jsonl} or {@code .json} for NDJSON.
+     *
+     * @param file the file to import
+     * @return a report of the import
+     * @throws IOException if the file cannot be read, or its extension is not recognized
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (name.endsWith(".csv")) {
+                return importCsv(reader);
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json")) {
+                return importNdjson(reader);
+            }
+        }
+        throw new IOException("Unrecognized result file format: " + file);
+    }
+
+    /**
+     * Imports CSV rows from a reader.
+     *
+     * @param reader the source of the rows
+     * @return a report of the import
+     * @throws IOException if the reader fails
+     * @throws IllegalArgumentException if a row is malformed or names an unknown driver
+     */
+    public ImportReport importCsv(Reader reader) throws IOException {
+        return importRows(reader, false);
+    }
+
+    /**
+     * Imports NDJSON rows from a reader.
+     *
+     * @param reader the source of the rows
+     * @return a report of the import
+     * @throws IOException if the reader fails
+     * @throws IllegalArgumentException if a row is malformed or names an unknown driver
+     */
+    public ImportReport importNdjson(Reader reader) throws IOException {
+        return importRows(reader, true);
+    }
+
+    /**
+     * Reads rows from a reader and records them, flushing the batch of each race when it ends.
+     * A new standings snapshot is published once all rows have been recorded. If a row fails,
+     * the races flushed before it keep their results, and the buffered rows of the race being
+     * read are discarded, so they do not leak into the next import.
+     *
+     * @param reader the source of the rows
+     * @param json   true if the rows are NDJSON, false if they are CSV
+     * @return a report of the import
+     * @throws IOException if the reader fails
+     */
+    private ImportReport importRows(Reader reader, boolean json) throws IOException {
+        long start = System.nanoTime();
+        int driversBefore = manager.getDrivers().size();
+        int racesBefore = manager.getRaces().size();
+        long rows = 0;
+        long lineNumber = 0;
+
+        BufferedReader lines = new BufferedReader(reader, BUFFER_SIZE);
+        String[] fields = new String[6];
+        String line;
+        try {
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    if (json) {
+                        parseJson(line, fields);
+                    } else {
+                        parseCsv(line, fields);
+                        if (lineNumber == 1 && fields[0].equalsIgnoreCase("race")) {
+                            continue; // skip the header row
+                        }
+                    }
+                    addRow(fields);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+                }
+                rows++;
+            }
+            flush();
+        } finally {
+            discardBatch(); // empty after a successful import; holds the failed race's rows otherwise
+        }
+        manager.publishSnapshot(); // readers see the whole import as one new version
+
+        return new ImportReport(rows, manager.getRaces().size() - racesBefore,
+                manager.getDrivers().size() - driversBefore, System.nanoTime() - start);
+    }
+
+    /**
+     * Buffers a parsed row, flushing the previous race first if the row starts a new race.
+     *
+     * @param fields the race, location, driver, country, position and points of the row
+     */
+    private void addRow(String[] fields) {
+        RallyRaceResult race = resolveRace(fields[0], fields[1]);
+        if (race != currentRace) {
+            flush();
+            currentRace = race;
+        }
+
+        if (batchSize == batchDrivers.length) {
+            int capacity = batchSize * 2;
+            batchDrivers = Arrays.copyOf(batchDrivers, capacity);
+            batchPositions = Arrays.copyOf(batchPositions, capacity);
+            batchPoints = Arrays.copyOf(batchPoints, capacity);
+        }
+        batchDrivers[batchSize] = resolveDriver(fields[2], fields[3]);
+        batchPositions[batchSize] = parseInt(fields[4], "position");
+        batchPoints[batchSize] = parseInt(fields[5], "points");
+        batchSize++;
+    }
+
+    /**
+     * Records the buffered rows of the current race.
+     */
+    private void flush() {
+        if (batchSize > 0) {
+            currentRace.recordResults(batchDrivers, batchPositions, batchPoints, batchSize);
+            Arrays.fill(batchDrivers, 0, batchSize, null);
+            batchSize = 0;
+        }
+    }
+
+    /**
+     * Drops the buffered rows and forgets the current race, so the next import starts afresh.
+     */
+    private void discardBatch() {
+        Arrays.fill(batchDrivers, 0, batchSize, null);
+        batchSize = 0;
+        currentRace = null;
+    }
+
+    /**
+     * Finds the race with a name and location, adding a new race to the championship if there is none.
+     *
+     * @param name     the name of the race
+     * @param location the location of the race
+     * @return the race
+     */
+    private RallyRaceResult resolveRace(String name, String location) {
+        if (currentRace != null && currentRace.getRaceName().equals(name) && currentRace.getLocation().equals(location)) {
+            return currentRace; // rows of the same race are usually consecutive
+        }
+
+        return racesByKey.computeIfAbsent(key(name, location), key -> {
+            RallyRaceResult race = new RallyRaceResult(name, location);
+            manager.addRaceResult(race);
+            return race;
+        });
+    }
+
+    /**
+     * Finds the registered driver with a name and country.
+     *
+     * @param name    the name of the driver
+     * @param country the country of the driver
+     * @return the driver
+     */
+    private Driver resolveDriver(String name, String country) {
+        Driver driver = manager.findDriver(name, country);
+        if (driver == null) {
+            if (!registerUnknownDrivers) {
+                throw new IllegalArgumentException("Unknown driver: " + name + " (" + country + ")");
+            }
+            driver = new Driver(name, country, null);
+            manager.registerDriver(driver);
+        }
+        return driver;
+    }
+
+    /**
+     * Returns the lookup key of a name paired with a country or location.
+     *
+     * @param name  the name
+     * @param place the country or location
+     * @return the lookup key
+     */
+    private static String key(String name, String place) {
+        return name + '\u0000' + place;
+    }
+
+    /**
+     * Parses an integer field.
+     *
+     * @param value the text of the field
+     * @param field the name of the field, for error messages
+     * @return the parsed value
+     */
+    private static int parseInt(String value, String field) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    /**
+     * Splits a CSV line into six fields. Fields may be quoted with double quotes,
+     * and a doubled double quote inside a quoted field stands for one double quote.
+     *
+     * @param line   the line to parse
+     * @param fields the array receiving the fields
+     */
+    static void parseCsv(String line, String[] fields) {
+        int field = 0;
+        int index = 0;
+        int length = line.length();
+        StringBuilder quoted = null;
+
+        while (true) {
+            if (field == fields.length) {
+                throw new IllegalArgumentException("Expected " + fields.length + " fields");
+            }
+
+            if (index < length && line.charAt(index) == '"') {
+                // quoted field, which may contain commas and escaped quotes
+                if (quoted == null) {
+                    quoted = new StringBuilder();
+                }
+                quoted.setLength(0);
+                index++;
+                while (true) {
+                    if (index >= length) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    char c = line.charAt(index++);
+                    if (c == '"') {
+                        if (index < length && line.charAt(index) == '"') {
+                            quoted.append('"');
+                            index++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+                fields[field++] = quoted.toString();
+                if (index < length && line.charAt(index) != ',') {
+                    throw new IllegalArgumentException("Unexpected character after quoted field");
+                }
+            } else {
+                int end = line.indexOf(',', index);
+                if (end < 0) {
+                    end = length;
+                }
+                fields[field++] = line.substring(index, end);
+                index = end;
+            }
+
+            if (index >= length) {
+                break;
+            }
+            index++; // skip the comma
+        }
+
+        if (field != fields.length) {
+            throw new IllegalArgumentException("Expected " + fields.length + " fields, found " + field);
+        }
+    }
+
+    /**
+     * Parses a flat NDJSON object into six fields. Values may be strings or numbers.
+     *
+     * @param line   the line to parse
+     * @param fields the array receiving the race, location, driver, country, position and points
+     */
+    static void parseJson(String line, String[] fields) {
+        Arrays.fill(fields, null);
+        JsonCursor cursor = new JsonCursor(line);
+        cursor.expect('{');
+        if (!cursor.consume('}')) {
+            do {
+                String name = cursor.readString();
+                cursor.expect(':');
+                String value = cursor.peek() == '"' ? cursor.readString() : cursor.readNumber();
+                int index = switch (name) {
+                    case "race" -> 0;
+                    case "location" -> 1;
+                    case "driver" -> 2;
+                    case "country" -> 3;
+                    case "position" -> 4;
+                    case "points" -> 5;
+                    default -> -1; // unknown keys are ignored
+                };
+                if (index >= 0) {
+                    fields[index] = value;
+                }
+            } while (cursor.consume(','));
+            cursor.expect('}');
+        }
+
+        String[] names = {"race", "location", "driver", "country", "position", "points"};
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i] == null) {
+                throw new IllegalArgumentException("Missing key: " + names[i]);
+            }
+        }
+    }
+
+    /**
+     * A cursor over a line of JSON, reading the tokens of a flat object.
+     */
+    private static final class JsonCursor {
+        private final String text; // the line being read
+        private int index; // the index of the next character to read
+
+        private JsonCursor(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Returns the next non-whitespace character without consuming it.
+         *
+         * @return the next character, or 0 at the end of the line
+         */
+        private char peek() {
+            while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+                index++;
+            }
+            return index < text.length() ? text.charAt(index) : 0;
+        }
+
+        /**
+         * Consumes the next character if it is the expected one.
+         *
+         * @param c the expected character
+         * @return true if the character was consumed
+         */
+        private boolean consume(char c) {
+            if (peek() == c) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Consumes the next character, which must be the expected one.
+         *
+         * @param c the expected character
+         */
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw new IllegalArgumentException("Expected '" + c + "' at column " + (index + 1));
+            }
+        }
+
+        /**
+         * Reads a string token, resolving escape sequences.
+         *
+         * @return the value of the string
+         */
+        private String readString() {
+            expect('"');
+            StringBuilder value = null;
+            int start = index;
+            while (true) {
+                if (index >= text.length()) {
+                    throw new IllegalArgumentException("Unterminated string");
+                }
+                char c = text.charAt(index++);
+                if (c == '"') {
+                    return value == null ? text.substring(start, index - 1) : value.toString();
+                }
+                if (c == '\\') {
+                    if (value == null) {
+                        value = new StringBuilder().append(text, start, index - 1);
+                    }
+                    if (index >= text.length()) {
+                        throw new IllegalArgumentException("Unterminated string");
+                    }
+                    char escaped = text.charAt(index++);
+                    switch (escaped) {
+                        case 'n' -> value.append('\n');
+                        case 't' -> value.append('\t');
+                        case 'r' -> value.append('\r');
+                        case 'b' -> value.append('\b');
+                        case 'f' -> value.append('\f');
+                        case 'u' -> {
+                            if (index + 4 > text.length()) {
+                                throw new IllegalArgumentException("Invalid unicode escape");
+                            }
+                            value.append((char) Integer.parseInt(text.substring(index, index + 4), 16));
+                            index += 4;
+                        }
+                        default -> value.append(escaped); // quote, backslash and slash
+                    }
+                } else if (value != null) {
+                    value.append(c);
+                }
+            }
+        }
+
+        /**
+         * Reads a number token as text.
+         *
+         * @return the text of the number
+         */
+        private String readNumber() {
+            peek();
+            int start = index;
+            while (index < text.length() && "+-0123456789.eE".indexOf(text.charAt(index)) >= 0) {
+                index++;
+            }
+            if (start == index) {
+                throw new IllegalArgumentException("Expected a value at column " + (index + 1));
+            }
+            return text.substring(start, index);
+        }
+    }
+}
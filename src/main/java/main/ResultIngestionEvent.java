@@ -0,0 +1,43 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The ResultIngestionEvent class is the JFR event emitted when results are recorded into a race.
+ * Only recordings slower than the threshold are kept by default, since results arrive at a high
+ * rate; the threshold can be lowered in the recording settings.
+ */
+@Name("main.ResultIngestion")
+@Label("Result Ingestion")
+@Category("Championship")
+@Description("Recording of one or more results of a race")
+@StackTrace(false)
+@Threshold("20 us")
+class ResultIngestionEvent extends Event {
+    @Label("Race")
+    String race; // the name of the race
+
+    @Label("Results")
+    int results; // the number of results recorded
+
+    /**
+     * Ends the event and commits it if it is enabled and over the threshold.
+     *
+     * @param race    the name of the race
+     * @param results the number of results recorded
+     */
+    void commit(String race, int results) {
+        end();
+        if (shouldCommit()) {
+            this.race = race;
+            this.results = results;
+            commit();
+        }
+    }
+}
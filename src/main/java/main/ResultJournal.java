@@ -0,0 +1,754 @@
+package main;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * The ResultJournal class is an append-only write-ahead journal in front of a ChampionshipManager.
+ * Driver registrations, added races and recorded results go through the journal, which checks
+ * them, logs them, and only then applies them to the championship, in the order they were
+ * logged. Opening an existing journal replays it, rebuilding the drivers, points and races
+ * exactly. Drivers and races must be added through the journal for their results to be
+ * journaled, and power stage results and re-scores of a journaled championship must go through
+ * it too, since they change points that replaying the other records would not rebuild.
+ * <p>
+ * Records are synced to disk with group commit: the first writer waiting for durability waits
+ * for the commit window, then syncs every record appended so far with one {@code fsync}, so
+ * concurrent writers share the cost. A longer window groups more records per sync at the cost
+ * of latency. The changes of a group are applied once it is on disk, so the championship never
+ * shows a change that a crash could lose. Writers can also choose not to wait, in which case
+ * changes are applied as soon as they are logged, a background thread syncs the journal once
+ * per window, and a crash can lose the records of the last window.
+ * <p>
+ * Each record is framed by its length and a CRC32 checksum, so a record torn by a crash is
+ * detected on replay, and the journal is truncated to the last complete record.
+ */
+public class ResultJournal implements Closeable {
+    static final byte REGISTER_DRIVER = 1; // record type of a driver registration
+    static final byte ADD_RACE = 2; // record type of an added race
+    static final byte RECORD_RESULT = 3; // record type of a recorded result
+    static final byte RECORD_POWER_STAGE = 4; // record type of a recorded power stage result
+    static final byte RESCORE = 5; // record type of a season re-scored under a table scoring system
+    static final int FRAME_HEADER_SIZE = 8; // the payload length and checksum preceding each record
+
+    private final FileChannel channel; // the journal file, positioned at its end
+    private final ChampionshipManager manager; // the championship the journal applies records to
+    private final long commitWindowNanos; // how long a sync waits to group more records
+    private final boolean waitForSync; // whether writers wait until their records are synced
+    private final Map<RallyRaceResult, Integer> raceIndices; // the index of each journaled race
+    private final Map<RallyCar, Integer> carIndices; // the index of each journaled car
+    private final Map<Driver, Integer> driverIds; // the registration id of each journaled driver
+    private final Set<String> driverKeys; // the name and country of each journaled driver
+    private final Object appendLock; // guards the append buffer and the order of applied records
+    private final Object syncMonitor; // guards the sync state, and is notified when a sync ends
+    private final Object flushLock; // serializes writes to the channel
+    private final CRC32 checksum; // computes record checksums, guarded by the append lock
+    private final Thread flusher; // the background syncing thread when writers do not wait, or null
+
+    private ByteBuffer appendBuffer; // records appended since the last sync
+    private ByteBuffer writeBuffer; // the spare buffer, swapped in while the journal is being written
+    private List<Runnable> appendChanges; // the changes of the records appended since the last sync
+    private List<Runnable> writeChanges; // the spare list, swapped in while the journal is being written
+    private long appendedSequence; // the number of records appended
+    private long syncedSequence; // the number of records synced to disk
+    private boolean syncing; // whether a writer is leading a sync
+    private IOException failure; // the error that made the journal unusable, if any
+    private volatile boolean closed; // whether the journal has been closed
+    private long replayedRecords; // the number of records replayed when the journal was opened
+
+    /**
+     * Constructs a ResultJournal over an open channel. Use {@link #open} to create one.
+     */
+    private ResultJournal(FileChannel channel, ChampionshipManager manager, long commitWindowNanos, boolean waitForSync) {
+        this.channel = channel;
+        this.manager = manager;
+        this.commitWindowNanos = commitWindowNanos;
+        this.waitForSync = waitForSync;
+        this.raceIndices = new IdentityHashMap<>();
+        this.carIndices = new IdentityHashMap<>();
+        this.driverIds = new IdentityHashMap<>();
+        this.driverKeys = new HashSet<>();
+        this.appendLock = new Object();
+        this.syncMonitor = new Object();
+        this.flushLock = new Object();
+        this.checksum = new CRC32();
+        this.appendBuffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        this.writeBuffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        this.appendChanges = new ArrayList<>();
+        this.writeChanges = new ArrayList<>();
+
+        if (waitForSync) {
+            this.flusher = null;
+        } else {
+            this.flusher = new Thread(this::runFlusher, "result-journal-flusher");
+            this.flusher.setDaemon(true);
+        }
+    }
+
+    /**
+     * Opens a journal file, creating it if needed, and replays its records into a championship.
+     *
+     * @param file          the journal file
+     * @param manager       the championship to apply records to, which must have no drivers or races
+     * @param commitWindow  how long, in microseconds, a sync waits to group more records; 0 syncs at once
+     * @param waitForSync   true if writers wait until their records are on disk, false to sync in the background
+     * @return the opened journal
+     * @throws IOException if the journal cannot be read or opened
+     * @throws IllegalStateException if the championship is not empty
+     */
+    public static ResultJournal open(Path file, ChampionshipManager manager, long commitWindow, boolean waitForSync)
+            throws IOException {
+        if (commitWindow < 0) {
+            throw new IllegalArgumentException("Commit window must not be negative: " + commitWindow);
+        }
+        if (!manager.getDrivers().isEmpty() || !manager.getRaces().isEmpty()) {
+            throw new IllegalStateException("A journal can only be opened on an empty championship");
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ResultJournal journal = new ResultJournal(channel, manager, commitWindow * 1000, waitForSync);
+            journal.replay();
+            if (journal.flusher != null) {
+                journal.flusher.start();
+            }
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of records replayed when the journal was opened.
+     *
+     * @return the number of replayed records
+     */
+    public long getReplayedRecords() {
+        return replayedRecords;
+    }
+
+    /**
+     * Registers a driver in the championship, logging the registration and the driver's car.
+     *
+     * @param driver the driver to register
+     * @throws IOException if the journal cannot be written
+     * @throws IllegalStateException if the driver is already registered
+     * @throws IllegalArgumentException if a driver with the same name and country is already registered
+     */
+    public void registerDriver(Driver driver) throws IOException {
+        long sequence;
+        synchronized (appendLock) {
+            checkWritable();
+            if (driver.getChampionship() != null || driverIds.containsKey(driver)) {
+                throw new IllegalStateException("Driver is already registered: " + driver.getName());
+            }
+            String key = driver.getName() + '\0' + driver.getCountry();
+            if (driverKeys.contains(key)) {
+                throw new IllegalArgumentException("A driver with the same name and country is already registered: "
+                        + driver.getName() + " (" + driver.getCountry() + ")");
+            }
+            RallyCar car = driver.getCar();
+            Integer carIndex = car == null ? Integer.valueOf(-1) : carIndices.get(car);
+            boolean newCar = carIndex == null;
+            if (newCar) {
+                checkCarType(car);
+                carIndex = carIndices.size();
+            }
+            if (newCar) {
+                carIndices.put(car, carIndex);
+            }
+            driverIds.put(driver, driverIds.size()); // the manager gives the same id when the record is applied
+            driverKeys.add(key);
+
+            int start = beginRecord(REGISTER_DRIVER);
+            putString(driver.getName());
+            putString(driver.getCountry());
+            ensure(5);
+            appendBuffer.putInt(carIndex);
+            if (newCar) {
+                appendBuffer.put((byte) (car instanceof AsphaltCar ? ChampionshipSnapshot.ASPHALT_CAR : ChampionshipSnapshot.GRAVEL_CAR));
+                putString(car.getMake());
+                putString(car.getModel());
+                ensure(12);
+                appendBuffer.putInt(car.getHorsepower());
+                appendBuffer.putDouble(car instanceof AsphaltCar asphaltCar
+                        ? asphaltCar.getDownforce() : ((GravelCar) car).getSuspensionTravel());
+            } else {
+                appendBuffer.put((byte) 0); // the car is defined by an earlier record, or the driver has none
+            }
+            sequence = endRecord(start, () -> manager.registerDriver(driver));
+        }
+        awaitSync(sequence);
+    }
+
+    /**
+     * Adds a race to the championship, logging its name and location.
+     * Results can be journaled for the race once it has been added.
+     *
+     * @param race the race to add, with no results recorded yet
+     * @throws IOException if the journal cannot be written
+     * @throws IllegalArgumentException if the race already has results
+     * @throws IllegalStateException if the race has already been added to a championship
+     */
+    public void addRaceResult(RallyRaceResult race) throws IOException {
+        if (race.getFieldSize() > 0) {
+            throw new IllegalArgumentException("Races must be journaled before their results: " + race.getRaceName());
+        }
+
+        long sequence;
+        synchronized (appendLock) {
+            checkWritable();
+            if (raceIndices.containsKey(race)) {
+                throw new IllegalArgumentException("Race is already journaled: " + race.getRaceName());
+            }
+            if (race.isInSeason()) {
+                throw new IllegalStateException("Race is already added to a championship: " + race.getRaceName());
+            }
+            raceIndices.put(race, raceIndices.size());
+
+            int start = beginRecord(ADD_RACE);
+            putString(race.getRaceName());
+            putString(race.getLocation());
+            sequence = endRecord(start, () -> manager.addRaceResult(race));
+        }
+        awaitSync(sequence);
+    }
+
+    /**
+     * Records the result of a driver in a race, logging it before applying it.
+     *
+     * @param race     the race, which must have been added through this journal
+     * @param driver   the driver whose result is being recorded, who must have been registered through this journal
+     * @param position the position the driver finished in the race
+     * @param points   the points earned by the driver in the race
+     * @throws IOException if the journal cannot be written
+     * @throws IllegalArgumentException if the race or the driver was not added through this journal
+     */
+    public void recordResult(RallyRaceResult race, Driver driver, int position, int points) throws IOException {
+        long sequence;
+        synchronized (appendLock) {
+            checkWritable();
+            Integer raceIndex = raceIndices.get(race);
+            if (raceIndex == null) {
+                throw new IllegalArgumentException("Race was not added through the journal: " + race.getRaceName());
+            }
+            Integer driverId = driverIds.get(driver);
+            if (driverId == null) {
+                throw new IllegalArgumentException("Driver was not registered through the journal: " + driver.getName());
+            }
+
+            int start = beginRecord(RECORD_RESULT);
+            ensure(16);
+            appendBuffer.putInt(raceIndex);
+            appendBuffer.putInt(driverId);
+            appendBuffer.putInt(position);
+            appendBuffer.putInt(points);
+            sequence = endRecord(start, () -> race.recordResult(driver, position, points));
+        }
+        awaitSync(sequence);
+    }
+
+    /**
+     * Records the power stage result of a driver who has a result in a race, logging it before
+     * applying it. Records appended before it are applied first, so the result is checked
+     * against every earlier result.
+     *
+     * @param race          the race, which must have been added through this journal
+     * @param driver        the driver whose power stage result is being recorded
+     * @param stagePosition the position the driver finished the power stage in, starting from 1
+     * @throws IOException if the journal cannot be written
+     * @throws IllegalArgumentException if the position is not positive, the race was not added
+     *                                  through this journal, or the driver has no result in it
+     * @throws IllegalStateException if the driver's power stage result is already recorded
+     */
+    public void recordPowerStage(RallyRaceResult race, Driver driver, int stagePosition) throws IOException {
+        if (stagePosition < 1) {
+            throw new IllegalArgumentException("Power stage position must be positive: " + stagePosition);
+        }
+
+        long sequence = -1;
+        while (sequence < 0) {
+            synchronized (appendLock) {
+                checkWritable();
+                if (appendChanges.isEmpty()) {
+                    Integer raceIndex = raceIndices.get(race);
+                    if (raceIndex == null) {
+                        throw new IllegalArgumentException("Race was not added through the journal: " + race.getRaceName());
+                    }
+                    if (race.getPowerStagePosition(driver) != 0) {
+                        throw new IllegalStateException("Power stage result is already recorded for " + driver.getName());
+                    }
+
+                    int start = beginRecord(RECORD_POWER_STAGE);
+                    ensure(12);
+                    appendBuffer.putInt(raceIndex);
+                    appendBuffer.putInt(driver.getId());
+                    appendBuffer.putInt(stagePosition);
+                    sequence = endRecord(start, () -> race.recordPowerStage(driver, stagePosition));
+                }
+            }
+            if (sequence < 0) {
+                sync(); // earlier records wait for a sync; applying them puts every earlier result in the race
+            }
+        }
+        awaitSync(sequence);
+    }
+
+    /**
+     * Re-scores every race of the championship under a scoring system, logging it before
+     * applying it, as {@link ChampionshipManager#rescore(ScoringSystem)} does.
+     *
+     * @param scoring the scoring system to apply
+     * @throws IOException if the journal cannot be written
+     * @throws IllegalArgumentException if the scoring system is not a TableScoringSystem
+     */
+    public void rescore(ScoringSystem scoring) throws IOException {
+        if (!(scoring instanceof TableScoringSystem table)) {
+            throw new IllegalArgumentException("Unsupported scoring system: " + scoring.getClass().getName());
+        }
+
+        long sequence;
+        synchronized (appendLock) {
+            checkWritable();
+            int start = beginRecord(RESCORE);
+            putInts(table.getPositionPoints());
+            putInts(table.getPowerStagePoints());
+            ensure(4);
+            appendBuffer.putInt(table.getCountedResults());
+            sequence = endRecord(start, () -> manager.rescore(table));
+        }
+        awaitSync(sequence);
+    }
+
+    /**
+     * Syncs every appended record to disk.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    public void sync() throws IOException {
+        long sequence;
+        synchronized (appendLock) {
+            sequence = appendedSequence;
+        }
+        if (waitForSync) {
+            awaitSync(sequence);
+        } else {
+            flush();
+        }
+    }
+
+    /**
+     * Syncs the remaining records and closes the journal.
+     *
+     * @throws IOException if the journal cannot be written or closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (flusher != null) {
+            // wake the flusher rather than interrupting it, since an interrupt would close the channel
+            LockSupport.unpark(flusher);
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Waits until a record is synced, leading the sync if no other writer is.
+     * Returns at once if writers do not wait for syncs.
+     *
+     * @param sequence the sequence number of the record
+     * @throws IOException if the journal cannot be written
+     */
+    private void awaitSync(long sequence) throws IOException {
+        if (!waitForSync) {
+            return;
+        }
+
+        synchronized (syncMonitor) {
+            while (true) {
+                if (failure != null) {
+                    throw new IOException("Journal failed", failure);
+                }
+                if (syncedSequence >= sequence) {
+                    return;
+                }
+                if (!syncing) {
+                    syncing = true; // this writer leads the next sync
+                    break;
+                }
+                try {
+                    syncMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the journal sync");
+                }
+            }
+        }
+
+        try {
+            if (commitWindowNanos > 0) {
+                LockSupport.parkNanos(commitWindowNanos); // let other writers append to this group
+            }
+            flush();
+        } finally {
+            synchronized (syncMonitor) {
+                syncing = false;
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Writes every appended record to the file and syncs it, applies the changes waiting for the
+     * sync in the order they were logged, then wakes up waiting writers. Returns at once if no
+     * record was appended since the last sync.
+     *
+     * @throws IOException if the journal cannot be written
+     */
+    private void flush() throws IOException {
+        synchronized (flushLock) {
+            long sequence;
+            ByteBuffer buffer;
+            List<Runnable> changes;
+            synchronized (appendLock) {
+                sequence = appendedSequence;
+                if (sequence == syncedSequence) {
+                    return; // nothing to sync; the synced sequence only changes under the flush lock
+                }
+                buffer = appendBuffer;
+                appendBuffer = writeBuffer; // writers keep appending while this group is written
+                writeBuffer = buffer;
+                changes = appendChanges;
+                appendChanges = writeChanges;
+                writeChanges = changes;
+            }
+
+            try {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                synchronized (syncMonitor) {
+                    failure = e;
+                    syncMonitor.notifyAll();
+                }
+                throw e;
+            } finally {
+                buffer.clear();
+            }
+
+            try {
+                for (Runnable change : changes) {
+                    change.run();
+                }
+            } catch (RuntimeException e) {
+                synchronized (syncMonitor) {
+                    failure = new IOException("Journaled change could not be applied", e);
+                    syncMonitor.notifyAll();
+                }
+                throw e;
+            } finally {
+                changes.clear();
+            }
+
+            synchronized (syncMonitor) {
+                syncedSequence = Math.max(syncedSequence, sequence);
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Syncs the journal once per commit window until it is closed, when writers do not wait.
+     */
+    private void runFlusher() {
+        long window = Math.max(commitWindowNanos, 1_000_000); // sync at least every millisecond
+        while (!closed) {
+            LockSupport.parkNanos(window);
+            try {
+                flush();
+            } catch (IOException e) {
+                return; // the failure is reported to the next writer
+            }
+        }
+    }
+
+    /**
+     * Replays the records of the journal file into the championship, truncating a torn tail record.
+     *
+     * @throws IOException if the journal cannot be read
+     */
+    private void replay() throws IOException {
+        List<RallyRaceResult> races = new ArrayList<>();
+        List<RallyCar> cars = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        long position = 0;
+        long size = channel.size();
+
+        while (position + FRAME_HEADER_SIZE <= size) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            int expected = header.getInt(4);
+            if (length <= 0 || position + FRAME_HEADER_SIZE + length > size) {
+                break; // torn record
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(payload, position + FRAME_HEADER_SIZE);
+            checksum.reset();
+            checksum.update(payload.array(), 0, length);
+            if ((int) checksum.getValue() != expected) {
+                break; // torn record
+            }
+
+            applyRecord(payload, races, cars);
+            position += FRAME_HEADER_SIZE + length;
+            replayedRecords++;
+        }
+
+        if (position < size) {
+            channel.truncate(position); // drop the torn tail, so new records follow the last complete one
+        }
+        channel.position(position);
+        appendedSequence = replayedRecords;
+        syncedSequence = replayedRecords;
+
+        for (int i = 0; i < races.size(); i++) {
+            raceIndices.put(races.get(i), i);
+        }
+        for (int i = 0; i < cars.size(); i++) {
+            carIndices.put(cars.get(i), i);
+        }
+        for (Driver driver : manager.getDrivers()) {
+            driverIds.put(driver, driver.getId());
+            driverKeys.add(driver.getName() + '\0' + driver.getCountry());
+        }
+    }
+
+    /**
+     * Applies a replayed record to the championship.
+     *
+     * @param payload the payload of the record
+     * @param races   the races added so far, by index
+     * @param cars    the cars defined so far, by index
+     */
+    private void applyRecord(ByteBuffer payload, List<RallyRaceResult> races, List<RallyCar> cars) throws IOException {
+        byte type = payload.get();
+        switch (type) {
+            case REGISTER_DRIVER -> {
+                String name = getString(payload);
+                String country = getString(payload);
+                int carIndex = payload.getInt();
+                byte carType = payload.get();
+                if (carType != 0) {
+                    String make = getString(payload);
+                    String model = getString(payload);
+                    int horsepower = payload.getInt();
+                    double value = payload.getDouble();
+                    cars.add(carType == ChampionshipSnapshot.ASPHALT_CAR
+                            ? new AsphaltCar(make, model, horsepower, value)
+                            : new GravelCar(make, model, horsepower, value));
+                }
+                manager.registerDriver(new Driver(name, country, carIndex < 0 ? null : cars.get(carIndex)));
+            }
+            case ADD_RACE -> {
+                RallyRaceResult race = new RallyRaceResult(getString(payload), getString(payload));
+                races.add(race);
+                manager.addRaceResult(race);
+            }
+            case RECORD_RESULT -> {
+                RallyRaceResult race = races.get(payload.getInt());
+                Driver driver = manager.getDrivers().get(payload.getInt());
+                race.recordResult(driver, payload.getInt(), payload.getInt());
+            }
+            case RECORD_POWER_STAGE -> {
+                RallyRaceResult race = races.get(payload.getInt());
+                Driver driver = manager.getDrivers().get(payload.getInt());
+                race.recordPowerStage(driver, payload.getInt());
+            }
+            case RESCORE -> {
+                int[] positionPoints = getInts(payload);
+                int[] powerStagePoints = getInts(payload);
+                manager.rescore(new TableScoringSystem(positionPoints, powerStagePoints, payload.getInt()));
+            }
+            default -> throw new IOException("Unknown journal record type: " + type);
+        }
+    }
+
+    /**
+     * Starts a record in the append buffer, leaving room for its frame header.
+     *
+     * @param type the record type
+     * @return the offset of the record in the append buffer
+     */
+    private int beginRecord(byte type) {
+        ensure(FRAME_HEADER_SIZE + 1);
+        int start = appendBuffer.position();
+        appendBuffer.position(start + FRAME_HEADER_SIZE);
+        appendBuffer.put(type);
+        return start;
+    }
+
+    /**
+     * Completes a record by filling in its frame header, and applies its change to the
+     * championship, or queues it until the record is synced if writers wait for syncs.
+     *
+     * @param start  the offset of the record in the append buffer
+     * @param change applies the record to the championship
+     * @return the sequence number of the record
+     */
+    private long endRecord(int start, Runnable change) {
+        int length = appendBuffer.position() - start - FRAME_HEADER_SIZE;
+        checksum.reset();
+        checksum.update(appendBuffer.array(), start + FRAME_HEADER_SIZE, length);
+        appendBuffer.putInt(start, length);
+        appendBuffer.putInt(start + 4, (int) checksum.getValue());
+        if (waitForSync) {
+            appendChanges.add(change);
+        } else {
+            change.run();
+        }
+        return ++appendedSequence;
+    }
+
+    /**
+     * Grows the append buffer if it has less room than needed. A record never spans two buffers.
+     *
+     * @param bytes the number of bytes about to be appended
+     */
+    private void ensure(int bytes) {
+        if (appendBuffer.remaining() < bytes) {
+            int capacity = Math.max(appendBuffer.capacity() * 2, appendBuffer.position() + bytes);
+            ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+            appendBuffer.flip();
+            grown.put(appendBuffer);
+            appendBuffer = grown;
+        }
+    }
+
+    /**
+     * Appends a length-prefixed UTF-8 string.
+     *
+     * @param value the string to append
+     */
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(4 + bytes.length);
+        appendBuffer.putInt(bytes.length);
+        appendBuffer.put(bytes);
+    }
+
+    /**
+     * Appends a length-prefixed array of ints.
+     *
+     * @param values the ints to append
+     */
+    private void putInts(int[] values) {
+        ensure(4 + values.length * 4);
+        appendBuffer.putInt(values.length);
+        for (int value : values) {
+            appendBuffer.putInt(value);
+        }
+    }
+
+    /**
+     * Reads a length-prefixed array of ints.
+     *
+     * @param payload the buffer to read from
+     * @return the ints
+     */
+    private static int[] getInts(ByteBuffer payload) {
+        int[] values = new int[payload.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = payload.getInt();
+        }
+        return values;
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string.
+     *
+     * @param payload the buffer to read from
+     * @return the string
+     */
+    private static String getString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getInt()];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Fills a buffer from the journal file.
+     *
+     * @param buffer   the buffer to fill
+     * @param position the file offset to read from
+     */
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Checks that a car can be journaled.
+     *
+     * @param car the car to check
+     */
+    private static void checkCarType(RallyCar car) {
+        if (!(car instanceof AsphaltCar) && !(car instanceof GravelCar)) {
+            throw new IllegalArgumentException("Unsupported car type: " + car.getClass().getName());
+        }
+    }
+
+    /**
+     * Checks that the journal can accept records. Must be called while holding the append lock.
+     *
+     * @throws IOException if the journal is closed or has failed
+     */
+    private void checkWritable() throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed");
+        }
+        synchronized (syncMonitor) {
+            if (failure != null) {
+                throw new IOException("Journal failed", failure);
+            }
+        }
+    }
+}
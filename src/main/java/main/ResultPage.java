@@ -0,0 +1,108 @@
+package main;
+
+/**
+ * The ResultPage class is an immutable page of a race's results: a range of consecutive rows
+ * in finishing order, copied into primitive columns, together with the size of the whole field
+ * when the page was taken.
+ */
+public class ResultPage {
+    private final int offset; // the index of the first row of the page in the results
+    private final int fieldSize; // the number of results in the race when the page was taken
+    private final Driver[] drivers; // the drivers of the page, in finishing order
+    private final int[] positions; // the position of each driver of the page
+    private final int[] points; // the points of each driver of the page
+
+    /**
+     * Constructs a ResultPage from copied columns.
+     *
+     * @param offset    the index of the first row of the page in the results
+     * @param fieldSize the number of results in the race
+     * @param drivers   the drivers of the page, in finishing order
+     * @param positions the position of each driver of the page
+     * @param points    the points of each driver of the page
+     */
+    ResultPage(int offset, int fieldSize, Driver[] drivers, int[] positions, int[] points) {
+        this.offset = offset;
+        this.fieldSize = fieldSize;
+        this.drivers = drivers;
+        this.positions = positions;
+        this.points = points;
+    }
+
+    /**
+     * Returns the index of the first row of the page in the results.
+     *
+     * @return the offset of the page
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the number of rows in the page.
+     *
+     * @return the size of the page
+     */
+    public int size() {
+        return drivers.length;
+    }
+
+    /**
+     * Returns the number of results in the race when the page was taken.
+     *
+     * @return the field size
+     */
+    public int getFieldSize() {
+        return fieldSize;
+    }
+
+    /**
+     * Returns whether the race had more results after this page when it was taken.
+     *
+     * @return true if there are more results after the page
+     */
+    public boolean hasNext() {
+        return offset + drivers.length < fieldSize;
+    }
+
+    /**
+     * Returns the driver of a row of the page.
+     *
+     * @param row the row, from 0 to {@link #size()} - 1
+     * @return the driver
+     */
+    public Driver getDriver(int row) {
+        return drivers[row];
+    }
+
+    /**
+     * Returns the position of a row of the page.
+     *
+     * @param row the row, from 0 to {@link #size()} - 1
+     * @return the position
+     */
+    public int getPosition(int row) {
+        return positions[row];
+    }
+
+    /**
+     * Returns the points of a row of the page.
+     *
+     * @param row the row, from 0 to {@link #size()} - 1
+     * @return the points
+     */
+    public int getPoints(int row) {
+        return points[row];
+    }
+
+    /**
+     * Passes every row of the page to a consumer, in finishing order.
+     *
+     * @param consumer the consumer of the rows
+     */
+    public void forEach(ResultRowConsumer consumer) {
+        for (int row = 0; row < drivers.length; row++) {
+            consumer.accept(drivers[row], positions[row], points[row]);
+        }
+    }
+}
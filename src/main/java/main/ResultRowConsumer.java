@@ -0,0 +1,18 @@
+package main;
+
+/**
+ * The ResultRowConsumer interface receives the result rows of a race one at a time,
+ * so results can be streamed without building a list.
+ */
+@FunctionalInterface
+public interface ResultRowConsumer {
+
+    /**
+     * Receives one result row.
+     *
+     * @param driver   the driver of the result
+     * @param position the position the driver finished in the race
+     * @param points   the points earned by the driver in the race
+     */
+    void accept(Driver driver, int position, int points);
+}
@@ -0,0 +1,33 @@
+package main;
+
+/**
+ * The ScoringSystem interface defines how championship points are derived from results:
+ * the points for a finishing position, the bonus points for a power stage position, and
+ * how many of a driver's best results count towards their season total.
+ */
+public interface ScoringSystem {
+
+    /**
+     * Returns the points for finishing a race in a position.
+     *
+     * @param position the finishing position, starting from 1
+     * @return the points for the position
+     */
+    int pointsFor(int position);
+
+    /**
+     * Returns the bonus points for finishing the power stage of a race in a position.
+     *
+     * @param stagePosition the power stage position, starting from 1
+     * @return the bonus points for the position
+     */
+    int powerStagePointsFor(int stagePosition);
+
+    /**
+     * Returns the number of a driver's best race scores that count towards their season total.
+     * The remaining, worst scores are dropped when a season is re-scored.
+     *
+     * @return the number of counted results
+     */
+    int getCountedResults();
+}
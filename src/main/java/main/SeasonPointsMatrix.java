@@ -0,0 +1,145 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * The SeasonPointsMatrix class holds the points every driver of a championship earned in every
+ * race of the season in one dense primitive matrix, indexed by driver registration id and race
+ * index. Each driver's season is stored contiguously, so the points of a driver in a race are
+ * read in constant time and a season history is a single array copy.
+ * <p>
+ * Rows are allocated up to the highest driver id with a result, and the race dimension doubles
+ * as races are added, so the matrix grows without reallocating on every race. Growth stops
+ * doubling near the largest array size, and a season that needs more cells than that is rejected.
+ */
+class SeasonPointsMatrix {
+    static final int MAX_CELLS = Integer.MAX_VALUE - 8; // the largest array the JVM reliably allocates
+
+    private int[] cells; // the points, driver by driver: cells[driverId * raceCapacity + race]
+    private int driverCapacity; // the number of driver rows allocated
+    private int raceCapacity; // the number of races each row has room for
+    private int raceCount; // the number of races in the season
+
+    /**
+     * Constructs an empty SeasonPointsMatrix.
+     */
+    SeasonPointsMatrix() {
+        this.driverCapacity = 16;
+        this.raceCapacity = 8;
+        this.cells = new int[cellCount(driverCapacity, raceCapacity)];
+    }
+
+    /**
+     * Sets the points a driver has earned in a race.
+     *
+     * @param driverId the registration id of the driver
+     * @param race     the index of the race
+     * @param points   the driver's points in the race
+     * @throws IllegalStateException if the matrix would need more cells than an array can hold
+     */
+    synchronized void set(int driverId, int race, int points) {
+        if (race >= raceCapacity) {
+            growRaces(grownCapacity(race, raceCapacity, driverCapacity));
+        }
+        if (driverId >= driverCapacity) {
+            long capacity = grownCapacity(driverId, driverCapacity, raceCapacity);
+            cells = Arrays.copyOf(cells, cellCount(capacity, raceCapacity));
+            driverCapacity = (int) capacity; // fits, since the cells do
+        }
+        cells[cell(driverId, race)] = points;
+    }
+
+    /**
+     * Adds a race to the season, after its results have been set.
+     */
+    synchronized void raceAdded() {
+        raceCount++;
+    }
+
+    /**
+     * Returns the points a driver earned in a race.
+     *
+     * @param driverId the registration id of the driver
+     * @param race     the index of the race
+     * @return the driver's points in the race, or 0 if the driver has no result in it
+     * @throws IndexOutOfBoundsException if the race is not part of the season
+     */
+    synchronized int get(int driverId, int race) {
+        if (race < 0 || race >= raceCount) {
+            throw new IndexOutOfBoundsException("Race index out of range: " + race);
+        }
+        return driverId < driverCapacity ? cells[cell(driverId, race)] : 0;
+    }
+
+    /**
+     * Returns the points a driver earned in each race of the season.
+     *
+     * @param driverId the registration id of the driver
+     * @return the driver's points, by race index
+     */
+    synchronized int[] history(int driverId) {
+        if (driverId >= driverCapacity) {
+            return new int[raceCount];
+        }
+        int start = cell(driverId, 0);
+        return Arrays.copyOfRange(cells, start, start + raceCount);
+    }
+
+    /**
+     * Widens every driver row to make room for more races.
+     * Must be called while holding the lock.
+     *
+     * @param capacity the new number of races per row
+     * @throws IllegalStateException if the matrix would need more cells than an array can hold
+     */
+    private void growRaces(long capacity) {
+        int[] grown = new int[cellCount(driverCapacity, capacity)];
+        for (int driver = 0; driver < driverCapacity; driver++) {
+            System.arraycopy(cells, cell(driver, 0), grown, (int) (driver * capacity), raceCapacity);
+        }
+        cells = grown;
+        raceCapacity = (int) capacity; // fits, since the cells do
+    }
+
+    /**
+     * Returns the index of the cell of a driver in a race. Must be called while holding the lock.
+     *
+     * @param driverId the registration id of the driver, below the driver capacity
+     * @param race     the index of the race, below the race capacity
+     * @return the index of the cell
+     */
+    private int cell(int driverId, int race) {
+        return (int) ((long) driverId * raceCapacity + race); // below the number of cells, which fits an int
+    }
+
+    /**
+     * Returns the new capacity of one dimension of the matrix: double the current one, or just
+     * enough for an index if doubling would not fit in an array.
+     *
+     * @param index         the index that must fit
+     * @param capacity      the current capacity of the dimension
+     * @param otherCapacity the capacity of the other dimension
+     * @return the new capacity, which may not fit in an array, as {@link #cellCount} checks
+     */
+    private static long grownCapacity(int index, int capacity, int otherCapacity) {
+        long doubled = Math.max(index + 1L, capacity * 2L);
+        return doubled * otherCapacity <= MAX_CELLS ? doubled : index + 1L;
+    }
+
+    /**
+     * Returns the number of cells of a matrix, checking that it fits in an array.
+     *
+     * @param driverCapacity the number of driver rows
+     * @param raceCapacity   the number of races per row
+     * @return the number of cells
+     * @throws IllegalStateException if the matrix would need more cells than an array can hold
+     */
+    private static int cellCount(long driverCapacity, long raceCapacity) {
+        long count = driverCapacity * raceCapacity;
+        if (count > MAX_CELLS) {
+            throw new IllegalStateException("Season points of " + driverCapacity + " drivers in " + raceCapacity
+                    + " races need " + count + " cells, more than an array can hold");
+        }
+        return (int) count;
+    }
+}
@@ -0,0 +1,235 @@
+package main;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The SeasonRescorer class computes the points of every result of a season under a scoring
+ * system, and the resulting season total of every driver, without changing the races or the
+ * drivers. The races are scored in parallel with fork/join, and each task adds the scores of
+ * its races to the drivers' totals atomically.
+ * <p>
+ * When the scoring system drops the worst results, the scores of each driver are gathered
+ * into one contiguous segment of a shared array, and each driver's best scores are summed
+ * in parallel.
+ */
+class SeasonRescorer {
+    static final int THRESHOLD = 1 << 15; // the number of results below which a task is not split
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class); // atomic access to int arrays
+
+    private final ScoringSystem scoring; // the scoring system applied
+    private final RallyRaceResult[] races; // the races being scored
+    private final long[] firstResult; // the number of results before each race, and the total at the end
+    private final int[][] points; // the new points of each race, in position order
+    private final int[][] driverIds; // the registration id of the driver of each result, in position order
+    private final int[] modifications; // the modification count of each race when it was scored
+    private final int[] totals; // the new season total of each driver, by registration id
+    private final boolean dropping; // whether the worst results of some drivers may be dropped
+    private int[] offsets; // the start of each driver's segment in scores, and the end of the last one
+    private int[] cursors; // the next free index in each driver's segment
+    private int[] scores; // the scores of every result, grouped by driver
+
+    /**
+     * Constructs a SeasonRescorer for the races of a championship.
+     *
+     * @param scoring     the scoring system to apply
+     * @param races       the races of the championship
+     * @param driverCount the number of registered drivers
+     */
+    SeasonRescorer(ScoringSystem scoring, List<RallyRaceResult> races, int driverCount) {
+        this.scoring = scoring;
+        this.races = races.toArray(new RallyRaceResult[0]);
+        this.firstResult = new long[this.races.length + 1];
+        for (int i = 0; i < this.races.length; i++) {
+            firstResult[i + 1] = firstResult[i] + this.races[i].getFieldSize();
+        }
+        this.points = new int[this.races.length][];
+        this.driverIds = new int[this.races.length][];
+        this.modifications = new int[this.races.length];
+        this.totals = new int[driverCount];
+        this.dropping = scoring.getCountedResults() < this.races.length;
+    }
+
+    /**
+     * Scores every result and computes the season totals.
+     *
+     * @param pool the pool to run the tasks on
+     */
+    void run(ForkJoinPool pool) {
+        if (dropping) {
+            offsets = new int[totals.length + 1];
+        }
+        pool.invoke(new RaceTask(0, races.length, false));
+        if (!dropping) {
+            return;
+        }
+
+        // offsets holds the number of results of each driver, shifted by one; turn it into segment starts
+        for (int id = 0; id < totals.length; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+        cursors = Arrays.copyOf(offsets, totals.length);
+        scores = new int[offsets[totals.length]];
+        pool.invoke(new RaceTask(0, races.length, true));
+        pool.invoke(new DriverTask(0, totals.length));
+    }
+
+    /**
+     * Returns the new points of a race.
+     *
+     * @param race the index of the race
+     * @return the points of each result, in position order
+     */
+    int[] getPoints(int race) {
+        return points[race];
+    }
+
+    /**
+     * Returns the modification count of a race when it was scored.
+     *
+     * @param race the index of the race
+     * @return the modification count the new points were computed from
+     */
+    int getModificationCount(int race) {
+        return modifications[race];
+    }
+
+    /**
+     * Returns the new season totals.
+     *
+     * @return the season total of each driver, by registration id
+     */
+    int[] getTotals() {
+        return totals;
+    }
+
+    /**
+     * Scores the results of a race and adds them to the drivers' totals, or, when results are
+     * dropped, counts the results of each driver.
+     *
+     * @param race the index of the race
+     */
+    private void score(int race) {
+        RallyRaceResult result = races[race];
+        int[] racePoints;
+        int[] ids;
+        synchronized (result) {
+            modifications[race] = result.getModificationCount();
+            int size = result.getFieldSize();
+            racePoints = new int[size];
+            ids = new int[size];
+            for (int row = 0; row < size; row++) {
+                ids[row] = result.driverAt(row).getId();
+                racePoints[row] = scoring.pointsFor(result.positionAt(row));
+                int powerStage = result.powerStageAt(row);
+                if (powerStage != 0) {
+                    racePoints[row] += scoring.powerStagePointsFor(powerStage);
+                }
+            }
+        }
+        points[race] = racePoints;
+        driverIds[race] = ids;
+
+        for (int row = 0; row < ids.length; row++) {
+            if (dropping) {
+                INTS.getAndAdd(offsets, ids[row] + 1, 1);
+            } else {
+                INTS.getAndAdd(totals, ids[row], racePoints[row]);
+            }
+        }
+    }
+
+    /**
+     * Copies the scores of a race into the segments of their drivers.
+     *
+     * @param race the index of the race
+     */
+    private void gather(int race) {
+        int[] racePoints = points[race];
+        int[] ids = driverIds[race];
+        for (int row = 0; row < ids.length; row++) {
+            scores[(int) INTS.getAndAdd(cursors, ids[row], 1)] = racePoints[row];
+        }
+    }
+
+    /**
+     * Sums the best counted scores of a driver.
+     *
+     * @param id the registration id of the driver
+     */
+    private void total(int id) {
+        int start = offsets[id];
+        int end = offsets[id + 1];
+        int first = Math.max(start, end - scoring.getCountedResults());
+        if (first > start) {
+            Arrays.sort(scores, start, end); // only the highest scores count
+        }
+        int total = 0;
+        for (int i = first; i < end; i++) {
+            total += scores[i];
+        }
+        totals[id] = total;
+    }
+
+    /**
+     * A task that scores or gathers a range of races, split until it holds few enough results.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private final class RaceTask extends RecursiveAction {
+        private final int from; // the first race of the range
+        private final int to; // the end of the range, exclusive
+        private final boolean gathering; // whether the task gathers scores instead of scoring
+
+        private RaceTask(int from, int to, boolean gathering) {
+            this.from = from;
+            this.to = to;
+            this.gathering = gathering;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && firstResult[to] - firstResult[from] > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RaceTask(from, middle, gathering), new RaceTask(middle, to, gathering));
+                return;
+            }
+            for (int race = from; race < to; race++) {
+                if (gathering) {
+                    gather(race);
+                } else {
+                    score(race);
+                }
+            }
+        }
+    }
+
+    /**
+     * A task that totals the best scores of a range of drivers.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private final class DriverTask extends RecursiveAction {
+        private final int from; // the first driver id of the range
+        private final int to; // the end of the range, exclusive
+
+        private DriverTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1 && offsets[to] - offsets[from] > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new DriverTask(from, middle), new DriverTask(middle, to));
+                return;
+            }
+            for (int id = from; id < to; id++) {
+                total(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package main;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The StageTimes class records the stage times of the entries of a rally and computes the
+ * classification from them: each entry's position, gap to the leader and position in its car
+ * class. Entries are ranked by the number of stages they have completed, then by their total
+ * time, which is the sum of their stage times and penalties, then by the order they were entered
+ * in, so drivers who miss a stage drop behind those still running.
+ * <p>
+ * The times of each stage are held in a primitive array indexed by entry, and the classification
+ * is kept up to date instead of being rebuilt on every query. Recording or correcting a single
+ * time moves only that entry within the classification, while times recorded in bulk, such as a
+ * whole stage at once, are ranked together by one parallel sort when the classification is next
+ * read. Times are in milliseconds, and the total time of an entry must stay below 2^32 ms.
+ * <p>
+ * Every driver must be registered, and all drivers must be registered in the same championship.
+ * Times can be recorded and read from several threads at once.
+ */
+public class StageTimes {
+    /** The time of a stage that an entry has not completed. */
+    public static final long NO_TIME = -1;
+
+    private static final int ENTRY_BITS = 21; // the key bits holding the entry
+    private static final int TOTAL_BITS = 32; // the key bits holding the total time
+    private static final int MAX_ENTRIES = 1 << ENTRY_BITS; // the most entries a key can tell apart
+    private static final long MAX_TOTAL = (1L << TOTAL_BITS) - 1; // the largest total time a key can hold
+    private static final int MAX_STAGES = (1 << (63 - ENTRY_BITS - TOTAL_BITS)) - 1; // the most stages a key can count
+
+    private final String rallyName; // the name of the rally
+    private final int stageCount; // the number of stages of the rally
+    private long[][] times; // the time of each entry in each stage, or NO_TIME, indexed by stage then entry
+    private long[] penalties; // the penalty time of each entry
+    private long[] totals; // the total time of each entry
+    private int[] completed; // the number of stages each entry has completed
+    private Driver[] drivers; // the driver of each entry, in the order they were entered
+    private int[] classes; // the CarClass ordinal of each entry
+    private int size; // the number of entries
+    private IntIntMap entries; // map from a driver's registration id to their entry
+    private ChampionshipManager championship; // the championship of the entered drivers
+
+    private int[] order; // the entries in classification order, valid unless stale
+    private int[] ranks; // the index of each entry in order, valid unless stale
+    private int[] classPositions; // the position of each entry in its car class, valid unless stale
+    private boolean stale = true; // whether the classification must be rebuilt before it is read
+
+    /**
+     * Constructs an empty StageTimes for a rally.
+     *
+     * @param rallyName  the name of the rally
+     * @param stageCount the number of stages of the rally
+     * @throws IllegalArgumentException if the number of stages is not positive or exceeds 1023
+     */
+    public StageTimes(String rallyName, int stageCount) {
+        if (stageCount < 1 || stageCount > MAX_STAGES) {
+            throw new IllegalArgumentException("Stage count must be between 1 and " + MAX_STAGES + ": " + stageCount);
+        }
+        this.rallyName = rallyName;
+        this.stageCount = stageCount;
+        this.times = new long[stageCount][8];
+        for (long[] stage : times) {
+            Arrays.fill(stage, NO_TIME);
+        }
+        this.penalties = new long[8];
+        this.totals = new long[8];
+        this.completed = new int[8];
+        this.drivers = new Driver[8];
+        this.classes = new int[8];
+        this.entries = new IntIntMap(8);
+        this.order = new int[0];
+        this.ranks = new int[8];
+        this.classPositions = new int[8];
+    }
+
+    /**
+     * Returns the name of the rally.
+     *
+     * @return the rally name
+     */
+    public String getRallyName() {
+        return rallyName;
+    }
+
+    /**
+     * Returns the number of stages of the rally.
+     *
+     * @return the stage count
+     */
+    public int getStageCount() {
+        return stageCount;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entered drivers
+     */
+    public synchronized int getEntryCount() {
+        return size;
+    }
+
+    /**
+     * Enters a driver in the rally. Entering a driver again has no effect.
+     *
+     * @param driver the driver to enter
+     * @throws IllegalArgumentException if the driver is not registered, or is registered in a
+     *                                  different championship than the other entries
+     * @throws IllegalStateException    if the rally already has the most entries it can rank
+     */
+    public synchronized void enter(Driver driver) {
+        entryOf(driver, true);
+    }
+
+    /**
+     * Records the time of a driver in a stage, replacing any earlier time, as when a time is
+     * corrected. The driver is entered if they are not yet. The classification is updated by
+     * moving only the driver's entry.
+     *
+     * @param driver the driver
+     * @param stage  the stage, starting from 0
+     * @param millis the stage time in milliseconds, or {@link #NO_TIME} to remove the time
+     * @throws IllegalArgumentException  if the time is negative and not NO_TIME, or the total
+     *                                   time would reach 2^32 ms, or the driver cannot be entered
+     * @throws IndexOutOfBoundsException if the rally has no such stage
+     */
+    public synchronized void recordStageTime(Driver driver, int stage, long millis) {
+        Objects.checkIndex(stage, stageCount);
+        checkTime(millis);
+        int entry = entryOf(driver, true);
+        long oldKey = keyOf(entry);
+        storeStageTime(entry, stage, millis);
+        moved(entry, oldKey);
+    }
+
+    /**
+     * Records the times of several drivers in a stage at once. The classification is rebuilt
+     * by one parallel sort when it is next read, which is faster than moving every entry when
+     * a large part of the field is recorded.
+     *
+     * @param stage   the stage, starting from 0
+     * @param drivers the drivers
+     * @param millis  the stage time of each driver in milliseconds, or {@link #NO_TIME}
+     * @param count   the number of times to record from the start of the arrays
+     * @throws IllegalArgumentException  if a time is negative and not NO_TIME, or a total time
+     *                                   would reach 2^32 ms, or a driver cannot be entered;
+     *                                   the times before it are recorded
+     * @throws IndexOutOfBoundsException if the rally has no such stage
+     */
+    public synchronized void recordStageTimes(int stage, Driver[] drivers, long[] millis, int count) {
+        Objects.checkIndex(stage, stageCount);
+        stale = true;
+        for (int i = 0; i < count; i++) {
+            checkTime(millis[i]);
+            storeStageTime(entryOf(drivers[i], true), stage, millis[i]);
+        }
+    }
+
+    /**
+     * Sets the penalty time of a driver, replacing any earlier penalty. The classification is
+     * updated by moving only the driver's entry.
+     *
+     * @param driver the driver
+     * @param millis the penalty in milliseconds
+     * @throws IllegalArgumentException if the penalty is negative, or the total time would
+     *                                  reach 2^32 ms, or the driver cannot be entered
+     */
+    public synchronized void setPenalty(Driver driver, long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Penalty must not be negative: " + millis);
+        }
+        int entry = entryOf(driver, true);
+        long total = totals[entry] - penalties[entry] + millis;
+        checkTotal(total, driver);
+        long oldKey = keyOf(entry);
+        penalties[entry] = millis;
+        totals[entry] = total;
+        moved(entry, oldKey);
+    }
+
+    /**
+     * Returns the time of a driver in a stage.
+     *
+     * @param driver the driver
+     * @param stage  the stage, starting from 0
+     * @return the stage time in milliseconds, or {@link #NO_TIME} if the driver has not completed the stage
+     * @throws IllegalArgumentException  if the driver is not entered
+     * @throws IndexOutOfBoundsException if the rally has no such stage
+     */
+    public synchronized long getStageTime(Driver driver, int stage) {
+        Objects.checkIndex(stage, stageCount);
+        return times[stage][entryOf(driver, false)];
+    }
+
+    /**
+     * Returns the total time of a driver: the sum of their stage times and penalty.
+     *
+     * @param driver the driver
+     * @return the total time in milliseconds
+     * @throws IllegalArgumentException if the driver is not entered
+     */
+    public synchronized long getTotalTime(Driver driver) {
+        return totals[entryOf(driver, false)];
+    }
+
+    /**
+     * Returns the number of stages a driver has completed.
+     *
+     * @param driver the driver
+     * @return the number of stages with a time
+     * @throws IllegalArgumentException if the driver is not entered
+     */
+    public synchronized int getStagesCompleted(Driver driver) {
+        return completed[entryOf(driver, false)];
+    }
+
+    /**
+     * Returns the position of a driver in the classification.
+     *
+     * @param driver the driver
+     * @return the position, starting from 1
+     * @throws IllegalArgumentException if the driver is not entered
+     */
+    public synchronized int getPosition(Driver driver) {
+        int entry = entryOf(driver, false);
+        classify();
+        return ranks[entry] + 1;
+    }
+
+    /**
+     * Returns the position of a driver among the entries of the same car class.
+     *
+     * @param driver the driver
+     * @return the class position, starting from 1
+     * @throws IllegalArgumentException if the driver is not entered
+     */
+    public synchronized int getClassPosition(Driver driver) {
+        int entry = entryOf(driver, false);
+        classify();
+        return classPositions[entry];
+    }
+
+    /**
+     * Returns how far a driver is behind the leader.
+     *
+     * @param driver the driver
+     * @return the gap to the leader in milliseconds, or {@link #NO_TIME} if the driver has
+     *         completed fewer stages than the leader
+     * @throws IllegalArgumentException if the driver is not entered
+     */
+    public synchronized long getGapToLeader(Driver driver) {
+        int entry = entryOf(driver, false);
+        classify();
+        int leader = order[0];
+        return completed[entry] == completed[leader] ? totals[entry] - totals[leader] : NO_TIME;
+    }
+
+    /**
+     * Returns the leader of the classification.
+     *
+     * @return the leading driver, or null if no driver is entered
+     */
+    public synchronized Driver getLeader() {
+        if (size == 0) {
+            return null;
+        }
+        classify();
+        return drivers[order[0]];
+    }
+
+    /**
+     * Returns the classification.
+     *
+     * @return a list of every entered driver in classification order
+     */
+    public List<Driver> getClassification() {
+        return getClassification(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a range of the classification.
+     *
+     * @param offset the number of drivers to skip
+     * @param limit  the maximum number of drivers to return
+     * @return a list of at most {@code limit} drivers in classification order, starting after the first {@code offset}
+     * @throws IllegalArgumentException if the offset or the limit is negative
+     */
+    public synchronized List<Driver> getClassification(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative: " + offset + ", " + limit);
+        }
+        classify();
+        int from = Math.min(offset, size);
+        int to = (int) Math.min((long) from + limit, size);
+        Driver[] range = new Driver[to - from];
+        for (int i = from; i < to; i++) {
+            range[i - from] = drivers[order[i]];
+        }
+        return Arrays.asList(range);
+    }
+
+    /**
+     * Copies the drivers who completed every stage, in classification order, with their
+     * positions among them, for recording as race results.
+     *
+     * @param finishers the array receiving the drivers, at least as long as the number of entries
+     * @param positions the array receiving the position of each driver
+     * @return the number of drivers copied
+     */
+    synchronized int copyFinishers(Driver[] finishers, int[] positions) {
+        classify();
+        int count = 0;
+        while (count < size && completed[order[count]] == stageCount) {
+            finishers[count] = drivers[order[count]];
+            positions[count] = count + 1;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Ranks every entry by one parallel sort of their keys, if the classification is stale.
+     * The caller must hold the lock.
+     */
+    private void classify() {
+        if (!stale) {
+            return;
+        }
+        long[] keys = new long[size];
+        for (int entry = 0; entry < size; entry++) {
+            keys[entry] = keyOf(entry);
+        }
+        Arrays.parallelSort(keys);
+
+        order = new int[size];
+        int[] classCounts = new int[CarClass.values().length];
+        for (int i = 0; i < size; i++) {
+            int entry = (int) (keys[i] & (MAX_ENTRIES - 1));
+            order[i] = entry;
+            ranks[entry] = i;
+            classPositions[entry] = ++classCounts[classes[entry]];
+        }
+        stale = false;
+    }
+
+    /**
+     * Moves an entry whose key has changed to its new place in the classification, updating
+     * the positions of the entries it passes. The caller must hold the lock.
+     *
+     * @param entry  the entry
+     * @param oldKey the key of the entry before the change
+     */
+    private void moved(int entry, long oldKey) {
+        if (stale) {
+            return; // the entry is ranked with the others when the classification is next read
+        }
+        long key = keyOf(entry);
+        int from = ranks[entry];
+        int to;
+        if (key < oldKey) {
+            to = firstAbove(key, 0, from); // every entry from there up to the old place moves back
+            System.arraycopy(order, to, order, to + 1, from - to);
+        } else {
+            to = firstAbove(key, from + 1, size) - 1; // every entry up to there moves forward
+            System.arraycopy(order, from + 1, order, from, to - from);
+        }
+        order[to] = entry;
+        if (from == to) {
+            return;
+        }
+
+        int low = Math.min(from, to);
+        int high = Math.max(from, to);
+        // the entries of the moved entry's class between the two places keep the same block of class positions
+        int carClass = classes[entry];
+        int base = Integer.MAX_VALUE;
+        for (int i = low; i <= high; i++) {
+            int passed = order[i];
+            ranks[passed] = i;
+            if (classes[passed] == carClass) {
+                base = Math.min(base, classPositions[passed]);
+            }
+        }
+        for (int i = low; i <= high; i++) {
+            if (classes[order[i]] == carClass) {
+                classPositions[order[i]] = base++;
+            }
+        }
+    }
+
+    /**
+     * Returns the first place in a range of the classification whose entry has a greater key.
+     * The caller must hold the lock.
+     *
+     * @param key  the key to compare with
+     * @param from the first place of the range
+     * @param to   the end of the range, exclusive
+     * @return the first place with a greater key, or {@code to} if there is none
+     */
+    private int firstAbove(long key, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyOf(order[middle]) > key) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the ranking key of an entry: its missing stages, then its total time, then the
+     * entry itself, packed so that a lower key ranks higher.
+     *
+     * @param entry the entry
+     * @return the key
+     */
+    private long keyOf(int entry) {
+        return ((long) (stageCount - completed[entry]) << (TOTAL_BITS + ENTRY_BITS))
+                | (totals[entry] << ENTRY_BITS) | entry;
+    }
+
+    /**
+     * Stores the time of an entry in a stage and updates its total. The caller must hold the lock.
+     *
+     * @param entry  the entry
+     * @param stage  the stage
+     * @param millis the stage time, or NO_TIME
+     * @throws IllegalArgumentException if the total time would reach 2^32 ms
+     */
+    private void storeStageTime(int entry, int stage, long millis) {
+        long previous = times[stage][entry];
+        long total = totals[entry] - Math.max(0, previous) + Math.max(0, millis);
+        checkTotal(total, drivers[entry]);
+        times[stage][entry] = millis;
+        totals[entry] = total;
+        completed[entry] += (millis != NO_TIME ? 1 : 0) - (previous != NO_TIME ? 1 : 0);
+    }
+
+    /**
+     * Returns the entry of a driver. The caller must hold the lock.
+     *
+     * @param driver the driver
+     * @param create whether to enter the driver if they are not entered yet
+     * @return the entry of the driver
+     * @throws IllegalArgumentException if the driver is not entered and {@code create} is false,
+     *                                  or the driver cannot be entered
+     * @throws IllegalStateException    if the rally already has the most entries it can rank
+     */
+    private int entryOf(Driver driver, boolean create) {
+        ChampionshipManager driverChampionship = driver.getChampionship();
+        int entry = driverChampionship != null && driverChampionship == championship
+                ? entries.get(driver.getId()) : IntIntMap.MISSING;
+        if (entry != IntIntMap.MISSING) {
+            return entry;
+        }
+        if (!create) {
+            throw new IllegalArgumentException("Driver is not entered in " + rallyName + ": " + driver.getName());
+        }
+        if (driverChampionship == null) {
+            throw new IllegalArgumentException("Driver must be registered before entering a rally: " + driver.getName());
+        }
+        if (championship == null) {
+            championship = driverChampionship;
+        } else if (championship != driverChampionship) {
+            throw new IllegalArgumentException("Driver is registered in a different championship: " + driver.getName());
+        }
+        if (size == MAX_ENTRIES) {
+            throw new IllegalStateException("Rally already has " + MAX_ENTRIES + " entries: " + rallyName);
+        }
+
+        if (size == drivers.length) {
+            int capacity = size * 2;
+            for (int stage = 0; stage < stageCount; stage++) {
+                times[stage] = Arrays.copyOf(times[stage], capacity);
+                Arrays.fill(times[stage], size, capacity, NO_TIME);
+            }
+            penalties = Arrays.copyOf(penalties, capacity);
+            totals = Arrays.copyOf(totals, capacity);
+            completed = Arrays.copyOf(completed, capacity);
+            drivers = Arrays.copyOf(drivers, capacity);
+            classes = Arrays.copyOf(classes, capacity);
+            ranks = Arrays.copyOf(ranks, capacity);
+            classPositions = Arrays.copyOf(classPositions, capacity);
+        }
+        entry = size++;
+        drivers[entry] = driver;
+        classes[entry] = CarClass.of(driver.getCar()).ordinal();
+        entries.put(driver.getId(), entry);
+        stale = true; // a new entry has no place in the classification yet
+        return entry;
+    }
+
+    /**
+     * Checks that a stage time can be recorded.
+     *
+     * @param millis the stage time
+     * @throws IllegalArgumentException if the time is negative and not NO_TIME
+     */
+    private static void checkTime(long millis) {
+        if (millis < 0 && millis != NO_TIME) {
+            throw new IllegalArgumentException("Stage time must not be negative: " + millis);
+        }
+    }
+
+    /**
+     * Checks that a total time fits in a ranking key.
+     *
+     * @param total  the total time
+     * @param driver the driver of the total
+     * @throws IllegalArgumentException if the total time reaches 2^32 ms
+     */
+    private static void checkTotal(long total, Driver driver) {
+        if (total > MAX_TOTAL) {
+            throw new IllegalArgumentException("Total time is too long for " + driver.getName() + ": " + total);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The StandingsFeed class turns the standings changes of a championship into batches and fans
+ * them out to subscribers.
+ * <p>
+ * Writers only raise a flag when points change, so recording results never waits for the feed.
+ * A publisher thread wakes up once per time window, or as soon as a race is added, and if the
+ * standings changed it takes a snapshot and diffs it against the previous one. The snapshots are
+ * not published to the championship's readers, so the feed leaves the versions served by
+ * {@link ChampionshipManager#getSnapshot()} and the history of recent snapshots alone. Each batch is
+ * stored once in a bounded ring buffer that every subscriber reads with its own cursor on its own
+ * virtual thread. When the ring is full, the publisher waits for the slowest subscriber; the
+ * changes made meanwhile are coalesced into the next batch, so while a subscriber lags every
+ * subscriber gets fewer, larger batches, and none loses a change.
+ */
+class StandingsFeed {
+    static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100); // the default time window of a batch
+    static final int CAPACITY = 64; // the default number of batches the ring buffer holds
+
+    private final ChampionshipManager championship; // the championship whose standings are fed
+    private final long windowNanos; // the longest time changes wait before they are published
+    private final StandingsUpdate[] ring; // the latest batches, by sequence number modulo the length
+    private final List<StandingsSubscription> subscriptions; // the open subscriptions, guarded by lock
+    private final ReentrantLock lock; // guards the ring, the cursors and the publisher state
+    private final Condition published; // signalled when a batch is published or a subscription closes
+    private final Condition consumed; // signalled when a subscriber delivered a batch or left
+    private final Condition wake; // signalled when a race is added or the feed has no subscribers
+    private volatile boolean changed; // whether points changed since the last batch
+    private long sequence; // the number of batches published, guarded by lock
+    private long version; // the version of the latest snapshot taken by the publisher, counted by the feed
+    private boolean raceAdded; // whether a race was added since the publisher last woke up, guarded by lock
+    private boolean publishing; // whether the publisher thread is running, guarded by lock
+
+    /**
+     * Constructs a StandingsFeed for a championship.
+     *
+     * @param championship the championship whose standings are fed
+     * @param windowNanos  the longest time changes wait before they are published
+     * @param capacity     the number of batches the ring buffer holds
+     */
+    StandingsFeed(ChampionshipManager championship, long windowNanos, int capacity) {
+        this.championship = championship;
+        this.windowNanos = windowNanos;
+        this.ring = new StandingsUpdate[capacity];
+        this.subscriptions = new ArrayList<>();
+        this.lock = new ReentrantLock();
+        this.published = lock.newCondition();
+        this.consumed = lock.newCondition();
+        this.wake = lock.newCondition();
+    }
+
+    /**
+     * Called whenever points change. This method does not block.
+     */
+    void changed() {
+        if (!changed) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Called when a race is added, so the changes of the previous race are published at once.
+     */
+    void raceAdded() {
+        lock.lock();
+        try {
+            raceAdded = true;
+            wake.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Subscribes a listener to the batches published from now on, starting the publisher
+     * thread if it is not running.
+     *
+     * @param listener the listener
+     * @return the subscription
+     */
+    StandingsSubscription subscribe(StandingsListener listener) {
+        lock.lock();
+        try {
+            StandingsSubscription subscription = new StandingsSubscription(this, listener, sequence);
+            subscriptions.add(subscription);
+            if (!publishing) {
+                publishing = true;
+                Thread.ofVirtual().name("standings-publisher").start(this::runPublisher);
+            }
+            Thread.ofVirtual().name("standings-subscriber").start(() -> runSubscriber(subscription));
+            return subscription;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes a subscription.
+     *
+     * @param subscription the subscription
+     */
+    void unsubscribe(StandingsSubscription subscription) {
+        lock.lock();
+        try {
+            if (!subscription.closed) {
+                subscription.closed = true;
+                subscriptions.remove(subscription);
+                published.signalAll();
+                consumed.signalAll();
+                wake.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of published batches a subscription has not delivered yet.
+     *
+     * @param subscription the subscription
+     * @return the number of pending batches
+     */
+    long pending(StandingsSubscription subscription) {
+        lock.lock();
+        try {
+            return subscription.closed ? 0 : sequence - subscription.cursor;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether a subscription is closed.
+     *
+     * @param subscription the subscription
+     * @return true if the subscription is closed
+     */
+    boolean isClosed(StandingsSubscription subscription) {
+        lock.lock();
+        try {
+            return subscription.closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes a batch whenever the standings changed, once per window or when a race is added,
+     * until there are no subscribers. The first batch is diffed against the standings when the
+     * publisher starts.
+     */
+    private void runPublisher() {
+        StandingsSnapshot previous = championship.takeSnapshot(++version); // taken without holding the feed lock
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    long remaining = windowNanos;
+                    while (!raceAdded && !subscriptions.isEmpty() && remaining > 0) {
+                        remaining = wake.awaitNanos(remaining);
+                    }
+                    raceAdded = false;
+                    if (subscriptions.isEmpty()) {
+                        publishing = false;
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                if (!changed) {
+                    continue;
+                }
+
+                changed = false; // cleared first, so changes made while publishing go into the next batch
+                StandingsSnapshot current = championship.takeSnapshot(++version);
+                StandingsUpdate update = new StandingsUpdate(previous, current);
+                if (update.getChanges().isEmpty()) {
+                    continue; // the next batch is diffed against the same standings, so versions chain
+                }
+                if (!publish(update)) {
+                    return;
+                }
+                previous = current;
+            }
+        } catch (InterruptedException e) {
+            lock.lock();
+            try {
+                publishing = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Stores a batch in the ring, waiting until the slowest subscriber has delivered the batch
+     * it replaces.
+     *
+     * @param update the batch
+     * @return false if the feed has no subscribers left and the publisher stopped
+     * @throws InterruptedException if the publisher is interrupted while waiting
+     */
+    private boolean publish(StandingsUpdate update) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!subscriptions.isEmpty() && sequence - slowestCursor() >= ring.length) {
+                consumed.await();
+            }
+            if (subscriptions.isEmpty()) {
+                publishing = false;
+                return false;
+            }
+            ring[(int) (sequence % ring.length)] = update;
+            sequence++;
+            published.signalAll();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delivers the batches of a subscription in order until it is closed.
+     *
+     * @param subscription the subscription
+     */
+    private void runSubscriber(StandingsSubscription subscription) {
+        while (true) {
+            StandingsUpdate update;
+            lock.lock();
+            try {
+                while (!subscription.closed && subscription.cursor == sequence) {
+                    published.awaitUninterruptibly();
+                }
+                if (subscription.closed) {
+                    return;
+                }
+                update = ring[(int) (subscription.cursor % ring.length)];
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                subscription.listener.onUpdate(update);
+            } catch (RuntimeException | Error e) {
+                unsubscribe(subscription);
+                throw e; // reported by the thread's uncaught exception handler
+            }
+
+            lock.lock();
+            try {
+                long delivered = subscription.cursor++;
+                if (!subscriptions.isEmpty() && slowestCursor() > delivered) {
+                    ring[(int) (delivered % ring.length)] = null; // every subscriber has it, so release it
+                }
+                consumed.signal(); // only the publisher waits for deliveries
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the cursor of the subscriber furthest behind.
+     * Must be called while holding the lock, with at least one subscription.
+     *
+     * @return the smallest cursor
+     */
+    private long slowestCursor() {
+        long slowest = Long.MAX_VALUE;
+        for (StandingsSubscription subscription : subscriptions) {
+            slowest = Math.min(slowest, subscription.cursor);
+        }
+        return slowest;
+    }
+}
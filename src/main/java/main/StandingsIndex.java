@@ -0,0 +1,400 @@
+package main;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The StandingsIndex class keeps the drivers of a championship ordered by their points
+ * as results are recorded, so that standings queries do not have to re-sort the field.
+ * Drivers are ordered by points in descending order, and drivers with equal points keep
+ * their registration order, which matches the ordering of a stable sort over the driver list.
+ * The index is an order-statistic treap, so updates, rank and top-k queries are logarithmic.
+ * <p>
+ * Point changes may be reported from any thread without locking: a changed driver is queued
+ * at most once, and queued drivers are repositioned by the next query, which holds the
+ * index lock. Queries therefore always reflect every point change that happened before them.
+ */
+class StandingsIndex {
+    private static final VarHandle QUEUED; // atomic access to Node.queued
+
+    static {
+        try {
+            QUEUED = MethodHandles.lookup().findVarHandle(Node.class, "queued", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Queue<Node> pending; // nodes of drivers whose points changed since the last query
+    private Node root; // the root of the treap, or null if the index is empty
+    private volatile Node[] nodes; // the node of each driver, indexed by the driver's registration id
+    private long seed; // the state of the generator used for node priorities
+
+    /**
+     * Constructs an empty StandingsIndex.
+     */
+    StandingsIndex() {
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.nodes = new Node[16];
+        this.seed = 0x9E3779B97F4A7C15L;
+    }
+
+    /**
+     * Adds a driver to the index with their current points.
+     * This must happen before the driver is published as registered, so that
+     * {@link #markChanged(Driver)} always finds the driver's node.
+     *
+     * @param driver the driver to add
+     * @param id     the registration id of the driver
+     */
+    synchronized void add(Driver driver, int id) {
+        Node[] array = nodes;
+        if (id >= array.length) {
+            Node[] grown = new Node[Math.max(id + 1, array.length * 2)];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            array = grown;
+        }
+
+        Node node = new Node(driver, id, driver.getPoints(), nextPriority());
+        array[id] = node;
+        nodes = array; // publishes the node to threads reporting point changes
+        root = insert(root, node);
+    }
+
+    /**
+     * Records that a driver's points have changed. This method does not block: the driver
+     * is repositioned by the next query.
+     *
+     * @param driver the driver whose points have changed
+     */
+    void markChanged(Driver driver) {
+        Node node = nodes[driver.getId()];
+        if (QUEUED.compareAndSet(node, false, true)) {
+            pending.add(node);
+        }
+    }
+
+    /**
+     * Repositions every driver whose points changed since the last query.
+     * Must be called while holding the index lock.
+     */
+    private void applyPending() {
+        Node node;
+        while ((node = pending.poll()) != null) {
+            // clear the flag before reading the points, so a concurrent change queues the node again
+            QUEUED.setVolatile(node, false);
+            int points = node.driver.getPoints();
+            if (node.points == points) {
+                continue; // the driver's position is unchanged
+            }
+
+            root = remove(root, node);
+            node.points = points;
+            node.left = null;
+            node.right = null;
+            node.size = 1;
+            root = insert(root, node);
+        }
+    }
+
+    /**
+     * Returns the number of drivers in the index.
+     *
+     * @return the number of indexed drivers
+     */
+    synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * Returns the driver at the top of the standings.
+     *
+     * @return the leading driver, or null if the index is empty
+     */
+    synchronized Driver first() {
+        applyPending();
+        Node node = root;
+        if (node == null) {
+            return null;
+        }
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node.driver;
+    }
+
+    /**
+     * Returns the driver at the given zero-based standings position.
+     *
+     * @param index the zero-based position in the standings
+     * @return the driver at that position
+     */
+    synchronized Driver get(int index) {
+        applyPending();
+        if (index < 0 || index >= size(root)) {
+            throw new IndexOutOfBoundsException("Standings position out of range: " + index);
+        }
+
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.driver;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Returns the zero-based standings position of a driver.
+     *
+     * @param driver the driver to look up
+     * @return the zero-based position of the driver in the standings
+     */
+    synchronized int rank(Driver driver) {
+        applyPending();
+        Node target = nodes[driver.getId()];
+        int rank = 0;
+        Node node = root;
+        while (node != target) {
+            if (compare(target, node) < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank + size(node.left);
+    }
+
+    /**
+     * Returns up to the first {@code limit} drivers of the standings, in order.
+     *
+     * @param limit the maximum number of drivers to return
+     * @return the leading drivers of the standings
+     */
+    synchronized List<Driver> top(int limit) {
+        applyPending();
+        List<Driver> drivers = new ArrayList<>(Math.min(limit, size(root)));
+        collect(root, drivers, limit);
+        return drivers;
+    }
+
+    /**
+     * Appends drivers of a subtree to a list in standings order until the limit is reached.
+     *
+     * @param node    the root of the subtree
+     * @param drivers the list to append to
+     * @param limit   the maximum size of the list
+     */
+    private static void collect(Node node, List<Driver> drivers, int limit) {
+        while (node != null && drivers.size() < limit) {
+            collect(node.left, drivers, limit);
+            if (drivers.size() < limit) {
+                drivers.add(node.driver);
+            }
+            node = node.right;
+        }
+    }
+
+    /**
+     * Copies the drivers and the points they are ordered by into arrays, in standings order.
+     *
+     * @param drivers the array to fill with the drivers, at least {@link #size()} long
+     * @param points  the array to fill with the points of each driver, at least {@link #size()} long
+     * @return the number of drivers copied
+     */
+    synchronized int copyTo(Driver[] drivers, int[] points) {
+        applyPending();
+        return copy(root, drivers, points, 0);
+    }
+
+    /**
+     * Copies the drivers and points of a subtree into arrays in standings order.
+     *
+     * @param node    the root of the subtree
+     * @param drivers the array to fill with the drivers
+     * @param points  the array to fill with the points of each driver
+     * @param index   the index at which to start filling
+     * @return the index after the last driver copied
+     */
+    private static int copy(Node node, Driver[] drivers, int[] points, int index) {
+        while (node != null) {
+            index = copy(node.left, drivers, points, index);
+            drivers[index] = node.driver;
+            points[index] = node.points;
+            index++;
+            node = node.right;
+        }
+        return index;
+    }
+
+    /**
+     * Compares two nodes by standings order: more points first, then earlier registration.
+     *
+     * @param a the first node
+     * @param b the second node
+     * @return a negative value if a ranks ahead of b, a positive value if it ranks behind
+     */
+    private static int compare(Node a, Node b) {
+        if (a.points != b.points) {
+            return Integer.compare(b.points, a.points);
+        }
+        return Integer.compare(a.id, b.id);
+    }
+
+    /**
+     * Inserts a node into a subtree.
+     *
+     * @param node     the root of the subtree
+     * @param inserted the node to insert
+     * @return the new root of the subtree
+     */
+    private static Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+
+        if (inserted.priority > node.priority) {
+            // the inserted node becomes the root of this subtree
+            Node[] parts = split(node, inserted);
+            inserted.left = parts[0];
+            inserted.right = parts[1];
+            inserted.size = 1 + size(parts[0]) + size(parts[1]);
+            return inserted;
+        }
+
+        if (compare(inserted, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        node.size++;
+        return node;
+    }
+
+    /**
+     * Removes a node from a subtree.
+     *
+     * @param node    the root of the subtree
+     * @param removed the node to remove
+     * @return the new root of the subtree
+     */
+    private static Node remove(Node node, Node removed) {
+        if (node == removed) {
+            return merge(node.left, node.right);
+        }
+
+        if (compare(removed, node) < 0) {
+            node.left = remove(node.left, removed);
+        } else {
+            node.right = remove(node.right, removed);
+        }
+        node.size--;
+        return node;
+    }
+
+    /**
+     * Splits a subtree into the nodes ranking ahead of a pivot and the nodes ranking behind it.
+     *
+     * @param node  the root of the subtree
+     * @param pivot the node to split around
+     * @return the two resulting subtrees
+     */
+    private static Node[] split(Node node, Node pivot) {
+        if (node == null) {
+            return new Node[] {null, null};
+        }
+
+        Node[] parts;
+        if (compare(node, pivot) < 0) {
+            parts = split(node.right, pivot);
+            node.right = parts[0];
+            parts[0] = node;
+        } else {
+            parts = split(node.left, pivot);
+            node.left = parts[1];
+            parts[1] = node;
+        }
+        node.size = 1 + size(node.left) + size(node.right);
+        return parts;
+    }
+
+    /**
+     * Merges two subtrees where every node of the first ranks ahead of every node of the second.
+     *
+     * @param left  the subtree ranking ahead
+     * @param right the subtree ranking behind
+     * @return the root of the merged subtree
+     */
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.size = 1 + size(left.left) + size(left.right);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.size = 1 + size(right.left) + size(right.right);
+        return right;
+    }
+
+    /**
+     * Returns the number of nodes in a subtree.
+     *
+     * @param node the root of the subtree
+     * @return the size of the subtree, or 0 if it is empty
+     */
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Returns the next pseudo-random node priority.
+     *
+     * @return a pseudo-random priority
+     */
+    private int nextPriority() {
+        // xorshift generator, deterministic so that tree shapes are reproducible
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) seed;
+    }
+
+    /**
+     * A node of the treap, holding a driver and the points the driver is currently indexed under.
+     */
+    private static final class Node {
+        private final Driver driver; // the driver held by this node
+        private final int id; // the registration id of the driver, which breaks ties in points
+        private final int priority; // the heap priority of this node
+        private int points; // the points the driver is indexed under
+        private int size; // the number of nodes in the subtree rooted at this node
+        private Node left; // the subtree of drivers ranking ahead
+        private Node right; // the subtree of drivers ranking behind
+        private volatile boolean queued; // whether the node is waiting in the pending queue
+
+        private Node(Driver driver, int id, int points, int priority) {
+            this.driver = driver;
+            this.id = id;
+            this.points = points;
+            this.priority = priority;
+            this.size = 1;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package main;
+
+/**
+ * The StandingsListener interface receives batches of standings changes from a championship
+ * it is subscribed to with {@link ChampionshipManager#subscribe(StandingsListener)}.
+ */
+@FunctionalInterface
+public interface StandingsListener {
+
+    /**
+     * Receives the changes of one batch. Batches arrive one at a time, in order, on a thread
+     * of the subscription; if this method throws, the subscription is closed.
+     *
+     * @param update the changes since the previous batch
+     */
+    void onUpdate(StandingsUpdate update);
+}
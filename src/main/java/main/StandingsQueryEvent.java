@@ -0,0 +1,43 @@
+package main;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * The StandingsQueryEvent class is the JFR event emitted when the standings, the results of a
+ * race or championship statistics are read. Only queries slower than the threshold are kept by
+ * default; the threshold can be lowered in the recording settings.
+ */
+@Name("main.StandingsQuery")
+@Label("Standings Query")
+@Category("Championship")
+@Description("A read of the standings, race results or championship statistics")
+@StackTrace(false)
+@Threshold("100 us")
+class StandingsQueryEvent extends Event {
+    @Label("Query")
+    String query; // the name of the query
+
+    @Label("Rows")
+    int rows; // the number of rows the query read
+
+    /**
+     * Ends the event and commits it if it is enabled and over the threshold.
+     *
+     * @param query the name of the query
+     * @param rows  the number of rows the query read
+     */
+    void commit(String query, int rows) {
+        end();
+        if (shouldCommit()) {
+            this.query = query;
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The StandingsSnapshot class is an immutable, versioned view of the championship standings.
+ * It holds the drivers in standings order together with the points they had when the snapshot
+ * was published, and statistics computed from those points, so every query on one snapshot is
+ * consistent with the others. Snapshots are published by ChampionshipManager and can be shared
+ * by any number of readers without locking or copying.
+ */
+public class StandingsSnapshot {
+    private final long version; // the version of the snapshot, increasing with each publication
+    private final Driver[] drivers; // the drivers, in standings order
+    private final int[] points; // the points of each driver, in standings order
+    private final int[] positions; // the position of each driver, by registration id, starting from 1
+    private final List<Driver> standings; // a read-only view of the drivers
+    private final long totalPoints; // the total points of all drivers
+    private final String leadingCountry; // the country with the most points
+    private final int raceCount; // the number of races held
+
+    /**
+     * Constructs a StandingsSnapshot from the standings at the time of publication.
+     *
+     * @param version        the version of the snapshot
+     * @param drivers        the drivers, in standings order
+     * @param points         the points of each driver, in standings order
+     * @param leadingCountry the country with the most points
+     * @param raceCount      the number of races held
+     */
+    StandingsSnapshot(long version, Driver[] drivers, int[] points, String leadingCountry, int raceCount) {
+        this.version = version;
+        this.drivers = drivers;
+        this.points = points;
+        this.standings = Collections.unmodifiableList(Arrays.asList(drivers));
+        this.leadingCountry = leadingCountry;
+        this.raceCount = raceCount;
+
+        this.positions = new int[drivers.length];
+        long total = 0;
+        for (int i = 0; i < drivers.length; i++) {
+            positions[drivers[i].getId()] = i + 1;
+            total += points[i];
+        }
+        this.totalPoints = total;
+    }
+
+    /**
+     * Returns the version of the snapshot. Later snapshots have higher versions.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the drivers sorted by their points, as a read-only list.
+     *
+     * @return the standings
+     */
+    public List<Driver> getStandings() {
+        return standings;
+    }
+
+    /**
+     * Returns the leading drivers, as a read-only list.
+     *
+     * @param count the maximum number of drivers to return
+     * @return a list of at most {@code count} drivers sorted by their points
+     */
+    public List<Driver> getTopDrivers(int count) {
+        return standings.subList(0, Math.min(count, drivers.length));
+    }
+
+    /**
+     * Returns the leading driver.
+     *
+     * @return the leading driver, or null if no drivers are registered
+     */
+    public Driver getLeadingDriver() {
+        return drivers.length == 0 ? null : drivers[0];
+    }
+
+    /**
+     * Returns the number of drivers in the standings.
+     *
+     * @return the number of drivers
+     */
+    public int getDriverCount() {
+        return drivers.length;
+    }
+
+    /**
+     * Returns the position of a driver in the standings.
+     *
+     * @param driver the driver
+     * @return the driver's position, starting from 1, or 0 if the driver is not in the snapshot
+     */
+    public int getPosition(Driver driver) {
+        int id = driver.getId();
+        if (id < 0 || id >= positions.length || drivers[positions[id] - 1] != driver) {
+            return 0;
+        }
+        return positions[id];
+    }
+
+    /**
+     * Returns the points a driver had when the snapshot was published.
+     *
+     * @param driver the driver
+     * @return the driver's points, or 0 if the driver is not in the snapshot
+     */
+    public int getPoints(Driver driver) {
+        int position = getPosition(driver);
+        return position == 0 ? 0 : points[position - 1];
+    }
+
+    /**
+     * Returns the points of the driver at a position.
+     *
+     * @param position the position, starting from 1
+     * @return the points of the driver at that position
+     */
+    public int getPointsAt(int position) {
+        return points[position - 1];
+    }
+
+    /**
+     * Returns the total points of all drivers.
+     *
+     * @return the total championship points
+     */
+    public long getTotalPoints() {
+        return totalPoints;
+    }
+
+    /**
+     * Returns the average points per driver.
+     *
+     * @return the average points per driver, or NaN if no drivers are registered
+     */
+    public double getAveragePointsPerDriver() {
+        return (double) totalPoints / drivers.length;
+    }
+
+    /**
+     * Returns the country whose drivers had the most points.
+     *
+     * @return the leading country, or an empty string if no drivers are registered
+     */
+    public String getLeadingCountry() {
+        return leadingCountry;
+    }
+
+    /**
+     * Returns the number of races held when the snapshot was published.
+     *
+     * @return the number of races
+     */
+    public int getRaceCount() {
+        return raceCount;
+    }
+
+    /**
+     * Returns the drivers whose position or points differ from an older snapshot, in standings order.
+     *
+     * @param older the older snapshot
+     * @return the changes since the older snapshot
+     */
+    public List<PositionChange> changesSince(StandingsSnapshot older) {
+        List<PositionChange> changes = new ArrayList<>();
+        for (int i = 0; i < drivers.length; i++) {
+            Driver driver = drivers[i];
+            int oldPosition = older.getPosition(driver);
+            int oldPoints = oldPosition == 0 ? 0 : older.points[oldPosition - 1];
+            if (oldPosition != i + 1 || oldPoints != points[i]) {
+                changes.add(new PositionChange(driver, oldPosition, i + 1, oldPoints, points[i]));
+            }
+        }
+        return changes;
+    }
+}
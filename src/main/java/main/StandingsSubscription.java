@@ -0,0 +1,51 @@
+package main;
+
+/**
+ * The StandingsSubscription class is a listener's subscription to the standings changes of a
+ * championship. Closing it stops the deliveries; a batch being delivered is finished first.
+ */
+public class StandingsSubscription implements AutoCloseable {
+    private final StandingsFeed feed; // the feed delivering the batches
+    final StandingsListener listener; // the listener receiving the batches
+    long cursor; // the sequence number of the next batch to deliver, guarded by the feed lock
+    boolean closed; // whether the subscription is closed, guarded by the feed lock
+
+    /**
+     * Constructs a StandingsSubscription that starts with a batch of a feed.
+     *
+     * @param feed     the feed delivering the batches
+     * @param listener the listener receiving the batches
+     * @param cursor   the sequence number of the first batch to deliver
+     */
+    StandingsSubscription(StandingsFeed feed, StandingsListener listener, long cursor) {
+        this.feed = feed;
+        this.listener = listener;
+        this.cursor = cursor;
+    }
+
+    /**
+     * Returns the number of published batches that have not been delivered yet.
+     *
+     * @return the number of pending batches
+     */
+    public long getPendingBatches() {
+        return feed.pending(this);
+    }
+
+    /**
+     * Returns whether the subscription is closed.
+     *
+     * @return true if no more batches will be delivered
+     */
+    public boolean isClosed() {
+        return feed.isClosed(this);
+    }
+
+    /**
+     * Stops the deliveries. Closing a closed subscription has no effect.
+     */
+    @Override
+    public void close() {
+        feed.unsubscribe(this);
+    }
+}
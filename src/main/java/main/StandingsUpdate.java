@@ -0,0 +1,142 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The StandingsUpdate class is one batch of standings changes delivered to subscribers: the
+ * changes between two {@link StandingsSnapshot}s taken by the feed of the championship. It tells
+ * whether the leader changed, which drivers changed position and which drivers gained points.
+ * <p>
+ * The feed does not publish its snapshots, so their versions count the snapshots of the feed and
+ * are not versions of {@link ChampionshipManager#getSnapshot()}.
+ */
+public class StandingsUpdate {
+    private final long previousVersion; // the version of the standings before the batch
+    private final Driver previousLeader; // the leader before the batch
+    private final StandingsSnapshot current; // the standings after the batch
+    private final List<PositionChange> changes; // every driver whose position or points changed, in standings order
+    private final List<PositionChange> positionChanges; // the changes that moved a driver
+    private final List<PositionChange> pointsChanges; // the changes that gave a driver points
+
+    /**
+     * Constructs a StandingsUpdate between two snapshots.
+     *
+     * @param previous the standings before the batch
+     * @param current  the standings after the batch
+     */
+    StandingsUpdate(StandingsSnapshot previous, StandingsSnapshot current) {
+        this.previousVersion = previous.getVersion();
+        this.previousLeader = previous.getLeadingDriver(); // the previous snapshot itself is not kept
+        this.current = current;
+        List<PositionChange> all = current.changesSince(previous);
+        List<PositionChange> moved = new ArrayList<>();
+        List<PositionChange> scored = new ArrayList<>();
+        for (PositionChange change : all) {
+            if (change.getOldPosition() != change.getNewPosition()) {
+                moved.add(change);
+            }
+            if (change.getOldPoints() != change.getNewPoints()) {
+                scored.add(change);
+            }
+        }
+        this.changes = Collections.unmodifiableList(all);
+        this.positionChanges = Collections.unmodifiableList(moved);
+        this.pointsChanges = Collections.unmodifiableList(scored);
+    }
+
+    /**
+     * Returns the version of the standings before the batch.
+     *
+     * @return the previous snapshot version
+     */
+    public long getPreviousVersion() {
+        return previousVersion;
+    }
+
+    /**
+     * Returns the version of the standings after the batch.
+     *
+     * @return the snapshot version
+     */
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    /**
+     * Returns the standings after the batch.
+     *
+     * @return the snapshot
+     */
+    public StandingsSnapshot getSnapshot() {
+        return current;
+    }
+
+    /**
+     * Returns whether the batch changed the championship leader.
+     *
+     * @return true if the leader changed
+     */
+    public boolean isLeaderChanged() {
+        return previousLeader != current.getLeadingDriver();
+    }
+
+    /**
+     * Returns the leader before the batch.
+     *
+     * @return the previous leading driver, or null if there were no drivers
+     */
+    public Driver getPreviousLeader() {
+        return previousLeader;
+    }
+
+    /**
+     * Returns the leader after the batch.
+     *
+     * @return the leading driver, or null if there are no drivers
+     */
+    public Driver getLeader() {
+        return current.getLeadingDriver();
+    }
+
+    /**
+     * Returns every driver whose position or points changed in the batch.
+     *
+     * @return a read-only list of the changes, in standings order
+     */
+    public List<PositionChange> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the drivers whose standings position changed in the batch, including drivers
+     * who entered the standings.
+     *
+     * @return a read-only list of the changes, in standings order
+     */
+    public List<PositionChange> getPositionChanges() {
+        return positionChanges;
+    }
+
+    /**
+     * Returns the drivers whose points changed in the batch.
+     *
+     * @return a read-only list of the changes, in standings order
+     */
+    public List<PositionChange> getPointsChanges() {
+        return pointsChanges;
+    }
+
+    /**
+     * Returns a summary of the update.
+     *
+     * @return a string representation of the update
+     */
+    @Override
+    public String toString() {
+        return String.format("Standings %d -> %d: %d position changes, %d points changes%s",
+                getPreviousVersion(), getVersion(), positionChanges.size(), pointsChanges.size(),
+                isLeaderChanged() && getLeader() != null ? ", new leader " + getLeader().getName() : "");
+    }
+}
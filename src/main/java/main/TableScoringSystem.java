@@ -0,0 +1,127 @@
+package main;
+
+import java.util.Arrays;
+
+/**
+ * The TableScoringSystem class is a ScoringSystem that awards points from fixed tables:
+ * one for finishing positions and one for power stage positions. Positions beyond the end
+ * of a table score no points. Instances are immutable; the {@code with} methods return
+ * modified copies.
+ */
+public class TableScoringSystem implements ScoringSystem {
+    /** The WRC points for the top ten finishers, with every result counted. */
+    public static final TableScoringSystem WRC = new TableScoringSystem(new int[] {25, 18, 15, 12, 10, 8, 6, 4, 2, 1});
+
+    private final int[] positionPoints; // the points for each finishing position, starting from 1st
+    private final int[] powerStagePoints; // the bonus points for each power stage position, starting from 1st
+    private final int countedResults; // the number of best results counted towards a season total
+
+    /**
+     * Constructs a TableScoringSystem with the specified points for finishing positions,
+     * no power stage bonus, and every result counted.
+     *
+     * @param positionPoints the points for each finishing position, starting from 1st
+     */
+    public TableScoringSystem(int[] positionPoints) {
+        this(positionPoints, new int[0], Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a TableScoringSystem with the specified tables and counted results.
+     *
+     * @param positionPoints   the points for each finishing position, starting from 1st
+     * @param powerStagePoints the bonus points for each power stage position, starting from 1st
+     * @param countedResults   the number of best results counted towards a season total
+     * @throws IllegalArgumentException if the number of counted results is not positive
+     */
+    public TableScoringSystem(int[] positionPoints, int[] powerStagePoints, int countedResults) {
+        if (countedResults <= 0) {
+            throw new IllegalArgumentException("Counted results must be positive: " + countedResults);
+        }
+        this.positionPoints = positionPoints.clone();
+        this.powerStagePoints = powerStagePoints.clone();
+        this.countedResults = countedResults;
+    }
+
+    /**
+     * Returns the points for each finishing position.
+     *
+     * @return a copy of the table, starting from 1st
+     */
+    int[] getPositionPoints() {
+        return positionPoints.clone();
+    }
+
+    /**
+     * Returns the bonus points for each power stage position.
+     *
+     * @return a copy of the table, starting from 1st
+     */
+    int[] getPowerStagePoints() {
+        return powerStagePoints.clone();
+    }
+
+    /**
+     * Returns a copy of this scoring system that awards power stage bonus points.
+     *
+     * @param points the bonus points for each power stage position, starting from 1st
+     * @return the modified scoring system
+     */
+    public TableScoringSystem withPowerStagePoints(int... points) {
+        return new TableScoringSystem(positionPoints, points, countedResults);
+    }
+
+    /**
+     * Returns a copy of this scoring system that only counts a driver's best results.
+     *
+     * @param count the number of best results counted towards a season total
+     * @return the modified scoring system
+     * @throws IllegalArgumentException if the count is not positive
+     */
+    public TableScoringSystem withCountedResults(int count) {
+        return new TableScoringSystem(positionPoints, powerStagePoints, count);
+    }
+
+    /**
+     * Returns the points for finishing a race in a position, or 0 beyond the end of the table.
+     *
+     * @param position the finishing position, starting from 1
+     * @return the points for the position
+     */
+    @Override
+    public int pointsFor(int position) {
+        return position >= 1 && position <= positionPoints.length ? positionPoints[position - 1] : 0;
+    }
+
+    /**
+     * Returns the bonus points for a power stage position, or 0 beyond the end of the table.
+     *
+     * @param stagePosition the power stage position, starting from 1
+     * @return the bonus points for the position
+     */
+    @Override
+    public int powerStagePointsFor(int stagePosition) {
+        return stagePosition >= 1 && stagePosition <= powerStagePoints.length ? powerStagePoints[stagePosition - 1] : 0;
+    }
+
+    /**
+     * Returns the number of a driver's best race scores that count towards their season total.
+     *
+     * @return the number of counted results, or {@link Integer#MAX_VALUE} if every result counts
+     */
+    @Override
+    public int getCountedResults() {
+        return countedResults;
+    }
+
+    /**
+     * Returns a string representation of the scoring system.
+     *
+     * @return a string representation of the scoring system
+     */
+    @Override
+    public String toString() {
+        return "Points " + Arrays.toString(positionPoints) + ", power stage " + Arrays.toString(powerStagePoints)
+                + (countedResults == Integer.MAX_VALUE ? ", all results counted" : ", best " + countedResults + " results counted");
+    }
+}
@@ -0,0 +1,124 @@
+package main;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The TitleOdds class holds the outcome of a {@link TitleSimulator} run: for every driver of
+ * the simulated standings, the share of simulated seasons in which they won the championship
+ * and in which they finished in the top three. It is immutable.
+ */
+public class TitleOdds {
+    private final StandingsSnapshot standings; // the standings the seasons were simulated from
+    private final long seasons; // the number of simulated seasons
+    private final long[] titles; // the number of titles of each driver, in standings order
+    private final long[] podiums; // the number of top three finishes of each driver, in standings order
+
+    /**
+     * Constructs a TitleOdds.
+     *
+     * @param standings the standings the seasons were simulated from
+     * @param seasons   the number of simulated seasons
+     * @param titles    the number of titles of each driver, in standings order
+     * @param podiums   the number of top three finishes of each driver, in standings order
+     */
+    TitleOdds(StandingsSnapshot standings, long seasons, long[] titles, long[] podiums) {
+        this.standings = standings;
+        this.seasons = seasons;
+        this.titles = titles;
+        this.podiums = podiums;
+    }
+
+    /**
+     * Returns the standings the seasons were simulated from.
+     *
+     * @return the standings snapshot
+     */
+    public StandingsSnapshot getStandings() {
+        return standings;
+    }
+
+    /**
+     * Returns the number of simulated seasons.
+     *
+     * @return the number of seasons
+     */
+    public long getSeasons() {
+        return seasons;
+    }
+
+    /**
+     * Returns the probability of a driver winning the championship.
+     *
+     * @param driver the driver
+     * @return the share of seasons the driver won, from 0 to 1
+     * @throws IllegalArgumentException if the driver is not in the simulated standings
+     */
+    public double getTitleProbability(Driver driver) {
+        return (double) titles[indexOf(driver)] / seasons;
+    }
+
+    /**
+     * Returns the probability of a driver finishing the championship in the top three.
+     *
+     * @param driver the driver
+     * @return the share of seasons the driver finished in the top three, from 0 to 1
+     * @throws IllegalArgumentException if the driver is not in the simulated standings
+     */
+    public double getPodiumProbability(Driver driver) {
+        return (double) podiums[indexOf(driver)] / seasons;
+    }
+
+    /**
+     * Returns the standard error of a driver's title probability, which shrinks with the square
+     * root of the number of seasons.
+     *
+     * @param driver the driver
+     * @return the standard error of the title probability
+     * @throws IllegalArgumentException if the driver is not in the simulated standings
+     */
+    public double getTitleStandardError(Driver driver) {
+        double probability = getTitleProbability(driver);
+        return Math.sqrt(probability * (1 - probability) / seasons);
+    }
+
+    /**
+     * Returns the drivers who can still win the championship, from the most likely champion.
+     * Drivers with equal probabilities are in standings order.
+     *
+     * @return a list of the drivers who won at least one simulated season
+     */
+    public List<Driver> getContenders() {
+        List<Driver> drivers = standings.getStandings();
+        Integer[] order = new Integer[drivers.size()];
+        int count = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (titles[i] > 0) {
+                order[count++] = i;
+            }
+        }
+        Arrays.sort(order, 0, count, Comparator.comparingLong((Integer i) -> -titles[i]));
+
+        Driver[] contenders = new Driver[count];
+        for (int i = 0; i < count; i++) {
+            contenders[i] = drivers.get(order[i]);
+        }
+        return Arrays.asList(contenders);
+    }
+
+    /**
+     * Returns the index of a driver in the simulated standings.
+     *
+     * @param driver the driver
+     * @return the index of the driver
+     * @throws IllegalArgumentException if the driver is not in the simulated standings
+     */
+    private int indexOf(Driver driver) {
+        int position = standings.getPosition(driver);
+        if (position == 0) {
+            throw new IllegalArgumentException("Driver is not in the simulated standings: " + driver.getName());
+        }
+        return position - 1;
+    }
+}
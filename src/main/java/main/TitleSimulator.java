@@ -0,0 +1,358 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The TitleSimulator class estimates each driver's chance of winning the championship, and of
+ * finishing in the top three, by simulating the remaining races of the season many times from
+ * the current standings.
+ * <p>
+ * In each simulated race every driver with a car performs at the rating of their car, given by
+ * {@link RallyCar#calculatePerformance()}, varied by a normally distributed amount proportional
+ * to the rating, and the points of the finishing positions are awarded by the championship's
+ * scoring system. The normal deviates are drawn from a table of 4096 equally likely quantiles,
+ * which bounds them at about 3.5 standard deviations, so a race stops drawing performances once
+ * no remaining driver could reach the points, and most of a large field is never drawn. Power
+ * stage bonuses and dropped results are not simulated. Drivers who end a season level on points
+ * are ranked in their current standings order.
+ * <p>
+ * The seasons are divided into fixed chunks, each simulated with its own generator split from
+ * one seeded generator before the chunks are run in parallel on a fork/join pool. Each chunk
+ * counts into its own arrays and the counts are summed, so no mutable state is shared and the
+ * result for a seed does not depend on the number of threads.
+ */
+public class TitleSimulator {
+    /** The default standard deviation of a driver's performance, relative to their car's rating. */
+    public static final double DEFAULT_VARIABILITY = 0.1;
+
+    static final int CHUNK = 1 << 12; // the number of seasons simulated with one generator
+    private static final int QUANTILE_BITS = 12; // the random bits choosing a normal deviate
+    private static final double[] NORMAL_QUANTILES = normalQuantiles(); // the deviates, in increasing order
+    private static final double MAX_DEVIATE = NORMAL_QUANTILES[NORMAL_QUANTILES.length - 1]; // the largest deviate
+
+    private final double variability; // the standard deviation of a performance, relative to the rating
+    private final ForkJoinPool pool; // the pool running the simulations
+
+    /**
+     * Constructs a TitleSimulator with the default variability, running on the common fork/join pool.
+     */
+    public TitleSimulator() {
+        this(DEFAULT_VARIABILITY, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a TitleSimulator.
+     *
+     * @param variability the standard deviation of a driver's performance in a race, relative to
+     *                    their car's rating
+     * @param pool        the pool to run the simulations on
+     * @throws IllegalArgumentException if the variability is negative or not finite
+     */
+    public TitleSimulator(double variability, ForkJoinPool pool) {
+        if (!(variability >= 0) || Double.isInfinite(variability)) {
+            throw new IllegalArgumentException("Variability must be a non-negative number: " + variability);
+        }
+        this.variability = variability;
+        this.pool = pool;
+    }
+
+    /**
+     * Simulates the rest of a championship's season from its current standings, with its
+     * scoring system. The standings are copied without publishing a new snapshot.
+     *
+     * @param championship   the championship
+     * @param remainingRaces the number of races left in the season
+     * @param seasons        the number of seasons to simulate
+     * @param seed           the seed of the simulation; the same seed gives the same odds
+     * @return the title and podium odds of every driver
+     * @throws IllegalArgumentException if the number of races is negative or the number of seasons is not positive
+     */
+    public TitleOdds simulate(ChampionshipManager championship, int remainingRaces, long seasons, long seed) {
+        StandingsSnapshot standings = championship.takeSnapshot(championship.getSnapshot().getVersion());
+        return simulate(standings, championship.getScoringSystem(), remainingRaces, seasons, seed);
+    }
+
+    /**
+     * Simulates the rest of a season from standings.
+     *
+     * @param standings      the standings to start from
+     * @param scoring        the scoring system awarding points for race positions
+     * @param remainingRaces the number of races left in the season
+     * @param seasons        the number of seasons to simulate
+     * @param seed           the seed of the simulation; the same seed gives the same odds
+     * @return the title and podium odds of every driver
+     * @throws IllegalArgumentException if the number of races is negative or the number of seasons is not positive
+     */
+    public TitleOdds simulate(StandingsSnapshot standings, ScoringSystem scoring, int remainingRaces, long seasons, long seed) {
+        if (remainingRaces < 0) {
+            throw new IllegalArgumentException("Remaining races must not be negative: " + remainingRaces);
+        }
+        if (seasons <= 0) {
+            throw new IllegalArgumentException("Seasons must be positive: " + seasons);
+        }
+
+        Field field = new Field(standings, scoring, remainingRaces, variability);
+        int chunks = (int) ((seasons + CHUNK - 1) / CHUNK);
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] generators = new SplittableRandom[chunks];
+        for (int i = 0; i < chunks; i++) {
+            generators[i] = root.split(); // split in chunk order, so each chunk's generator depends only on the seed
+        }
+
+        Counts counts = pool.invoke(new SeasonTask(field, generators, seasons, 0, chunks));
+        return new TitleOdds(standings, seasons, counts.titles, counts.podiums);
+    }
+
+    /**
+     * Computes the normal deviates at the midpoints of 2^QUANTILE_BITS equally likely intervals.
+     *
+     * @return the deviates, in increasing order
+     */
+    private static double[] normalQuantiles() {
+        double[] quantiles = new double[1 << QUANTILE_BITS];
+        for (int i = 0; i < quantiles.length; i++) {
+            quantiles[i] = inverseNormal((i + 0.5) / quantiles.length);
+        }
+        return quantiles;
+    }
+
+    /**
+     * Returns the standard normal deviate below which a probability lies, with Acklam's rational
+     * approximation, whose relative error is below 1.2e-9.
+     *
+     * @param p the probability, strictly between 0 and 1
+     * @return the deviate
+     */
+    static double inverseNormal(double p) {
+        final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        final double low = 0.02425; // below this, and above 1 - low, the tail approximation is used
+
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            return -inverseNormal(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    /**
+     * The drivers, points and race model shared read-only by every simulated season.
+     */
+    private static final class Field {
+        private final int size; // the number of drivers, in standings order
+        private final int[] points; // the current points of each driver
+        private final int[] starters; // the drivers with a car, from the highest ceiling
+        private final double[] ratings; // the car rating of each starter
+        private final double[] deviations; // the standard deviation of each starter's performance
+        private final double[] ceilings; // the best performance each starter can draw, in decreasing order
+        private final int[] awards; // the points for each scoring position, from the first
+        private final int races; // the number of races to simulate
+
+        private Field(StandingsSnapshot standings, ScoringSystem scoring, int races, double variability) {
+            List<Driver> drivers = standings.getStandings();
+            this.size = drivers.size();
+            this.points = new int[size];
+            List<Integer> withCar = new ArrayList<>();
+            double[] rated = new double[size];
+            for (int i = 0; i < size; i++) {
+                Driver driver = drivers.get(i);
+                points[i] = standings.getPointsAt(i + 1);
+                RallyCar car = driver.getCar();
+                if (car != null) {
+                    withCar.add(i);
+                    rated[i] = car.calculatePerformance();
+                }
+            }
+
+            // the starters are ordered by ceiling, with ties in standings order, so a race can stop at the first one out of reach
+            withCar.sort(Comparator.comparingDouble((Integer i) -> -ceilingOf(rated[i], variability)));
+            int count = withCar.size();
+            this.starters = new int[count];
+            this.ratings = new double[count];
+            this.deviations = new double[count];
+            this.ceilings = new double[count];
+            for (int i = 0; i < count; i++) {
+                starters[i] = withCar.get(i);
+                ratings[i] = rated[starters[i]];
+                deviations[i] = Math.abs(ratings[i]) * variability;
+                ceilings[i] = ceilingOf(ratings[i], variability);
+            }
+
+            // only the positions that score need to be decided in a simulated race
+            int scoringPositions = 0;
+            for (int position = 1; position <= count; position++) {
+                if (scoring.pointsFor(position) != 0) {
+                    scoringPositions = position;
+                }
+            }
+            this.awards = new int[scoringPositions];
+            for (int position = 1; position <= scoringPositions; position++) {
+                awards[position - 1] = scoring.pointsFor(position);
+            }
+            this.races = races;
+        }
+
+        private static double ceilingOf(double rating, double variability) {
+            return rating + MAX_DEVIATE * Math.abs(rating) * variability;
+        }
+    }
+
+    /**
+     * The titles and podiums counted by a task, by driver in standings order.
+     */
+    private static final class Counts {
+        private final long[] titles; // the number of titles of each driver
+        private final long[] podiums; // the number of top three finishes of each driver
+
+        private Counts(int size) {
+            this.titles = new long[size];
+            this.podiums = new long[size];
+        }
+
+        private void merge(Counts other) {
+            for (int i = 0; i < titles.length; i++) {
+                titles[i] += other.titles[i];
+                podiums[i] += other.podiums[i];
+            }
+        }
+    }
+
+    /**
+     * A task simulating a range of chunks of seasons, splitting it in halves while it has more than one chunk.
+     */
+    @SuppressWarnings("serial") // tasks are never serialized
+    private static final class SeasonTask extends RecursiveTask<Counts> {
+        private final Field field; // the field being simulated
+        private final SplittableRandom[] generators; // the generator of each chunk
+        private final long seasons; // the total number of seasons, which ends the last chunk
+        private final int from; // the first chunk of the range
+        private final int to; // the end of the range, exclusive
+
+        private SeasonTask(Field field, SplittableRandom[] generators, long seasons, int from, int to) {
+            this.field = field;
+            this.generators = generators;
+            this.seasons = seasons;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                SeasonTask right = new SeasonTask(field, generators, seasons, middle, to);
+                right.fork();
+                Counts result = new SeasonTask(field, generators, seasons, from, middle).compute();
+                result.merge(right.join());
+                return result;
+            }
+
+            Counts counts = new Counts(field.size);
+            SplittableRandom random = generators[from];
+            long count = Math.min(CHUNK, seasons - (long) from * CHUNK);
+            int[] points = new int[field.size];
+            double[] topScores = new double[field.awards.length];
+            int[] topDrivers = new int[field.awards.length];
+            for (long season = 0; season < count; season++) {
+                System.arraycopy(field.points, 0, points, 0, field.size);
+                for (int race = 0; race < field.races; race++) {
+                    simulateRace(random, points, topScores, topDrivers);
+                }
+                countStandings(points, counts);
+            }
+            return counts;
+        }
+
+        /**
+         * Simulates one race and adds the points of the scoring positions.
+         *
+         * @param random     the generator of the chunk
+         * @param points     the points of each driver in the simulated season
+         * @param topScores  scratch space for the performances of the scoring positions
+         * @param topDrivers scratch space for the drivers of the scoring positions
+         */
+        private void simulateRace(SplittableRandom random, int[] points, double[] topScores, int[] topDrivers) {
+            int scoring = topScores.length;
+            int filled = 0;
+            if (scoring == 0) {
+                return;
+            }
+            for (int i = 0; i < field.starters.length; i++) {
+                if (filled == scoring && field.ceilings[i] <= topScores[scoring - 1]) {
+                    break; // neither this starter nor any after them can reach the points
+                }
+                double score = field.ratings[i] + field.deviations[i] * NORMAL_QUANTILES[random.nextInt() >>> (32 - QUANTILE_BITS)];
+                if (filled == scoring && score <= topScores[scoring - 1]) {
+                    continue;
+                }
+
+                // insert into the sorted scoring positions, dropping the last one if they are full
+                int slot = filled < scoring ? filled++ : scoring - 1;
+                while (slot > 0 && topScores[slot - 1] < score) {
+                    topScores[slot] = topScores[slot - 1];
+                    topDrivers[slot] = topDrivers[slot - 1];
+                    slot--;
+                }
+                topScores[slot] = score;
+                topDrivers[slot] = i;
+            }
+            for (int position = 0; position < filled; position++) {
+                points[field.starters[topDrivers[position]]] += field.awards[position];
+            }
+        }
+
+        /**
+         * Counts the champion and the top three of a simulated season. Drivers level on points
+         * are ranked in standings order.
+         *
+         * @param points the points of each driver at the end of the season
+         * @param counts the counts to add to
+         */
+        private static void countStandings(int[] points, Counts counts) {
+            int first = -1;
+            int second = -1;
+            int third = -1;
+            for (int i = 0; i < points.length; i++) {
+                int p = points[i];
+                if (first < 0 || p > points[first]) {
+                    third = second;
+                    second = first;
+                    first = i;
+                } else if (second < 0 || p > points[second]) {
+                    third = second;
+                    second = i;
+                } else if (third < 0 || p > points[third]) {
+                    third = i;
+                }
+            }
+            if (first >= 0) {
+                counts.titles[first]++;
+                counts.podiums[first]++;
+            }
+            if (second >= 0) {
+                counts.podiums[second]++;
+            }
+            if (third >= 0) {
+                counts.podiums[third]++;
+            }
+        }
+    }
+}